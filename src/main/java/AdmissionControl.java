@@ -0,0 +1,170 @@
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounds the job submissions waiting in the system, per client and overall.
+ * A job holds a slot from the moment its request is created (or it is added
+ * to the controller directly) until it first starts running or is archived,
+ * so pending requests, the pending queue and the rows written for them stay
+ * bounded. A submission over a limit is refused at once with a retry-after
+ * hint, estimated from how fast slots have been freed recently.
+ *
+ * Shared by the Server and every controller using it (each shard of a
+ * ShardedVCController has its own, on its own Server); all methods are
+ * synchronized and never call out.
+ */
+public class AdmissionControl {
+
+    public static final int DEFAULT_MAX_PER_CLIENT = 10_000;
+    public static final int DEFAULT_MAX_GLOBAL = 100_000;
+
+    // Used while there are too few releases to estimate a rate
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(30);
+    private static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_AFTER = Duration.ofHours(1);
+    // Recent releases the drain rate is estimated from
+    private static final int RATE_WINDOW = 64;
+
+    /** Outcome of an admission check. */
+    public static final class Decision {
+        static final Decision ADMITTED = new Decision(null, null);
+
+        private final String reason;
+        private final Duration retryAfter;
+
+        private Decision(String reason, Duration retryAfter) {
+            this.reason = reason;
+            this.retryAfter = retryAfter;
+        }
+
+        public boolean isAdmitted() {
+            return reason == null;
+        }
+
+        /** Why the submission was refused; null if admitted. */
+        public String getReason() {
+            return reason;
+        }
+
+        /** When it is worth submitting again; null if admitted. */
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+
+    private int maxPerClient = DEFAULT_MAX_PER_CLIENT;
+    private int maxGlobal = DEFAULT_MAX_GLOBAL;
+
+    // Job ID -> client holding the slot
+    private final Map<String, String> holders = new HashMap<>();
+    private final Map<String, Integer> perClient = new HashMap<>();
+    private final Deque<Instant> releases = new ArrayDeque<>();
+    private Clock clock = Clock.systemDefaultZone();
+    private long admittedCount;
+    private long rejectedCount;
+
+    public synchronized void setLimits(int maxPerClient, int maxGlobal) {
+        if (maxPerClient < 1 || maxGlobal < 1) {
+            throw new IllegalArgumentException("Admission limits must be at least 1.");
+        }
+        this.maxPerClient = maxPerClient;
+        this.maxGlobal = maxGlobal;
+    }
+
+    public synchronized void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Takes a slot for the job unless the client or the system is at its
+     * limit. A job that already holds a slot is admitted again.
+     */
+    public synchronized Decision admit(String jobID, String clientID) {
+        if (holders.containsKey(jobID)) {
+            return Decision.ADMITTED;
+        }
+        int clientCount = perClient.getOrDefault(clientID, 0);
+        if (clientCount >= maxPerClient) {
+            rejectedCount++;
+            return new Decision("client " + clientID + " has " + clientCount + " jobs waiting (limit " + maxPerClient + ")",
+                    retryAfter(clientCount - maxPerClient + 1));
+        }
+        if (holders.size() >= maxGlobal) {
+            rejectedCount++;
+            return new Decision(holders.size() + " jobs waiting system-wide (limit " + maxGlobal + ")",
+                    retryAfter(holders.size() - maxGlobal + 1));
+        }
+        hold(jobID, clientID);
+        admittedCount++;
+        return Decision.ADMITTED;
+    }
+
+    /** Counts a job that is already waiting (e.g. reloaded after a restart) without checking limits. */
+    public synchronized void hold(String jobID, String clientID) {
+        if (holders.putIfAbsent(jobID, clientID) == null) {
+            perClient.merge(clientID, 1, Integer::sum);
+        }
+    }
+
+    /** Frees the job's slot, if it holds one. */
+    public synchronized void release(String jobID) {
+        String clientID = holders.remove(jobID);
+        if (clientID == null) {
+            return;
+        }
+        perClient.computeIfPresent(clientID, (id, count) -> count > 1 ? count - 1 : null);
+        releases.addLast(clock.instant());
+        if (releases.size() > RATE_WINDOW) {
+            releases.removeFirst();
+        }
+    }
+
+    public synchronized int getOutstanding() {
+        return holders.size();
+    }
+
+    public synchronized int getOutstanding(String clientID) {
+        return perClient.getOrDefault(clientID, 0);
+    }
+
+    /** Waiting jobs per client. */
+    public synchronized Map<String, Integer> getOutstandingByClient() {
+        return new HashMap<>(perClient);
+    }
+
+    public synchronized long getAdmittedCount() {
+        return admittedCount;
+    }
+
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public synchronized void clear() {
+        holders.clear();
+        perClient.clear();
+        releases.clear();
+    }
+
+    // Time until `slots` more slots are expected to free up at the recent rate
+    private Duration retryAfter(int slots) {
+        if (releases.size() < 2) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        long spanMillis = Duration.between(releases.peekFirst(), releases.peekLast()).toMillis();
+        if (spanMillis <= 0) {
+            return MIN_RETRY_AFTER;
+        }
+        double perMilli = (releases.size() - 1) / (double) spanMillis;
+        Duration estimate = Duration.ofMillis((long) Math.ceil(slots / perMilli));
+        if (estimate.compareTo(MIN_RETRY_AFTER) < 0) {
+            return MIN_RETRY_AFTER;
+        }
+        return estimate.compareTo(MAX_RETRY_AFTER) > 0 ? MAX_RETRY_AFTER : estimate;
+    }
+}
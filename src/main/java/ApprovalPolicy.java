@@ -0,0 +1,149 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rules that let VCController approve routine requests without waiting for
+ * someone to click Accept in RequestsFrame. A request passing every rule for
+ * its type is approved on arrival; the first rule it fails is reported and
+ * the request goes to the manual queue as before.
+ *
+ * Built-in job rules: known sender, redundancy and duration limits, and a
+ * deadline the job can still meet. Built-in vehicle rules: known sender, a
+ * signature neither registered nor named by another pending registration,
+ * and a departure inside the allowed window. Every rule is a hash probe or a
+ * comparison, so evaluation takes microseconds. More rules can be added with
+ * addJobRule / addVehicleRule.
+ *
+ * A sender becomes known when one of its requests is approved (by hand or
+ * by the rules) or when trustSender is called, so each sender's first
+ * request is still reviewed by a person.
+ */
+public class ApprovalPolicy {
+
+    /** One check; returns null if the subject passes, otherwise why it does not. */
+    @FunctionalInterface
+    public interface Rule<T> {
+        String violation(T subject, Request request, LocalDateTime now);
+    }
+
+    public static final int DEFAULT_MAX_REDUNDANCY = 5;
+    public static final int DEFAULT_MAX_DURATION_HOURS = 72;
+    public static final Duration DEFAULT_MIN_STAY = Duration.ofHours(1);
+    public static final Duration DEFAULT_MAX_STAY = Duration.ofDays(90);
+
+    private final VehicleSignatureIndex vehicleIndex;
+    private final Set<String> knownSenders = ConcurrentHashMap.newKeySet();
+
+    private volatile int maxRedundancy = DEFAULT_MAX_REDUNDANCY;
+    private volatile int maxDurationHours = DEFAULT_MAX_DURATION_HOURS;
+    private volatile Duration minStay = DEFAULT_MIN_STAY;
+    private volatile Duration maxStay = DEFAULT_MAX_STAY;
+
+    private final List<Rule<Job>> jobRules = new ArrayList<>();
+    private final List<Rule<Vehicle>> vehicleRules = new ArrayList<>();
+
+    public ApprovalPolicy(VehicleSignatureIndex vehicleIndex) {
+        this.vehicleIndex = Objects.requireNonNull(vehicleIndex, "Vehicle index cannot be null.");
+
+        jobRules.add((job, request, now) -> knownSender(request));
+        jobRules.add((job, request, now) -> job.getRedundancyLevel() > maxRedundancy
+                ? "redundancy " + job.getRedundancyLevel() + " exceeds " + maxRedundancy : null);
+        jobRules.add((job, request, now) -> job.getDuration() > maxDurationHours
+                ? "duration " + job.getDuration() + "h exceeds " + maxDurationHours + "h" : null);
+        jobRules.add((job, request, now) -> job.getDeadline() == null || job.getDeadline().isBefore(now.plusHours(job.getDuration()))
+                ? "deadline cannot be met" : null);
+
+        vehicleRules.add((vehicle, request, now) -> knownSender(request));
+        vehicleRules.add((vehicle, request, now) -> {
+            VehicleSignatureIndex.State state = vehicleIndex.stateOf(vehicle.getSignature());
+            if (state == VehicleSignatureIndex.State.AVAILABLE || state == VehicleSignatureIndex.State.ACTIVE) {
+                return "vehicle " + vehicle.getSignature() + " is already registered";
+            }
+            // This request is counted too; any other one for the same car needs a person to pick
+            return vehicleIndex.pendingRegistrations(vehicle.getSignature()) > 1
+                    ? "another registration of vehicle " + vehicle.getSignature() + " is pending" : null;
+        });
+        vehicleRules.add((vehicle, request, now) -> {
+            LocalDateTime departure = vehicle.getDepartureSchedule();
+            if (departure == null || departure.isBefore(now.plus(minStay))) {
+                return "departure is less than " + minStay.toMinutes() + " minutes away";
+            }
+            return departure.isAfter(now.plus(maxStay)) ? "departure is more than " + maxStay.toDays() + " days away" : null;
+        });
+    }
+
+    public void trustSender(String senderID) {
+        knownSenders.add(senderID);
+    }
+
+    public void distrustSender(String senderID) {
+        knownSenders.remove(senderID);
+    }
+
+    public boolean isTrusted(String senderID) {
+        return senderID != null && knownSenders.contains(senderID);
+    }
+
+    /** Called for every approved request; its sender is known from then on. */
+    public void recordApproval(Request request) {
+        if (request.getSenderID() != null) {
+            knownSenders.add(request.getSenderID());
+        }
+    }
+
+    public void setJobLimits(int maxRedundancy, int maxDurationHours) {
+        this.maxRedundancy = maxRedundancy;
+        this.maxDurationHours = maxDurationHours;
+    }
+
+    /** Departures allowed for auto-approved vehicles, measured from the time of the request. */
+    public void setDepartureWindow(Duration minStay, Duration maxStay) {
+        this.minStay = Objects.requireNonNull(minStay);
+        this.maxStay = Objects.requireNonNull(maxStay);
+    }
+
+    /** Adds a job rule; call before requests arrive. */
+    public void addJobRule(Rule<Job> rule) {
+        jobRules.add(rule);
+    }
+
+    /** Adds a vehicle rule; call before requests arrive. */
+    public void addVehicleRule(Rule<Vehicle> rule) {
+        vehicleRules.add(rule);
+    }
+
+    /** Null if the job request can be approved automatically, otherwise the first rule it fails. */
+    public String checkJob(Request request, LocalDateTime now) {
+        if (!(request.getData() instanceof Job)) {
+            return "not a job";
+        }
+        return firstViolation(jobRules, (Job) request.getData(), request, now);
+    }
+
+    /** Null if the vehicle request can be approved automatically, otherwise the first rule it fails. */
+    public String checkVehicle(Request request, LocalDateTime now) {
+        if (!(request.getData() instanceof Vehicle)) {
+            return "not a vehicle";
+        }
+        return firstViolation(vehicleRules, (Vehicle) request.getData(), request, now);
+    }
+
+    private static <T> String firstViolation(List<Rule<T>> rules, T subject, Request request, LocalDateTime now) {
+        for (Rule<T> rule : rules) {
+            String violation = rule.violation(subject, request, now);
+            if (violation != null) {
+                return violation;
+            }
+        }
+        return null;
+    }
+
+    private String knownSender(Request request) {
+        return isTrusted(request.getSenderID()) ? null : "sender " + request.getSenderID() + " has no approved requests yet";
+    }
+}
@@ -0,0 +1,189 @@
+import java.time.LocalDateTime;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Idle vehicles indexed by capacity and departure time.
+ * Vehicles are grouped into capacity classes (cores, memory, storage), each
+ * ordered by departure. Placement considers only classes that fit the job's
+ * requirements, smallest class first, so big cars stay free for big jobs;
+ * within a class it uses best-fit on departure: the car that leaves soonest
+ * after the job would finish. Fleets have few distinct capacities (one per
+ * make and trim), so a lookup is O(classes * log n) however many cars are parked.
+ */
+public class AvailableVehiclePool extends AbstractCollection<Vehicle> {
+
+    private static final Comparator<Key> ORDER =
+            Comparator.<Key, LocalDateTime>comparing(k -> k.departure).thenComparing(k -> k.signature);
+
+    // Capacity class -> its idle vehicles by departure
+    private final NavigableMap<Resources, NavigableMap<Key, Vehicle>> classes = new TreeMap<>(Resources.ORDER);
+    private int size;
+
+    @Override
+    public boolean add(Vehicle vehicle) {
+        if (classes.computeIfAbsent(vehicle.getCapacity(), c -> new TreeMap<>(ORDER)).put(keyOf(vehicle), vehicle) != null) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Vehicle)) {
+            return false;
+        }
+        Vehicle vehicle = (Vehicle) o;
+        NavigableMap<Key, Vehicle> vehicles = classes.get(vehicle.getCapacity());
+        if (vehicles == null || vehicles.remove(keyOf(vehicle)) == null) {
+            return false;
+        }
+        size--;
+        if (vehicles.isEmpty()) {
+            classes.remove(vehicle.getCapacity());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Vehicle)) {
+            return false;
+        }
+        NavigableMap<Key, Vehicle> vehicles = classes.get(((Vehicle) o).getCapacity());
+        return vehicles != null && vehicles.containsKey(keyOf((Vehicle) o));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Iterates class by class, smallest capacity first, each from the earliest to the latest departure. */
+    @Override
+    public Iterator<Vehicle> iterator() {
+        return classes.values().stream().flatMap(vehicles -> vehicles.values().stream()).iterator();
+    }
+
+    /** Number of idle vehicles whose capacity covers the given requirements. */
+    public int countFitting(Resources required) {
+        if (required.equals(Resources.NONE)) {
+            return size;
+        }
+        int count = 0;
+        for (Map.Entry<Resources, NavigableMap<Key, Vehicle>> entry : fittingClasses(required)) {
+            if (entry.getKey().fits(required)) {
+                count += entry.getValue().size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Number of idle vehicles, counted up to limit, whose capacity covers the
+     * requirements and that stay parked until the given time. Vehicles in
+     * excluded are not counted. O(classes + limit + excluded).
+     */
+    public int countFitting(Resources required, LocalDateTime until, Set<Vehicle> excluded, int limit) {
+        int count = 0;
+        Key wanted = new Key(until, "");
+        for (Map.Entry<Resources, NavigableMap<Key, Vehicle>> entry : fittingClasses(required)) {
+            if (!entry.getKey().fits(required)) {
+                continue;
+            }
+            for (Vehicle vehicle : entry.getValue().tailMap(wanted, true).values()) {
+                if (!excluded.contains(vehicle) && ++count >= limit) {
+                    return count;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Best-fit vehicle for work without resource requirements; see takeBestFit(Resources, LocalDateTime). */
+    public Vehicle takeBestFit(LocalDateTime requiredUntil) {
+        return takeBestFit(Resources.NONE, requiredUntil);
+    }
+
+    /**
+     * Removes and returns the best-fit vehicle for work that needs the given
+     * resources until requiredUntil: in the smallest fitting class that has a
+     * car still parked by then, the earliest-departing such car; if no fitting
+     * car stays that long, the fitting car that stays longest. Null if no
+     * vehicle fits.
+     */
+    public Vehicle takeBestFit(Resources required, LocalDateTime requiredUntil) {
+        Key wanted = new Key(requiredUntil, "");
+        Map.Entry<Key, Vehicle> longest = null;
+        for (Map.Entry<Resources, NavigableMap<Key, Vehicle>> entry : fittingClasses(required)) {
+            if (!entry.getKey().fits(required)) {
+                continue;
+            }
+            NavigableMap<Key, Vehicle> vehicles = entry.getValue();
+            Map.Entry<Key, Vehicle> fit = vehicles.ceilingEntry(wanted);
+            if (fit != null) {
+                return take(fit.getValue());
+            }
+            Map.Entry<Key, Vehicle> last = vehicles.lastEntry();
+            if (longest == null || ORDER.compare(last.getKey(), longest.getKey()) > 0) {
+                longest = last;
+            }
+        }
+        return longest == null ? null : take(longest.getValue());
+    }
+
+    public List<Vehicle> takeBestFit(int count, LocalDateTime requiredUntil) {
+        return takeBestFit(count, Resources.NONE, requiredUntil);
+    }
+
+    /**
+     * Removes and returns up to count vehicles chosen by best-fit.
+     * Fitting cars that cover requiredUntil are taken first; any shortfall is
+     * filled with the longest-staying remaining fitting cars.
+     */
+    public List<Vehicle> takeBestFit(int count, Resources required, LocalDateTime requiredUntil) {
+        List<Vehicle> taken = new ArrayList<>(count);
+        while (taken.size() < count) {
+            Vehicle vehicle = takeBestFit(required, requiredUntil);
+            if (vehicle == null) {
+                break;
+            }
+            taken.add(vehicle);
+        }
+        return taken;
+    }
+
+    // Classes with at least the required cores; memory and storage are checked by the caller
+    private Iterable<Map.Entry<Resources, NavigableMap<Key, Vehicle>>> fittingClasses(Resources required) {
+        return classes.tailMap(new Resources(required.getCpuCores(), 0, 0), true).entrySet();
+    }
+
+    private Vehicle take(Vehicle vehicle) {
+        remove(vehicle);
+        return vehicle;
+    }
+
+    private static Key keyOf(Vehicle vehicle) {
+        LocalDateTime departure = vehicle.getDepartureSchedule() != null 
+                ? vehicle.getDepartureSchedule() : LocalDateTime.MAX;
+        return new Key(departure, vehicle.getSignature());
+    }
+
+    private static class Key {
+        final LocalDateTime departure;
+        final String signature;
+
+        Key(LocalDateTime departure, String signature) {
+            this.departure = departure;
+            this.signature = signature;
+        }
+    }
+}
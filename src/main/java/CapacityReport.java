@@ -0,0 +1,27 @@
+import java.io.Serializable;
+
+/**
+ * CPU cores, memory and storage a vehicle offers, sent by the vehicle to the
+ * NetworkServer port when it joins or its capacity changes. The controller
+ * matches jobs' requirements against it (see VCController.handleCapacityReport).
+ */
+public class CapacityReport implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String vehicleSignature;
+    private final Resources capacity;
+
+    public CapacityReport(String vehicleSignature, Resources capacity) {
+        this.vehicleSignature = vehicleSignature;
+        this.capacity = capacity;
+    }
+
+    /** Signature (license plate + state) of the reporting vehicle. */
+    public String getVehicleSignature() {
+        return vehicleSignature;
+    }
+
+    public Resources getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,123 @@
+import java.time.Duration;
+
+/**
+ * Chooses how often an in-progress job is checkpointed.
+ *
+ * A job only loses work when its last remaining host leaves, so the policy
+ * looks at that host rather than at the first one to go. Departures at a
+ * vehicle's departureSchedule are known in advance: a job that would outlive
+ * its last host is checkpointed just before that host is due to leave (and
+ * migration usually moves it even earlier). Between those, checkpoints guard
+ * against vehicles leaving before their schedule, using Daly's refinement of
+ * Young's interval, T = sqrt(2 C M) - C, where C is the cost of one
+ * checkpoint and M the mean time until every host has left early. Early
+ * departures are counted against the vehicle-time observed, giving a mean
+ * time m until one vehicle leaves early; with k hosts leaving independently,
+ * M = m * H(k), the expected time until the last of them is gone.
+ */
+public class CheckpointIntervalPolicy {
+
+    // Weight of each new observation in the moving average of vehicle stays
+    private static final double SMOOTHING = 0.05;
+    // Upper bound when early departures are rare enough to make T effectively infinite
+    private static final long MAX_INTERVAL_SECONDS = Duration.ofDays(365).getSeconds();
+
+    private Duration checkpointCost;
+    private final Duration minInterval;
+    private double meanStaySeconds;
+    private long observedDepartures;
+    // Vehicle-time observed and early departures within it; seeded with one assumed stay
+    private double exposureSeconds;
+    private long earlyDepartures = 1;
+
+    /**
+     * @param checkpointCost time one checkpoint takes away from the job
+     * @param initialMeanStay assumed time until a vehicle leaves early, until departures have been observed
+     * @param minInterval lower bound so short stays cannot cause checkpoint storms
+     */
+    public CheckpointIntervalPolicy(Duration checkpointCost, Duration initialMeanStay, Duration minInterval) {
+        this.checkpointCost = checkpointCost;
+        this.meanStaySeconds = initialMeanStay.getSeconds();
+        this.exposureSeconds = initialMeanStay.getSeconds();
+        this.minInterval = minInterval;
+    }
+
+    /**
+     * Feeds a departing vehicle into the estimates.
+     * @param stay how long the vehicle was parked
+     * @param early whether it left before its departureSchedule (or had none)
+     */
+    public void recordDeparture(Duration stay, boolean early) {
+        if (stay.isNegative()) {
+            return;
+        }
+        observedDepartures++;
+        meanStaySeconds += SMOOTHING * (stay.getSeconds() - meanStaySeconds);
+        exposureSeconds += stay.getSeconds();
+        if (early) {
+            earlyDepartures++;
+        }
+    }
+
+    /** Checkpoint interval against early departures for a job running on the given number of vehicles. */
+    public Duration intervalFor(int hosts) {
+        double cost = checkpointCost.getSeconds();
+        double mtbf = exposureSeconds / earlyDepartures * harmonic(Math.max(1, hosts));
+        double interval = cost >= mtbf / 2 ? mtbf : Math.sqrt(2 * cost * mtbf) - cost;
+        long seconds = Math.max(minInterval.getSeconds(), (long) Math.min(interval, MAX_INTERVAL_SECONDS));
+        return Duration.ofSeconds(seconds);
+    }
+
+    /**
+     * Time until a job's next checkpoint.
+     * @param hosts vehicles the job runs on
+     * @param untilLastDeparture time until the last of them is scheduled to leave, null if unknown
+     * @param remainingWork time until the job is expected to finish
+     */
+    public Duration nextCheckpointIn(int hosts, Duration untilLastDeparture, Duration remainingWork) {
+        Duration interval = intervalFor(hosts);
+        if (untilLastDeparture != null && untilLastDeparture.compareTo(remainingWork) <= 0) {
+            // Outlives its hosts (a tie races the departure): save the work shortly before the last one leaves
+            Duration beforeDeparture = untilLastDeparture.minus(minInterval);
+            if (!beforeDeparture.isNegative() && !beforeDeparture.isZero() && beforeDeparture.compareTo(interval) < 0) {
+                return beforeDeparture;
+            }
+        }
+        return interval;
+    }
+
+    private static double harmonic(int k) {
+        double sum = 0;
+        for (int i = 1; i <= k; i++) {
+            sum += 1.0 / i;
+        }
+        return sum;
+    }
+
+    public void setCheckpointCost(Duration checkpointCost) {
+        this.checkpointCost = checkpointCost;
+    }
+
+    public Duration getCheckpointCost() {
+        return checkpointCost;
+    }
+
+    /** Shortest interval; a departure this close to its schedule still counts as on time. */
+    public Duration getMinInterval() {
+        return minInterval;
+    }
+
+    /** Current estimate of how long a vehicle stays before departing. */
+    public Duration getMeanStay() {
+        return Duration.ofSeconds((long) meanStaySeconds);
+    }
+
+    /** Current estimate of how long a vehicle stays before leaving ahead of its schedule. */
+    public Duration getMeanTimeToEarlyDeparture() {
+        return Duration.ofSeconds((long) (exposureSeconds / earlyDepartures));
+    }
+
+    public long getObservedDepartures() {
+        return observedDepartures;
+    }
+}
@@ -0,0 +1,74 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Next automatic checkpoint of each in-progress job, ordered by due time.
+ * Rescheduling or cancelling a job is O(log n); collecting the due jobs only
+ * touches the head of the map.
+ */
+public class CheckpointSchedule {
+
+    private static final Comparator<Key> ORDER =
+            Comparator.<Key, LocalDateTime>comparing(k -> k.due).thenComparing(k -> k.jobID);
+
+    private final NavigableMap<Key, Job> byDue = new TreeMap<>(ORDER);
+    private final Map<String, Key> keys = new HashMap<>();
+
+    /** Sets (or moves) the job's next checkpoint. */
+    public void schedule(Job job, LocalDateTime due) {
+        cancel(job);
+        Key key = new Key(due, job.getJobID());
+        byDue.put(key, job);
+        keys.put(job.getJobID(), key);
+    }
+
+    public void cancel(Job job) {
+        Key key = keys.remove(job.getJobID());
+        if (key != null) {
+            byDue.remove(key);
+        }
+    }
+
+    /** Removes and returns every job whose checkpoint is due at or before now, earliest first. */
+    public List<Job> pollDue(LocalDateTime now) {
+        List<Job> due = new ArrayList<>();
+        Map.Entry<Key, Job> first = byDue.firstEntry();
+        while (first != null && !first.getKey().due.isAfter(now)) {
+            byDue.pollFirstEntry();
+            keys.remove(first.getKey().jobID);
+            due.add(first.getValue());
+            first = byDue.firstEntry();
+        }
+        return due;
+    }
+
+    public LocalDateTime dueTime(Job job) {
+        Key key = keys.get(job.getJobID());
+        return key == null ? null : key.due;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public void clear() {
+        byDue.clear();
+        keys.clear();
+    }
+
+    private static class Key {
+        final LocalDateTime due;
+        final String jobID;
+
+        Key(LocalDateTime due, String jobID) {
+            this.due = due;
+            this.jobID = jobID;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List; 
@@ -22,7 +23,7 @@ public class ClientGUI extends JPanel {
 
     private final Client clientUser; 
     private final Runnable onLogout;
-    private final VCController controller;
+    private final CloudController controller;
     private final Server server;
 
     // Request tracking
@@ -37,6 +38,11 @@ public class ClientGUI extends JPanel {
     private JSpinner durationSpinner;
     private JComboBox<String> durationUnitBox;
     private JSpinner redundancySpinner;
+    private JComboBox<Job.Priority> priorityBox;
+    private JSpinner coresSpinner;
+    private JSpinner memorySpinner;
+    private JSpinner storageSpinner;
+    private JTextField predecessorsField;
     private JSpinner deadlineMonthSpinner;
     private JSpinner deadlineDaySpinner;
     private JSpinner deadlineYearSpinner;
@@ -65,7 +71,7 @@ public class ClientGUI extends JPanel {
     private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
 
-    public ClientGUI(Client clientUser, Runnable onLogout, VCController controller) { 
+    public ClientGUI(Client clientUser, Runnable onLogout, CloudController controller) { 
         this.clientUser = clientUser; 
         this.onLogout = onLogout;
         this.controller = controller;
@@ -410,6 +416,14 @@ public class ClientGUI extends JPanel {
         durationSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 10000, 1));
         durationUnitBox = new JComboBox<>(new String[]{"hours", "days"});
         redundancySpinner = new JSpinner(new SpinnerNumberModel(1, 1, 10, 1));
+        priorityBox = new JComboBox<>(Job.Priority.values());
+        priorityBox.setSelectedItem(Job.Priority.NORMAL);
+        // What each vehicle running a replica must offer; 0 means any
+        coresSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 64, 1));
+        memorySpinner = new JSpinner(new SpinnerNumberModel(0, 0, 512, 1));
+        storageSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 4096, 16));
+        predecessorsField = new JTextField();
+        predecessorsField.setToolTipText("Job IDs that must complete first, comma-separated");
 
         LocalDateTime now = LocalDateTime.now().plusHours(1);
         deadlineMonthSpinner = new JSpinner(new SpinnerNumberModel(now.getMonthValue(), 1, 12, 1));
@@ -463,6 +477,36 @@ public class ClientGUI extends JPanel {
         gc.gridy = r++;
         form.add(redundancySpinner, gc);
 
+        gc.gridx = 0;
+        gc.gridy = r;
+        form.add(new JLabel("Priority:"), gc);
+        gc.gridx = 1;
+        gc.gridy = r++;
+        form.add(priorityBox, gc);
+
+        JPanel requirementsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        requirementsPanel.setOpaque(false);
+        requirementsPanel.add(new JLabel("Cores:"));
+        requirementsPanel.add(coresSpinner);
+        requirementsPanel.add(new JLabel("Memory (GB):"));
+        requirementsPanel.add(memorySpinner);
+        requirementsPanel.add(new JLabel("Storage (GB):"));
+        requirementsPanel.add(storageSpinner);
+
+        gc.gridx = 0;
+        gc.gridy = r;
+        form.add(new JLabel("Needs per Vehicle:"), gc);
+        gc.gridx = 1;
+        gc.gridy = r++;
+        form.add(requirementsPanel, gc);
+
+        gc.gridx = 0;
+        gc.gridy = r;
+        form.add(new JLabel("Runs After (Job IDs):"), gc);
+        gc.gridx = 1;
+        gc.gridy = r++;
+        form.add(predecessorsField, gc);
+
         JButton submitButton = new JButton("Submit Job");
         JButton clearButton = new JButton("Clear Form");
         JButton logoutButton = new JButton("Logout");
@@ -751,8 +795,27 @@ public class ClientGUI extends JPanel {
         
         // Create Job with explicit Client ID and Sender ID
         Job job = new Job(jobId, clientId, clientUser.getUserID(), duration, redundancy, deadline);
+        job.setPriority((Job.Priority) priorityBox.getSelectedItem());
+        job.setRequirements(new Resources((int) coresSpinner.getValue(), (int) memorySpinner.getValue(),
+            (int) storageSpinner.getValue()));
+        List<String> predecessors = new ArrayList<>();
+        for (String id : predecessorsField.getText().split(",")) {
+            if (!id.trim().isEmpty()) {
+                predecessors.add(id.trim());
+            }
+        }
+        job.setPredecessors(predecessors);
         
         Request request = server.createRequest(clientUser.getUserID(), "JOB_SUBMISSION", job);
+        if (request.isRefused()) {
+            JOptionPane.showMessageDialog(this,
+                "The system is busy and cannot take this job right now.\n" +
+                "Reason: " + request.getRefusalReason() + "\n" +
+                "Please try again in " + Math.max(1, request.getRetryAfter().getSeconds()) + " second(s).",
+                "Submission Deferred",
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
         
         controller.processJobRequest(request);
         
@@ -762,7 +825,7 @@ public class ClientGUI extends JPanel {
             "Job Submission Request Sent!\n" +
             "Request ID: " + request.getRequestID() + "\n" +
             "Job ID: " + job.getJobID() + "\n" +
-            "Status: Waiting for VC Controller approval...", 
+            "Status: " + ("Approved".equals(request.getStatus()) ? "Approved automatically" : "Waiting for VC Controller approval..."), 
             "Request Acknowledged", 
             JOptionPane.INFORMATION_MESSAGE);
         clearForm();
@@ -882,6 +945,11 @@ public class ClientGUI extends JPanel {
         durationSpinner.setValue(1);
         durationUnitBox.setSelectedIndex(0);
         redundancySpinner.setValue(1);
+        priorityBox.setSelectedItem(Job.Priority.NORMAL);
+        coresSpinner.setValue(0);
+        memorySpinner.setValue(0);
+        storageSpinner.setValue(0);
+        predecessorsField.setText("");
 
         LocalDateTime now = LocalDateTime.now().plusHours(1);
         deadlineMonthSpinner.setValue(now.getMonthValue());
@@ -0,0 +1,65 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Weighted fair shares of the fleet across clients (start-time fair queuing).
+ * Each client has a virtual finish tag that advances by cost / weight whenever
+ * one of its jobs is started; the backlogged client with the smallest tag goes
+ * next. A client that was idle rejoins at the current virtual time, so idling
+ * does not bank credit. Cost is measured in vehicle-hours.
+ */
+public class ClientShares {
+
+    public static final double DEFAULT_WEIGHT = 1.0;
+
+    private final Map<String, Double> weights = new HashMap<>();
+    private final Map<String, Double> finishTags = new HashMap<>();
+    private final Map<String, Double> usage = new HashMap<>();
+    private double virtualTime;
+
+    public void setWeight(String clientID, double weight) {
+        if (!(weight > 0)) {
+            throw new IllegalArgumentException("Weight must be positive.");
+        }
+        weights.put(clientID, weight);
+    }
+
+    public double getWeight(String clientID) {
+        return weights.getOrDefault(clientID, DEFAULT_WEIGHT);
+    }
+
+    /** Called when a client goes from no pending jobs to at least one. */
+    public void join(String clientID) {
+        finishTags.put(clientID, Math.max(finishTag(clientID), virtualTime));
+    }
+
+    /** Charges the client for a started job and advances virtual time. */
+    public void charge(String clientID, double cost) {
+        double start = Math.max(virtualTime, finishTag(clientID));
+        finishTags.put(clientID, start + cost / getWeight(clientID));
+        virtualTime = start;
+        usage.merge(clientID, cost, Double::sum);
+    }
+
+    public double finishTag(String clientID) {
+        return finishTags.getOrDefault(clientID, 0.0);
+    }
+
+    public double getVirtualTime() {
+        return virtualTime;
+    }
+
+    /** Vehicle-hours started per client since the last reset. */
+    public Map<String, Double> getUsage() {
+        return new HashMap<>(usage);
+    }
+
+    public void resetUsage() {
+        usage.clear();
+    }
+
+    /** Vehicle-hours a job occupies: duration times redundancy, at least 1. */
+    public static double costOf(Job job) {
+        return Math.max(1, job.getDuration()) * (double) Math.max(1, job.getRedundancyLevel());
+    }
+}
@@ -0,0 +1,74 @@
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * What the GUIs, NetworkServer and Main need from the controller.
+ * VCController is the single-monitor implementation; ShardedVCController
+ * splits the same work over several VCController shards.
+ */
+public interface CloudController {
+
+    /** The Server holding requests, notifications and users. */
+    Server getServer();
+
+    void setControllerGUI(VCControllerGUI gui);
+
+    // --- Requests ---
+
+    boolean processJobRequest(Request request);
+
+    boolean processVehicleRequest(Request request);
+
+    void approveJobSubmission(String requestID);
+
+    void rejectJobSubmission(String requestID);
+
+    void approveVehicleRegistration(String requestID);
+
+    void rejectVehicleRegistration(String requestID);
+
+    /** @return IDs of the requests approved */
+    List<String> approveRequests(Collection<String> requestIDs);
+
+    /** @return IDs of the requests rejected */
+    List<String> rejectRequests(Collection<String> requestIDs);
+
+    // --- Vehicle reports (NetworkServer) ---
+
+    CompletableFuture<Void> handleCheckpointAsync(Checkpoint checkpoint);
+
+    CompletableFuture<Void> handleReplicaResultAsync(ReplicaResult report);
+
+    CompletableFuture<Void> handleCapacityReportAsync(CapacityReport report);
+
+    CompletableFuture<Void> handleProgressReportAsync(ProgressReport report);
+
+    /** @return false if no vehicle with this signature holds a lease */
+    boolean renewLease(String vehicleSignature);
+
+    void triggerCheckpoint(Job job);
+
+    // --- Background work ---
+
+    void startLeaseMonitor(Duration period);
+
+    void startBackgroundPlanner(Duration period);
+
+    // --- Reads ---
+
+    String getJobStatus(String jobID);
+
+    List<Job> getClientJobHistory(String loginID);
+
+    List<Vehicle> getOwnerVehicleHistory(String ownerID);
+
+    boolean isVehicleInSystem(String license, String state);
+
+    List<Job> getInProgressJobs();
+
+    int getPendingJobCount();
+
+    String calculateCompletionTimes();
+}
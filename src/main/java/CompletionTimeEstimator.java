@@ -0,0 +1,187 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Capacity-aware completion-time estimates for pending jobs.
+ *
+ * Simulates the pending queue, in order, against the vehicles the controller
+ * has: each vehicle is a slot that becomes free at some time (now, or when its
+ * current job ends) and leaves at its departureSchedule. A job starts once
+ * redundancyLevel slots are free and parked for the whole duration.
+ *
+ * The result is kept between calls. A job appended to the tail of the queue
+ * is placed on top of the existing simulation; starts and completions that
+ * happen when the simulation predicted them just drop the job. Anything else
+ * (departures, new vehicles, reordering, unexpected timing) marks the
+ * estimate stale and it is rebuilt on the next query.
+ */
+public class CompletionTimeEstimator {
+
+    private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    // How far an actual start/completion may drift from the simulation and still count as predicted
+    private static final Duration TOLERANCE = Duration.ofMinutes(1);
+
+    private final Map<String, Estimate> estimates = new LinkedHashMap<>();
+    private PriorityQueue<Slot> slots = new PriorityQueue<>(Comparator.comparing(s -> s.freeAt));
+    private boolean stale = true;
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Re-simulates from scratch.
+     * @param releases one {freeAt, departure} pair per vehicle
+     * @param queue pending jobs in queue order
+     */
+    public void rebuild(LocalDateTime now, List<LocalDateTime[]> releases, Iterable<Job> queue) {
+        estimates.clear();
+        slots = new PriorityQueue<>(Math.max(1, releases.size()), Comparator.comparing(s -> s.freeAt));
+        for (LocalDateTime[] release : releases) {
+            slots.add(new Slot(release[0].isBefore(now) ? now : release[0], release[1]));
+        }
+        for (Job job : queue) {
+            place(job, now);
+        }
+        stale = false;
+    }
+
+    /** A job was added to the queue; only a tail append can extend the current simulation. */
+    public void jobEnqueued(Job job, boolean atTail, LocalDateTime now) {
+        if (stale) {
+            return;
+        }
+        if (atTail) {
+            place(job, now);
+        } else {
+            invalidate();
+        }
+    }
+
+    public void jobStarted(Job job, LocalDateTime now) {
+        if (stale) {
+            return;
+        }
+        Estimate estimate = estimates.remove(job.getJobID());
+        if (estimate == null || estimate.start == null || !near(estimate.start, now)) {
+            invalidate();
+        }
+    }
+
+    public void jobCompleted(LocalDateTime predictedEnd, LocalDateTime now) {
+        if (!stale && !near(predictedEnd, now)) {
+            invalidate();
+        }
+    }
+
+    /** jobID -> estimated completion time in queue order; null when the current fleet can never run the job. */
+    public Map<String, LocalDateTime> getEstimates() {
+        Map<String, LocalDateTime> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Estimate> entry : estimates.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().end);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** Only the absolute estimates are kept; the hours remaining are worked out from now on every call. */
+    public String describe(LocalDateTime now) {
+        StringBuilder output = new StringBuilder();
+        for (Estimate estimate : estimates.values()) {
+            output.append("Job ID: ");
+            output.append(estimate.job.getJobID());
+            output.append(", Duration: ");
+            output.append(estimate.job.getDuration());
+            output.append(", Est. Completion Time: ");
+            if (estimate.end == null) {
+                output.append("not schedulable with current vehicles");
+            } else {
+                long minutes = Math.max(0, Duration.between(now, estimate.end).toMinutes());
+                output.append((minutes + 59) / 60);
+                output.append(" hrs (");
+                output.append(estimate.end.format(TS_FMT));
+                output.append(")");
+            }
+            output.append("\n");
+        }
+        return output.length() == 0 ? "No Jobs pending in the queue." : output.toString();
+    }
+
+    // Greedy placement: take the earliest-free slots that stay parked until the job would end
+    private void place(Job job, LocalDateTime now) {
+        int needed = job.getRedundancyLevel();
+        long hours = job.getDuration();
+        List<Slot> hosts = new ArrayList<>(needed);
+        List<Slot> skipped = new ArrayList<>();
+        LocalDateTime start = now;
+
+        while (hosts.size() < needed && !slots.isEmpty()) {
+            Slot slot = slots.poll();
+            LocalDateTime candidateStart = slot.freeAt.isAfter(start) ? slot.freeAt : start;
+            if (slot.departure.isBefore(candidateStart.plusHours(hours))) {
+                skipped.add(slot);
+                continue;
+            }
+            start = candidateStart;
+            hosts.add(slot);
+            // A later start can push earlier hosts past their departure
+            LocalDateTime end = start.plusHours(hours);
+            for (int i = hosts.size() - 1; i >= 0; i--) {
+                if (hosts.get(i).departure.isBefore(end)) {
+                    skipped.add(hosts.remove(i));
+                }
+            }
+        }
+        slots.addAll(skipped);
+
+        if (hosts.size() < needed) {
+            slots.addAll(hosts);
+            estimates.put(job.getJobID(), new Estimate(job, null, null));
+            return;
+        }
+        LocalDateTime end = start.plusHours(hours);
+        for (Slot host : hosts) {
+            host.freeAt = end;
+            slots.add(host);
+        }
+        estimates.put(job.getJobID(), new Estimate(job, start, end));
+    }
+
+    private static boolean near(LocalDateTime a, LocalDateTime b) {
+        return Duration.between(a, b).abs().compareTo(TOLERANCE) <= 0;
+    }
+
+    private static class Slot {
+        LocalDateTime freeAt;
+        final LocalDateTime departure;
+
+        Slot(LocalDateTime freeAt, LocalDateTime departure) {
+            this.freeAt = freeAt;
+            this.departure = departure;
+        }
+    }
+
+    private static class Estimate {
+        final Job job;
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Estimate(Job job, LocalDateTime start, LocalDateTime end) {
+            this.job = job;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
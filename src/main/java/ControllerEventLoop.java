@@ -0,0 +1,99 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Queued execution for VCController.
+ * Commands from any thread go into a bounded queue and are run one at a time
+ * by a dedicated scheduler thread, which holds the controller monitor while a
+ * command runs, like any other caller. Slow side effects (DB writes, notifications,
+ * GUI updates, console output) are handed to a separate I/O thread so they
+ * never hold up the scheduler; they run in the order they were issued.
+ */
+public class ControllerEventLoop {
+
+    private final BlockingQueue<Runnable> commands;
+    private final Thread schedulerThread;
+    private final ExecutorService sideEffects;
+    private volatile boolean running = true;
+
+    public ControllerEventLoop(int capacity) {
+        this.commands = new ArrayBlockingQueue<>(capacity);
+        this.sideEffects = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "vc-controller-io");
+            t.setDaemon(true);
+            return t;
+        });
+        this.schedulerThread = new Thread(this::drain, "vc-controller-scheduler");
+        this.schedulerThread.setDaemon(true);
+        this.schedulerThread.start();
+    }
+
+    /**
+     * Queues a command for the scheduler thread.
+     * The future fails with RejectedExecutionException when the queue is full.
+     * Commands issued from the scheduler thread itself run immediately.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                result.complete(command.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        };
+        if (isSchedulerThread()) {
+            task.run();
+        } else if (!running || !commands.offer(task)) {
+            result.completeExceptionally(new RejectedExecutionException(
+                    running ? "Controller command queue is full." : "Controller event loop is stopped."));
+        }
+        return result;
+    }
+
+    /** Hands an I/O side effect to the I/O thread. */
+    public void sideEffect(Runnable effect) {
+        try {
+            sideEffects.execute(() -> {
+                try {
+                    effect.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Controller side effect failed: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            effect.run();
+        }
+    }
+
+    public boolean isSchedulerThread() {
+        return Thread.currentThread() == schedulerThread;
+    }
+
+    public int getQueueDepth() {
+        return commands.size();
+    }
+
+    /** Stops accepting commands; queued commands and side effects still complete. */
+    public void shutdown() {
+        running = false;
+        commands.offer(() -> { });
+    }
+
+    private void drain() {
+        while (running || !commands.isEmpty()) {
+            try {
+                commands.take().run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        sideEffects.shutdown();
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Named counters kept by VCController (jobs started, scheduling time, ...),
+ * plus a few gauges (queue depths) that are overwritten rather than added to.
+ * Safe to read from any thread while the controller is running.
+ */
+public class ControllerMetrics {
+
+    public static final String SCHEDULING_PASSES = "scheduling.passes";
+    public static final String SCHEDULING_NANOS = "scheduling.nanos";
+    public static final String JOBS_SUBMITTED = "jobs.submitted";
+    public static final String JOBS_STARTED = "jobs.started";
+    public static final String JOBS_BACKFILLED = "jobs.backfilled";
+    public static final String JOBS_COMPLETED = "jobs.completed";
+    public static final String JOBS_REQUEUED = "jobs.requeued";
+    public static final String JOBS_RECOVERED = "jobs.recovered";
+    public static final String JOBS_MIGRATED = "jobs.migrated";
+    public static final String JOBS_PREEMPTED = "jobs.preempted";
+    public static final String JOBS_BLOCKED = "jobs.blocked";
+    public static final String JOBS_UNBLOCKED = "jobs.unblocked";
+    public static final String JOBS_FAILED = "jobs.failed";
+    public static final String JOBS_CANCELLED = "jobs.cancelled";
+    public static final String JOBS_REFUSED = "jobs.refused";
+    public static final String DEADLINES_AT_RISK = "deadlines.at.risk";
+    public static final String DEADLINES_MISSED = "deadlines.missed";
+    public static final String REQUESTS_EXPIRED = "requests.expired";
+    public static final String REQUESTS_AUTO_APPROVED = "requests.auto.approved";
+    public static final String REQUESTS_MANUAL = "requests.manual";
+    public static final String APPROVAL_RULE_NANOS = "requests.rules.nanos";
+    public static final String QUEUE_PENDING_JOBS = "queue.jobs.pending";
+    public static final String QUEUE_BLOCKED_JOBS = "queue.jobs.blocked";
+    public static final String QUEUE_PENDING_REQUESTS = "queue.requests.pending";
+    public static final String QUEUE_ADMITTED = "queue.admitted";
+    public static final String RESULTS_AGREED = "results.agreed";
+    public static final String RESULTS_DISAGREED = "results.disagreed";
+    public static final String REPLICAS_CANCELLED = "replicas.cancelled";
+    public static final String SPECULATIVE_LAUNCHED = "speculation.launched";
+    public static final String SPECULATIVE_WON = "speculation.won";
+    public static final String SPECULATIVE_CANCELLED = "speculation.cancelled";
+    public static final String CHECKPOINTS_TAKEN = "checkpoints.taken";
+    public static final String CHECKPOINT_OVERHEAD_SECONDS = "checkpoints.overhead.seconds";
+    public static final String WORK_LOST_SECONDS = "work.lost.seconds";
+    public static final String VEHICLES_RECRUITED = "vehicles.recruited";
+    public static final String VEHICLES_DEPARTED = "vehicles.departed";
+    public static final String VEHICLES_ADOPTED = "vehicles.adopted";
+    public static final String LEASES_EXPIRED = "leases.expired";
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    public void add(String name, long delta) {
+        counters.computeIfAbsent(name, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    /** Sets a gauge to its current value. */
+    public void set(String name, long value) {
+        counters.computeIfAbsent(name, k -> new AtomicLong()).set(value);
+    }
+
+    public long get(String name) {
+        AtomicLong counter = counters.get(name);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /** Current value of every counter, sorted by name. */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().get());
+        }
+        return values;
+    }
+
+    public void reset() {
+        counters.clear();
+    }
+}
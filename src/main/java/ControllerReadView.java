@@ -0,0 +1,159 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-optimized copy of the controller's job state.
+ * VCController updates it at every transition; status polls read it without
+ * taking the controller monitor, so they never wait on scheduling or DB writes.
+ *
+ * Job status lookups and the counts are lock-free. The in-progress list is an
+ * immutable snapshot behind a volatile field, copied only when a job starts or
+ * stops running (it is bounded by the fleet). The pending list is not copied on
+ * enqueue, so filling a backlog stays O(log n) per job: a change only marks it
+ * stale, and the next read copies the controller's own queue under the
+ * controller monitor, so it is in the order the scheduler will actually pick
+ * (fair-share included). Writes only happen under the controller monitor;
+ * inside a scheduling batch they are held back and published once when it ends.
+ */
+public class ControllerReadView {
+
+    private final Map<String, String> jobStatuses = new ConcurrentHashMap<>();
+
+    // Guards the controller's pending queue (the controller itself)
+    private final Object lock;
+    private final Supplier<? extends Collection<Job>> pendingSource;
+    // Writer-side in-progress set, guarded by the controller monitor
+    private final Set<Job> inProgress = new LinkedHashSet<>();
+    private int holds;
+    private boolean dirty;
+    private boolean inProgressChanged;
+
+    private volatile boolean pendingStale;
+    private volatile List<Job> publishedPending = Collections.emptyList();
+    private volatile int publishedPendingCount;
+    private volatile List<Job> publishedInProgress = Collections.emptyList();
+
+    public ControllerReadView(Object lock, Supplier<? extends Collection<Job>> pendingSource) {
+        this.lock = lock;
+        this.pendingSource = pendingSource;
+    }
+
+    // --- Writes (called by VCController under its monitor) ---
+
+    void jobPending(Job job) {
+        inProgressChanged |= inProgress.remove(job);
+        changed(job);
+    }
+
+    // Waiting for predecessors: known by status, but not in the pending list
+    void jobBlocked(Job job) {
+        jobStatuses.put(job.getJobID(), job.getStatus());
+    }
+
+    void jobStarted(Job job) {
+        inProgressChanged |= inProgress.add(job);
+        changed(job);
+    }
+
+    void jobFinished(Job job) {
+        inProgressChanged |= inProgress.remove(job);
+        changed(job);
+    }
+
+    /** The pending order changed without a job moving (ordering, weights). */
+    void refresh() {
+        dirty = true;
+        publishIfFree();
+    }
+
+    /** Holds back publication until the matching release(). */
+    void hold() {
+        holds++;
+    }
+
+    void release() {
+        if (--holds == 0) {
+            publishIfFree();
+        }
+    }
+
+    void clear() {
+        inProgress.clear();
+        jobStatuses.clear();
+        inProgressChanged = true;
+        dirty = true;
+        publishIfFree();
+    }
+
+    private void changed(Job job) {
+        jobStatuses.put(job.getJobID(), job.getStatus());
+        dirty = true;
+        publishIfFree();
+    }
+
+    private void publishIfFree() {
+        if (holds > 0 || !dirty) {
+            return;
+        }
+        Collection<Job> source = pendingSource.get();
+        publishedPendingCount = source == null ? 0 : source.size();
+        pendingStale = true;
+        if (inProgressChanged) {
+            publishedInProgress = Collections.unmodifiableList(new ArrayList<>(inProgress));
+            inProgressChanged = false;
+        }
+        dirty = false;
+    }
+
+    // Copies the pending queue if it changed since the last read
+    private List<Job> pending() {
+        if (pendingStale) {
+            synchronized (lock) {
+                if (pendingStale) {
+                    Collection<Job> source = pendingSource.get();
+                    publishedPending = source == null ? Collections.emptyList()
+                            : Collections.unmodifiableList(new ArrayList<>(source));
+                    pendingStale = false;
+                }
+            }
+        }
+        return publishedPending;
+    }
+
+    // --- Reads ---
+
+    /** Status of a job known to the controller, or null. */
+    public String getJobStatus(String jobID) {
+        return jobID == null ? null : jobStatuses.get(jobID);
+    }
+
+    public boolean containsJob(String jobID) {
+        return jobID != null && jobStatuses.containsKey(jobID);
+    }
+
+    /** Pending jobs in the order the scheduler will pick them. */
+    public Queue<Job> getPendingJobs() {
+        return new LinkedList<>(pending());
+    }
+
+    public List<Job> getInProgressJobs() {
+        return publishedInProgress;
+    }
+
+    public int getPendingCount() {
+        return publishedPendingCount;
+    }
+
+    public int getInProgressCount() {
+        return publishedInProgress.size();
+    }
+}
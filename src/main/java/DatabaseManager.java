@@ -4,7 +4,7 @@ import java.util.List;
 import java.time.LocalDateTime;
 import io.github.cdimascio.dotenv.Dotenv;
 
-public class DatabaseManager {
+public class DatabaseManager implements PersistenceStore {
 
     private static DatabaseManager instance;
     private Connection connection;
@@ -33,6 +33,12 @@ public class DatabaseManager {
         return instance;
     }
 
+    /** A separate connection to the same database, so parallel writers do not queue on one connection. */
+    @Override
+    public PersistenceStore openSession() {
+        return new DatabaseManager();
+    }
+
     public void connect() {
         try {
             if (connection == null || connection.isClosed()) {
@@ -94,6 +100,12 @@ public class DatabaseManager {
                     "redundancy INT, " +
                     "status VARCHAR(50), " +
                     "timestamp DATETIME, " +
+                    "cpu_cores INT, " +
+                    "memory_gb INT, " +
+                    "storage_gb INT, " +
+                    "predecessors TEXT, " +
+                    "start_time DATETIME, " +
+                    "priority VARCHAR(10), " +
                     "FOREIGN KEY (username) REFERENCES users(user_id))";
             stmt.execute(createJobs);
 
@@ -113,8 +125,21 @@ public class DatabaseManager {
                     "memory_status VARCHAR(20), " +
                     "current_job_id VARCHAR(50), " +
                     "timestamp DATETIME, " +
+                    "cpu_cores INT, " +
+                    "memory_gb INT, " +
+                    "storage_gb INT, " +
                     "FOREIGN KEY (username) REFERENCES users(user_id))";
             stmt.execute(createVehicles);
+
+            // Resource and dependency columns were added later; tables created before that get them here
+            for (String table : new String[] {"jobs", "vehicles"}) {
+                for (String column : new String[] {"cpu_cores", "memory_gb", "storage_gb"}) {
+                    addColumnIfMissing(stmt, table, column, "INT");
+                }
+            }
+            addColumnIfMissing(stmt, "jobs", "predecessors", "TEXT");
+            addColumnIfMissing(stmt, "jobs", "start_time", "DATETIME");
+            addColumnIfMissing(stmt, "jobs", "priority", "VARCHAR(10)");
             
             System.out.println("Database initialized (tables checked/created).");
 
@@ -123,6 +148,63 @@ public class DatabaseManager {
         }
     }
 
+    private void addColumnIfMissing(Statement stmt, String table, String column, String type) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getColumns(connection.getCatalog(), null, table, column)) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+    }
+
+    // Resource columns of the current row; NULL (rows saved before they existed) gives the fallback
+    private static Resources readResources(ResultSet rs, Resources fallback) throws SQLException {
+        int cores = rs.getInt("cpu_cores");
+        if (rs.wasNull()) {
+            return fallback;
+        }
+        return new Resources(cores, rs.getInt("memory_gb"), rs.getInt("storage_gb"));
+    }
+
+    // Last start of the job; NULL for jobs that never ran (or were saved before the column existed)
+    private static LocalDateTime readStartTime(ResultSet rs) throws SQLException {
+        Timestamp started = rs.getTimestamp("start_time");
+        return started != null ? started.toLocalDateTime() : null;
+    }
+
+    // Priority class; NULL or an unknown name (rows saved before the column existed) is NORMAL
+    private static Job.Priority readPriority(ResultSet rs) throws SQLException {
+        String priority = rs.getString("priority");
+        if (priority != null) {
+            for (Job.Priority value : Job.Priority.values()) {
+                if (value.name().equals(priority)) {
+                    return value;
+                }
+            }
+        }
+        return Job.Priority.NORMAL;
+    }
+
+    // Predecessor job IDs, comma-separated
+    private static List<String> readPredecessors(ResultSet rs) throws SQLException {
+        List<String> predecessors = new ArrayList<>();
+        String column = rs.getString("predecessors");
+        if (column != null) {
+            for (String id : column.split(",")) {
+                if (!id.isEmpty()) {
+                    predecessors.add(id);
+                }
+            }
+        }
+        return predecessors;
+    }
+
+    private static void bindResources(PreparedStatement pstmt, int firstIndex, Resources resources) throws SQLException {
+        pstmt.setInt(firstIndex, resources.getCpuCores());
+        pstmt.setInt(firstIndex + 1, resources.getMemoryGB());
+        pstmt.setInt(firstIndex + 2, resources.getStorageGB());
+    }
+
     // --- User Operations ---
 
     public void saveUser(User user) {
@@ -200,22 +282,16 @@ public class DatabaseManager {
 
     // --- Job Operations ---
 
+    private static final String JOB_UPSERT_SQL =
+            "INSERT INTO jobs (job_id, client_id, username, duration, deadline, redundancy, status, timestamp, cpu_cores, memory_gb, storage_gb, predecessors, start_time, priority) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE status = ?, start_time = ?";
+
+    @Override
     public void saveJob(Job job, String clientEnteredId, String username) {
         if (connection == null) return;
-        String sql = "INSERT INTO jobs (job_id, client_id, username, duration, deadline, redundancy, status, timestamp) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
-                     "ON DUPLICATE KEY UPDATE status = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, job.getJobID());
-            pstmt.setString(2, clientEnteredId);
-            pstmt.setString(3, username);
-            pstmt.setInt(4, job.getDuration());
-            pstmt.setString(5, job.getDeadline().toString());
-            pstmt.setInt(6, job.getRedundancyLevel());
-            pstmt.setString(7, job.getStatus());
-            pstmt.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
-            
-            pstmt.setString(9, job.getStatus());
+        try (PreparedStatement pstmt = connection.prepareStatement(JOB_UPSERT_SQL)) {
+            bindJob(pstmt, JobRow.of(job, clientEnteredId, username));
             pstmt.executeUpdate();
             System.out.println("Job saved to DB: " + job.getJobID());
         } catch (SQLException e) {
@@ -223,6 +299,26 @@ public class DatabaseManager {
         }
     }
 
+    private void bindJob(PreparedStatement pstmt, JobRow job) throws SQLException {
+        pstmt.setString(1, job.getJobID());
+        pstmt.setString(2, job.getClientID());
+        pstmt.setString(3, job.getUsername());
+        pstmt.setInt(4, job.getDuration());
+        pstmt.setString(5, job.getDeadline().toString());
+        pstmt.setInt(6, job.getRedundancy());
+        pstmt.setString(7, job.getStatus());
+        pstmt.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
+        bindResources(pstmt, 9, job.getRequirements());
+        pstmt.setString(12, String.join(",", job.getPredecessors()));
+        Timestamp started = job.getStartTime() != null ? Timestamp.valueOf(job.getStartTime()) : null;
+        pstmt.setTimestamp(13, started);
+        pstmt.setString(14, job.getPriority().name());
+        
+        pstmt.setString(15, job.getStatus());
+        pstmt.setTimestamp(16, started);
+    }
+
+    @Override
     public String getJobStatus(String jobId) {
         if (connection == null) return "Unknown";
         String sql = "SELECT status FROM jobs WHERE job_id = ?";
@@ -238,6 +334,7 @@ public class DatabaseManager {
         return "Job not found";
     }
 
+    @Override
     public List<Job> getClientJobHistory(String username) {
         List<Job> jobs = new ArrayList<>();
         if (connection == null) return jobs;
@@ -258,6 +355,10 @@ public class DatabaseManager {
                 
                 Job job = new Job(jobId, clientId, username, duration, redundancy, deadline);
                 job.updateStatus(status);
+                job.setPriority(readPriority(rs));
+                job.setRequirements(readResources(rs, Resources.NONE));
+                job.setPredecessors(readPredecessors(rs));
+                job.markStarted(readStartTime(rs));
                 if (rs.getTimestamp("timestamp") != null) {
                     job.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
                 }
@@ -271,33 +372,16 @@ public class DatabaseManager {
 
     // --- Vehicle Operations ---
 
+    private static final String VEHICLE_UPSERT_SQL =
+            "INSERT INTO vehicles (vehicle_id, owner_id, username, license, state, make, model, year, departure_schedule, status, cpu_status, memory_status, current_job_id, timestamp, cpu_cores, memory_gb, storage_gb) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE departure_schedule = ?, status = ?, cpu_status = ?, memory_status = ?, current_job_id = ?, cpu_cores = ?, memory_gb = ?, storage_gb = ?";
+
+    @Override
     public void saveVehicle(Vehicle vehicle, String ownerEnteredId, String username) {
         if (connection == null) return;
-        String sql = "INSERT INTO vehicles (vehicle_id, owner_id, username, license, state, make, model, year, departure_schedule, status, cpu_status, memory_status, current_job_id, timestamp) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
-                     "ON DUPLICATE KEY UPDATE departure_schedule = ?, status = ?, cpu_status = ?, memory_status = ?, current_job_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, vehicle.getVehicleID());
-            pstmt.setString(2, ownerEnteredId);
-            pstmt.setString(3, username);
-            pstmt.setString(4, vehicle.getLicensePlate());
-            pstmt.setString(5, vehicle.getLicenseState());
-            pstmt.setString(6, vehicle.getMake());
-            pstmt.setString(7, vehicle.getModel());
-            pstmt.setInt(8, vehicle.getYear());
-            pstmt.setString(9, vehicle.getDepartureSchedule().toString());
-            pstmt.setString(10, vehicle.getStatus());
-            pstmt.setString(11, vehicle.getCpuStatus());
-            pstmt.setString(12, vehicle.getMemoryStatus());
-            pstmt.setString(13, vehicle.getCurrentJobID());
-            pstmt.setTimestamp(14, Timestamp.valueOf(LocalDateTime.now()));
-            
-            pstmt.setString(15, vehicle.getDepartureSchedule().toString());
-            pstmt.setString(16, vehicle.getStatus());
-            pstmt.setString(17, vehicle.getCpuStatus());
-            pstmt.setString(18, vehicle.getMemoryStatus());
-            pstmt.setString(19, vehicle.getCurrentJobID());
-            
+        try (PreparedStatement pstmt = connection.prepareStatement(VEHICLE_UPSERT_SQL)) {
+            bindVehicle(pstmt, VehicleRow.of(vehicle, ownerEnteredId, username));
             pstmt.executeUpdate();
             System.out.println("Vehicle saved to DB: " + vehicle.getVehicleID());
         } catch (SQLException e) {
@@ -305,6 +389,67 @@ public class DatabaseManager {
         }
     }
 
+    private void bindVehicle(PreparedStatement pstmt, VehicleRow vehicle) throws SQLException {
+        pstmt.setString(1, vehicle.getVehicleID());
+        pstmt.setString(2, vehicle.getOwnerID());
+        pstmt.setString(3, vehicle.getUsername());
+        pstmt.setString(4, vehicle.getLicensePlate());
+        pstmt.setString(5, vehicle.getLicenseState());
+        pstmt.setString(6, vehicle.getMake());
+        pstmt.setString(7, vehicle.getModel());
+        pstmt.setInt(8, vehicle.getYear());
+        pstmt.setString(9, vehicle.getDepartureSchedule().toString());
+        pstmt.setString(10, vehicle.getStatus());
+        pstmt.setString(11, vehicle.getCpuStatus());
+        pstmt.setString(12, vehicle.getMemoryStatus());
+        pstmt.setString(13, vehicle.getCurrentJobID());
+        pstmt.setTimestamp(14, Timestamp.valueOf(LocalDateTime.now()));
+        bindResources(pstmt, 15, vehicle.getCapacity());
+        
+        pstmt.setString(18, vehicle.getDepartureSchedule().toString());
+        pstmt.setString(19, vehicle.getStatus());
+        pstmt.setString(20, vehicle.getCpuStatus());
+        pstmt.setString(21, vehicle.getMemoryStatus());
+        pstmt.setString(22, vehicle.getCurrentJobID());
+        bindResources(pstmt, 23, vehicle.getCapacity());
+    }
+
+    /**
+     * Saves many jobs and vehicles in one transaction using JDBC batches.
+     * Either every row is written or none is.
+     */
+    @Override
+    public void saveBatch(List<JobRow> jobs, List<VehicleRow> vehicles) {
+        if (connection == null || (jobs.isEmpty() && vehicles.isEmpty())) return;
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement jobStmt = connection.prepareStatement(JOB_UPSERT_SQL);
+                 PreparedStatement vehicleStmt = connection.prepareStatement(VEHICLE_UPSERT_SQL)) {
+                for (JobRow job : jobs) {
+                    bindJob(jobStmt, job);
+                    jobStmt.addBatch();
+                }
+                for (VehicleRow vehicle : vehicles) {
+                    bindVehicle(vehicleStmt, vehicle);
+                    vehicleStmt.addBatch();
+                }
+                if (!jobs.isEmpty()) jobStmt.executeBatch();
+                if (!vehicles.isEmpty()) vehicleStmt.executeBatch();
+                connection.commit();
+                System.out.println("Batch saved to DB: " + jobs.size() + " job(s), " + vehicles.size() + " vehicle(s)");
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
     public List<Vehicle> getOwnerVehicleHistory(String username) {
         List<Vehicle> vehicles = new ArrayList<>();
         if (connection == null) return vehicles;
@@ -325,6 +470,7 @@ public class DatabaseManager {
                 LocalDateTime departure = LocalDateTime.parse(departureStr);
                 
                 Vehicle vehicle = new Vehicle(ownerId, username, make, model, year, license, state, departure);
+                vehicle.setCapacity(readResources(rs, Resources.DEFAULT_VEHICLE));
                 if (rs.getTimestamp("timestamp") != null) {
                     vehicle.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
                 }
@@ -336,6 +482,7 @@ public class DatabaseManager {
         return vehicles;
     }
 
+    @Override
     public List<Vehicle> getAllVehicles() {
         List<Vehicle> vehicles = new ArrayList<>();
         if (connection == null) return vehicles;
@@ -357,6 +504,7 @@ public class DatabaseManager {
                 String currentJobId = rs.getString("current_job_id");
                 
                 Vehicle vehicle = new Vehicle(license, make, model, year, license, state, departure);
+                vehicle.setCapacity(readResources(rs, Resources.DEFAULT_VEHICLE));
                 if (status != null) {
                     vehicle.restoreState(status, cpuStatus, memStatus, currentJobId);
                 }
@@ -368,6 +516,7 @@ public class DatabaseManager {
         return vehicles;
     }
 
+    @Override
     public List<Job> getAllJobs() {
         List<Job> jobs = new ArrayList<>();
         if (connection == null) return jobs;
@@ -384,6 +533,10 @@ public class DatabaseManager {
                 
                 Job job = new Job(jobId, duration, redundancy, deadline);
                 job.updateStatus(status);
+                job.setPriority(readPriority(rs));
+                job.setRequirements(readResources(rs, Resources.NONE));
+                job.setPredecessors(readPredecessors(rs));
+                job.markStarted(readStartTime(rs));
                 jobs.add(job);
             }
         } catch (SQLException e) {
@@ -392,6 +545,7 @@ public class DatabaseManager {
         return jobs;
     }
 
+    @Override
     public java.util.Map<String, String> getJobClientMap() {
         java.util.Map<String, String> map = new java.util.concurrent.ConcurrentHashMap<>();
         if (connection == null) return map;
@@ -406,6 +560,7 @@ public class DatabaseManager {
         return map;
     }
 
+    @Override
     public java.util.Map<String, String> getJobSenderMap() {
         java.util.Map<String, String> map = new java.util.concurrent.ConcurrentHashMap<>();
         if (connection == null) return map;
@@ -420,6 +575,7 @@ public class DatabaseManager {
         return map;
     }
 
+    @Override
     public java.util.Map<String, String> getVehicleSenderMap() {
         java.util.Map<String, String> map = new java.util.concurrent.ConcurrentHashMap<>();
         if (connection == null) return map;
@@ -434,6 +590,7 @@ public class DatabaseManager {
         return map;
     }
 
+    @Override
     public java.util.Map<String, String> getVehicleOwnerIdMap() {
         java.util.Map<String, String> map = new java.util.concurrent.ConcurrentHashMap<>();
         if (connection == null) return map;
@@ -0,0 +1,23 @@
+import java.io.Serializable;
+
+/**
+ * Liveness frame sent to the NetworkServer port. Each frame renews the
+ * leases of the vehicles it names; a gateway for a fleet can name many cars
+ * in one frame. Senders keep the connection open and write one frame per
+ * heartbeat period (calling ObjectOutputStream.reset() between frames if a
+ * frame object is reused).
+ */
+public class Heartbeat implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] vehicleSignatures;
+
+    public Heartbeat(String... vehicleSignatures) {
+        this.vehicleSignatures = vehicleSignatures;
+    }
+
+    /** Signatures (license plate + state) of the vehicles that are alive. */
+    public String[] getVehicleSignatures() {
+        return vehicleSignatures;
+    }
+}
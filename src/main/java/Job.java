@@ -1,5 +1,9 @@
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 public class Job implements Serializable {
     private static final long serialVersionUID = 1L; 
@@ -100,6 +104,69 @@ public class Job implements Serializable {
         this.timestamp = timestamp;
     }
 
+    // Set by VCController when the job is placed on vehicles
+    private LocalDateTime startTime;
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void markStarted(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    // When the job was last placed on vehicles. A resumed job's start time is moved back by the
+    // progress it kept; this one is not, so minimum-run checks see how long it has really run.
+    private LocalDateTime runningSince;
+
+    public LocalDateTime getRunningSince() {
+        return runningSince != null ? runningSince : startTime;
+    }
+
+    public void markRunning(LocalDateTime runningSince) {
+        this.runningSince = runningSince;
+    }
+
+    /** Priority class. Higher classes are queued first and may preempt lower ones. */
+    public enum Priority {
+        LOW,
+        NORMAL,
+        HIGH
+    }
+
+    // Set before the job is queued; the pending queue orders by it
+    private Priority priority = Priority.NORMAL;
+
+    public Priority getPriority() {
+        return priority != null ? priority : Priority.NORMAL;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    // Resources each replica needs on its vehicle; only vehicles that fit are assigned
+    private Resources requirements = Resources.NONE;
+
+    public Resources getRequirements() {
+        return requirements != null ? requirements : Resources.NONE;
+    }
+
+    public void setRequirements(Resources requirements) {
+        this.requirements = requirements;
+    }
+
+    // IDs of jobs that must complete before this one is queued
+    private List<String> predecessors = new ArrayList<>();
+
+    public List<String> getPredecessors() {
+        return predecessors != null ? Collections.unmodifiableList(predecessors) : Collections.emptyList();
+    }
+
+    public void setPredecessors(Collection<String> predecessors) {
+        this.predecessors = new ArrayList<>(predecessors);
+    }
+
     public String getClientEnteredID() {
         return clientEnteredID;
     }
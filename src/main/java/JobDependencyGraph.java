@@ -0,0 +1,189 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Dependencies between jobs (a DAG). A job that names predecessors waits here
+ * until all of them have completed. Each waiting job counts its unfinished
+ * predecessors, so a completion only touches the finished job's direct
+ * dependents. Fan-out (many jobs after one) and fan-in (one job after many)
+ * need nothing special. When a job fails, everything downstream of it is
+ * cancelled.
+ *
+ * Predecessors may be submitted after their dependents; a job whose
+ * predecessors would make a cycle is refused.
+ *
+ * Thread-safe, so the shards of a ShardedVCController share one graph and
+ * dependencies may cross shards. add() checks predecessor outcomes under the
+ * graph's lock: callers record a job's final status before reporting it
+ * through completed() or failed(), so a dependent added concurrently either
+ * sees the outcome or is released by the report.
+ */
+public class JobDependencyGraph {
+
+    public enum Admission {
+        /** Every predecessor has completed; the job can be queued now. */
+        READY,
+        /** The job waits in the graph for at least one predecessor. */
+        WAITING,
+        /** A predecessor has already failed or been cancelled. */
+        UPSTREAM_FAILED,
+        /** A predecessor (transitively) depends on the job itself. */
+        CYCLE
+    }
+
+    // Waiting job ID -> its node
+    private final Map<String, Node> waiting = new HashMap<>();
+    // Job ID -> waiting jobs that name it as a predecessor
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+
+    /**
+     * Adds a job that names predecessors.
+     * @param completed whether a predecessor ID has completed
+     * @param failed whether a predecessor ID has failed or been cancelled
+     */
+    public synchronized Admission add(Job job, Predicate<String> completed, Predicate<String> failed) {
+        Set<String> unfinished = new LinkedHashSet<>();
+        for (String predecessor : job.getPredecessors()) {
+            if (failed.test(predecessor)) {
+                return Admission.UPSTREAM_FAILED;
+            }
+            if (!completed.test(predecessor)) {
+                unfinished.add(predecessor);
+            }
+        }
+        if (unfinished.isEmpty()) {
+            return Admission.READY;
+        }
+        if (reachesAny(job.getJobID(), unfinished)) {
+            return Admission.CYCLE;
+        }
+
+        waiting.put(job.getJobID(), new Node(job, unfinished));
+        for (String predecessor : unfinished) {
+            dependents.computeIfAbsent(predecessor, id -> new HashSet<>()).add(job.getJobID());
+        }
+        return Admission.WAITING;
+    }
+
+    /** A job completed; returns the dependents whose last predecessor it was, now ready to queue. */
+    public synchronized List<Job> completed(String jobID) {
+        List<Job> ready = new ArrayList<>();
+        Set<String> waitingOn = dependents.remove(jobID);
+        if (waitingOn == null) {
+            return ready;
+        }
+        for (String dependentID : waitingOn) {
+            Node node = waiting.get(dependentID);
+            if (node != null && node.unfinished.remove(jobID) && node.unfinished.isEmpty()) {
+                waiting.remove(dependentID);
+                ready.add(node.job);
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * A job failed or was cancelled; removes and returns every waiting job
+     * downstream of it, nearest first. The job itself is dropped if it was
+     * still waiting.
+     */
+    public synchronized List<Job> failed(String jobID) {
+        List<Job> cancelled = new ArrayList<>();
+        unlink(jobID);
+        Deque<String> frontier = new ArrayDeque<>();
+        frontier.add(jobID);
+        while (!frontier.isEmpty()) {
+            Set<String> downstream = dependents.remove(frontier.poll());
+            if (downstream == null) {
+                continue;
+            }
+            for (String dependentID : downstream) {
+                Node node = unlink(dependentID);
+                if (node != null) {
+                    cancelled.add(node.job);
+                    frontier.add(dependentID);
+                }
+            }
+        }
+        return cancelled;
+    }
+
+    /** Whether any waiting job names the given job as a predecessor. */
+    public synchronized boolean hasDependents(String jobID) {
+        return dependents.containsKey(jobID);
+    }
+
+    public synchronized boolean isWaiting(String jobID) {
+        return waiting.containsKey(jobID);
+    }
+
+    /** Predecessors the job still waits for; empty if it is not waiting. */
+    public synchronized Set<String> unfinishedPredecessors(String jobID) {
+        Node node = waiting.get(jobID);
+        return node == null ? new HashSet<>() : new LinkedHashSet<>(node.unfinished);
+    }
+
+    public synchronized int waitingCount() {
+        return waiting.size();
+    }
+
+    public synchronized void clear() {
+        waiting.clear();
+        dependents.clear();
+    }
+
+    // Removes a waiting job and its edges to the predecessors it still waits for
+    private Node unlink(String jobID) {
+        Node node = waiting.remove(jobID);
+        if (node == null) {
+            return null;
+        }
+        for (String predecessor : node.unfinished) {
+            Set<String> siblings = dependents.get(predecessor);
+            if (siblings != null) {
+                siblings.remove(jobID);
+                if (siblings.isEmpty()) {
+                    dependents.remove(predecessor);
+                }
+            }
+        }
+        return node;
+    }
+
+    // Whether any of the targets waits (transitively) on the given job
+    private boolean reachesAny(String jobID, Set<String> targets) {
+        Set<String> seen = new HashSet<>();
+        Deque<String> frontier = new ArrayDeque<>();
+        frontier.add(jobID);
+        while (!frontier.isEmpty()) {
+            String current = frontier.poll();
+            if (targets.contains(current)) {
+                return true;
+            }
+            for (String dependentID : dependents.getOrDefault(current, new HashSet<>())) {
+                if (seen.add(dependentID)) {
+                    frontier.add(dependentID);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static class Node {
+        final Job job;
+        final Set<String> unfinished;
+
+        Node(Job job, Set<String> unfinished) {
+            this.job = job;
+            this.unfinished = unfinished;
+        }
+    }
+}
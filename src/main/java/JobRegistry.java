@@ -0,0 +1,74 @@
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * jobID-keyed index of every job the controller knows about, with the
+ * lifecycle bucket the job is currently in. VCController moves a job between
+ * buckets at each transition, so lookups and membership checks are O(1).
+ */
+public class JobRegistry {
+
+    public enum Bucket {
+        PENDING,
+        IN_PROGRESS,
+        ARCHIVED
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Bucket, Integer> counts = new EnumMap<>(Bucket.class);
+
+    /** Records the job in the given bucket, moving it out of its previous one. */
+    public void track(Job job, Bucket bucket) {
+        Entry previous = entries.put(job.getJobID(), new Entry(job, bucket));
+        if (previous != null) {
+            counts.merge(previous.bucket, -1, Integer::sum);
+        }
+        counts.merge(bucket, 1, Integer::sum);
+    }
+
+    public void forget(Job job) {
+        Entry previous = entries.remove(job.getJobID());
+        if (previous != null) {
+            counts.merge(previous.bucket, -1, Integer::sum);
+        }
+    }
+
+    public Job find(String jobID) {
+        Entry entry = entries.get(jobID);
+        return entry == null ? null : entry.job;
+    }
+
+    /** The job's bucket, or null if the job is unknown. */
+    public Bucket bucketOf(String jobID) {
+        Entry entry = entries.get(jobID);
+        return entry == null ? null : entry.bucket;
+    }
+
+    public boolean isIn(Job job, Bucket bucket) {
+        return job != null && bucketOf(job.getJobID()) == bucket;
+    }
+
+    public int count(Bucket bucket) {
+        return counts.getOrDefault(bucket, 0);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        counts.clear();
+    }
+
+    private static class Entry {
+        final Job job;
+        final Bucket bucket;
+
+        Entry(Job job, Bucket bucket) {
+            this.job = job;
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of the persisted fields of a Job.
+ * VCController builds rows on its own thread and hands only rows to the I/O
+ * thread, so stores never read a Job the scheduler is still changing.
+ */
+public final class JobRow implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String jobID;
+    private final String clientID;
+    private final String username;
+    private final int duration;
+    private final int redundancy;
+    private final LocalDateTime deadline;
+    private final String status;
+    private final Job.Priority priority;
+    private final Resources requirements;
+    private final List<String> predecessors;
+    private final LocalDateTime startTime;
+
+    private JobRow(Job job, String clientID, String username) {
+        this.jobID = job.getJobID();
+        this.clientID = clientID;
+        this.username = username;
+        this.duration = job.getDuration();
+        this.redundancy = job.getRedundancyLevel();
+        this.deadline = job.getDeadline();
+        this.status = job.getStatus();
+        this.priority = job.getPriority();
+        this.requirements = job.getRequirements();
+        this.predecessors = Collections.unmodifiableList(new ArrayList<>(job.getPredecessors()));
+        this.startTime = job.getStartTime();
+    }
+
+    /** Client and user IDs come from the job, "UNKNOWN" when missing. */
+    public static JobRow of(Job job) {
+        return of(job, job.getClientEnteredID(), job.getSenderID());
+    }
+
+    public static JobRow of(Job job, String clientID, String username) {
+        return new JobRow(job, clientID != null ? clientID : "UNKNOWN", username != null ? username : "UNKNOWN");
+    }
+
+    public static List<JobRow> of(Collection<Job> jobs) {
+        List<JobRow> rows = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            rows.add(of(job));
+        }
+        return rows;
+    }
+
+    /** A fresh Job holding this row's values. */
+    public Job toJob() {
+        Job job = new Job(jobID, clientID, username, duration, redundancy, deadline);
+        job.updateStatus(status);
+        job.setPriority(priority);
+        job.setRequirements(requirements);
+        job.setPredecessors(predecessors);
+        job.markStarted(startTime);
+        return job;
+    }
+
+    public String getJobID() {
+        return jobID;
+    }
+
+    public String getClientID() {
+        return clientID;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public int getRedundancy() {
+        return redundancy;
+    }
+
+    public LocalDateTime getDeadline() {
+        return deadline;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    /** NORMAL for rows written before priorities were stored. */
+    public Job.Priority getPriority() {
+        return priority != null ? priority : Job.Priority.NORMAL;
+    }
+
+    public Resources getRequirements() {
+        return requirements;
+    }
+
+    public List<String> getPredecessors() {
+        return predecessors;
+    }
+
+    /** When the job was last placed on vehicles, or null if it never ran. */
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+}
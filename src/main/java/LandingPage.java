@@ -9,7 +9,7 @@ public class LandingPage extends JFrame {
 
     private CardLayout cardLayout;
     private JPanel mainContentPanel; 
-    private VCController controller;
+    private CloudController controller;
     private JComboBox<String> roleComboBox;
     private JPanel loginPanel;
     private JLabel infoLabel;
@@ -26,7 +26,7 @@ public class LandingPage extends JFrame {
     private final String OWNER_PASSWORD = dotenv.get("OWNER_PASSWORD");
     
 
-    public LandingPage(VCController controller) {
+    public LandingPage(CloudController controller) {
         setTitle("VCRTS");
         setSize(700, 500);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -0,0 +1,148 @@
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Liveness leases of the vehicles a controller holds. A vehicle's lease
+ * starts with its first heartbeat and is extended by every later one; a
+ * vehicle whose lease runs out is reported by expired() so the controller
+ * can treat it as departed. Vehicles that never send a heartbeat are not
+ * watched.
+ *
+ * renew is lock-free and O(1): it only writes the new expiry into the
+ * vehicle's entry, so network threads never wait on the controller. Expiries
+ * sit in a TimingWheel that only the planner touches; when a lease's timer
+ * fires and the lease has been renewed since, it is re-armed at the new
+ * expiry, so each lease costs at most one timer per lease period however
+ * often it heartbeats.
+ */
+public class LeaseTable {
+
+    private static final Duration TICK = Duration.ofSeconds(1);
+
+    private static final class Lease {
+        final Vehicle vehicle;
+        volatile LocalDateTime expiresAt; // null until the first heartbeat
+        boolean armed;                    // has a timer in the wheel; planner only
+
+        Lease(Vehicle vehicle) {
+            this.vehicle = vehicle;
+        }
+    }
+
+    // Vehicle signature -> lease
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    // Leases whose first heartbeat arrived since the last expired() call
+    private final Queue<Lease> started = new ConcurrentLinkedQueue<>();
+    private volatile Duration duration;
+    private volatile Clock clock = Clock.systemDefaultZone();
+    private TimingWheel<Lease> wheel = new TimingWheel<>(TICK, LocalDateTime.now(clock));
+
+    public LeaseTable(Duration duration) {
+        setDuration(duration);
+    }
+
+    public void setDuration(Duration duration) {
+        if (Objects.requireNonNull(duration, "Lease duration cannot be null.").compareTo(TICK) < 0) {
+            throw new IllegalArgumentException("Lease duration must be at least " + TICK.getSeconds() + "s.");
+        }
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /** Sets the time source; armed leases are moved onto a wheel started at the new time. */
+    public synchronized void setClock(Clock clock) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null.");
+        List<Lease> pending = wheel.clear();
+        wheel = new TimingWheel<>(TICK, LocalDateTime.now(clock));
+        for (Lease lease : pending) {
+            wheel.schedule(lease.expiresAt, lease);
+        }
+    }
+
+    /** Starts watching a vehicle the controller now holds; its lease begins at its first heartbeat. */
+    public void track(Vehicle vehicle) {
+        leases.putIfAbsent(vehicle.getSignature(), new Lease(vehicle));
+    }
+
+    /** Stops watching a vehicle (it departed or moved to another controller). */
+    public void untrack(Vehicle vehicle) {
+        leases.remove(vehicle.getSignature());
+    }
+
+    /**
+     * Extends a vehicle's lease by the lease duration from now.
+     * @return false if the vehicle is not held by this controller
+     */
+    public boolean renew(String signature) {
+        Lease lease = leases.get(signature);
+        if (lease == null) {
+            return false;
+        }
+        LocalDateTime previous = lease.expiresAt;
+        lease.expiresAt = LocalDateTime.now(clock).plus(duration);
+        if (previous == null) {
+            started.add(lease);
+        }
+        return true;
+    }
+
+    /** The held vehicle with this signature, or null. */
+    public Vehicle vehicleOf(String signature) {
+        Lease lease = signature == null ? null : leases.get(signature);
+        return lease == null ? null : lease.vehicle;
+    }
+
+    /** Whether the vehicle has sent a heartbeat and its lease has not run out. */
+    public boolean isLive(String signature) {
+        Lease lease = leases.get(signature);
+        LocalDateTime expiresAt = lease == null ? null : lease.expiresAt;
+        return expiresAt != null && expiresAt.isAfter(LocalDateTime.now(clock));
+    }
+
+    /** Removes and returns every vehicle whose lease ran out by now. */
+    public synchronized List<Vehicle> expired(LocalDateTime now) {
+        Lease lease;
+        while ((lease = started.poll()) != null) {
+            if (!lease.armed) {
+                lease.armed = true;
+                wheel.schedule(lease.expiresAt, lease);
+            }
+        }
+
+        List<Vehicle> expired = new ArrayList<>();
+        for (Lease due : wheel.advance(now)) {
+            if (leases.get(due.vehicle.getSignature()) != due) {
+                continue; // untracked since
+            }
+            LocalDateTime expiresAt = due.expiresAt;
+            if (expiresAt.isAfter(now)) {
+                wheel.schedule(expiresAt, due);
+            } else if (leases.remove(due.vehicle.getSignature(), due)) {
+                expired.add(due.vehicle);
+            }
+        }
+        return expired;
+    }
+
+    /** Vehicles being watched, with or without a heartbeat so far. */
+    public int size() {
+        return leases.size();
+    }
+
+    public synchronized void clear() {
+        leases.clear();
+        started.clear();
+        wheel.clear();
+    }
+}
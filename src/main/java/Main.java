@@ -1,15 +1,27 @@
 import javax.swing.SwingUtilities;
+import java.nio.file.Paths;
+import java.time.Duration;
 
 public class Main {
     
     public static final int SERVER_PORT = 12345;
 
     public static void main(String[] args) {
-        // Initialize the single Server instance
-        Server storageServer = new Server();
+        // Initialize the single Server instance; restarts recover from the local journal
+        Server storageServer = new Server(DatabaseManager.getInstance(), new StateJournal(Paths.get("vc-state")));
         
-        // Initialize the VC Controller
-        VCController controller = new VCController(storageServer);
+        // Initialize the VC Controller; -Dvc.shards=N splits scheduling over N shards
+        int shards = Integer.getInteger("vc.shards", 1);
+        CloudController controller = shards > 1
+                ? new ShardedVCController(storageServer, shards)
+                : new VCController(storageServer);
+
+        // Vehicles that stop sending heartbeats are released
+        controller.startLeaseMonitor(Duration.ofSeconds(5));
+        // Timers, migrations and automatic checkpoints are opt-in: -Dvc.planner=true
+        if (Boolean.getBoolean("vc.planner")) {
+            controller.startBackgroundPlanner(Duration.ofSeconds(5));
+        }
 
         // Start the Network Server for socket communication (Notifications, Checkpoints)
         // This runs on a separate thread
@@ -7,18 +7,22 @@ import java.net.Socket;
 
 /**
  * Unified Network Server.
- * Listens on a single port for both:
+ * Listens on a single port for:
  * 1. Checkpoint objects from Vehicles.
- * 2. Notification clients (UserIDs) from GUIs.
+ * 2. Heartbeat frames that keep vehicle leases alive.
+ * 3. ReplicaResult objects, one per finished replica.
+ * 4. ProgressReport objects with the share of a job a replica has done.
+ * 5. CapacityReport objects with the resources a vehicle offers.
+ * 6. Notification clients (UserIDs) from GUIs.
  */
 public class NetworkServer implements Runnable {
 
     private int port;
-    private VCController controller;
+    private CloudController controller;
     private Server storageServer;
     private boolean isRunning;
 
-    public NetworkServer(int port, VCController controller, Server storageServer) {
+    public NetworkServer(int port, CloudController controller, Server storageServer) {
         this.port = port;
         this.controller = controller;
         this.storageServer = storageServer;
@@ -55,16 +59,16 @@ public class NetworkServer implements Runnable {
 
 /**
  * Handles a single client connection.
- * Determines if it's a Checkpoint sender or a Notification listener.
+ * Determines if it's a Checkpoint sender, a Heartbeat sender, a result, progress or capacity sender or a Notification listener.
  */
 class ClientHandler implements Runnable {
 
     private Socket clientSocket;
-    private VCController controller;
+    private CloudController controller;
     private Server storageServer;
     private String userID; // For notification clients
 
-    public ClientHandler(Socket socket, VCController controller, Server storageServer) {
+    public ClientHandler(Socket socket, CloudController controller, Server storageServer) {
         this.clientSocket = socket;
         this.controller = controller;
         this.storageServer = storageServer;
@@ -87,8 +91,35 @@ class ClientHandler implements Runnable {
             if (receivedObject instanceof Checkpoint) {
                 // --- CHECKPOINT HANDLER ---
                 Checkpoint checkpoint = (Checkpoint) receivedObject;
-                controller.handleCheckpoint(checkpoint);
+                controller.handleCheckpointAsync(checkpoint);
                 
+            } else if (receivedObject instanceof ReplicaResult) {
+                // --- RESULT HANDLER ---
+                controller.handleReplicaResultAsync((ReplicaResult) receivedObject);
+
+            } else if (receivedObject instanceof ProgressReport) {
+                // --- PROGRESS HANDLER ---
+                controller.handleProgressReportAsync((ProgressReport) receivedObject);
+
+            } else if (receivedObject instanceof CapacityReport) {
+                // --- CAPACITY HANDLER ---
+                controller.handleCapacityReportAsync((CapacityReport) receivedObject);
+
+            } else if (receivedObject instanceof Heartbeat) {
+                // --- HEARTBEAT HANDLER ---
+                // One frame per heartbeat period on a long-lived connection
+                Object frame = receivedObject;
+                while (frame instanceof Heartbeat) {
+                    for (String signature : ((Heartbeat) frame).getVehicleSignatures()) {
+                        controller.renewLease(signature);
+                    }
+                    try {
+                        frame = ois.readObject();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                }
+
             } else if (receivedObject instanceof String) {
                 // --- NOTIFICATION HANDLER ---
                 this.userID = (String) receivedObject;
@@ -21,7 +21,7 @@ public class OwnerGUI extends JPanel {
 
     private final Owner ownerUser;
     private final Runnable onLogout;
-    private final VCController controller;
+    private final CloudController controller;
     private final Server server;
 
     // Request tracking
@@ -70,7 +70,7 @@ public class OwnerGUI extends JPanel {
             "MS", "MO", "MT", "NE", "NV", "NH", "NJ", "NM", "NY", "NC", "ND", "OH",
             "OK", "OR", "PA", "RI", "SC", "SD", "TN", "TX", "UT", "VT", "VA", "WA", "WV", "WI", "WY"};
 
-    public OwnerGUI(Owner ownerUser, Runnable onLogout, VCController controller) { 
+    public OwnerGUI(Owner ownerUser, Runnable onLogout, CloudController controller) { 
         this.ownerUser = ownerUser; 
         this.onLogout = onLogout;
         this.controller = controller;
@@ -737,7 +737,7 @@ public class OwnerGUI extends JPanel {
             "Vehicle Registration Request Sent!\n" +
             "Request ID: " + request.getRequestID() + "\n" +
             "License: " + license + " (" + state + ")\n" +
-            "Status: Waiting for VC Controller approval...", 
+            "Status: " + ("Approved".equals(request.getStatus()) ? "Approved automatically" : "Waiting for VC Controller approval..."), 
             "Request Acknowledged", 
             JOptionPane.INFORMATION_MESSAGE);
 
@@ -0,0 +1,432 @@
+import java.time.LocalDateTime;
+import java.util.AbstractQueue;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Priority queue of jobs waiting for vehicles.
+ * Jobs are ordered by priority class first, then by the configured ordering.
+ * Backed by a balanced tree (plus a job index), so offer, poll and removal of
+ * any job are O(log n), and iteration walks the jobs in queue order, which the
+ * backfilling scheduler and the completion-time estimates rely on.
+ *
+ * In fair-share mode each client (Job.getSenderID) also gets its own sub-queue
+ * in the same ordering, and the next job comes from the client whose head job
+ * has the highest priority class, then the smallest virtual finish tag in
+ * ClientShares, an O(log clients) pick.
+ * A client whose head job has been passed over more than maxBypass times is
+ * served ahead of the other heads of the same priority class, so no client
+ * starves within a class; aging never lets a job overtake a higher class.
+ * poll() and removal through the iterator count as starting the job and charge
+ * its client; remove(Object) does not. Iteration follows the simulated pick
+ * order, ignoring aging after the first job, as a lazy merge of the per-client
+ * sub-queues: each step costs O(log clients), so a scan that stops early does
+ * not pay for the whole order.
+ */
+public class PendingJobQueue extends AbstractQueue<Job> {
+
+    /** How pending jobs of one priority class are ordered. Ties are always broken by arrival order. */
+    public enum Ordering {
+        /** Arrival order. */
+        FIFO,
+        /** Earliest deadline first. */
+        EARLIEST_DEADLINE_FIRST,
+        /**
+         * Least slack first, slack = deadline - now - duration.
+         * "now" is the same for every job, so the order only depends on
+         * deadline - duration and does not drift as time passes.
+         */
+        LEAST_SLACK_FIRST
+    }
+
+    private final Map<Job, Entry> entries = new HashMap<>();
+    private TreeSet<Entry> queue;
+    private Ordering ordering;
+    private long sequence;
+
+    /** Default number of picks a client's head job may be passed over before it is served. */
+    public static final int DEFAULT_MAX_BYPASS = 500;
+
+    // Fair-share mode, null when off
+    private ClientShares shares;
+    private Map<String, TreeSet<Entry>> clientQueues;
+    // Backlogged clients by head priority, then virtual finish tag
+    private TreeSet<String> clientOrder;
+    // Head job of each backlogged client per priority class, oldest first
+    private Map<Job.Priority, TreeSet<Entry>> clientHeads;
+    private long served;
+    private int maxBypass = DEFAULT_MAX_BYPASS;
+
+    public PendingJobQueue() {
+        this(Ordering.FIFO);
+    }
+
+    public PendingJobQueue(Ordering ordering) {
+        this.ordering = ordering;
+        this.queue = new TreeSet<>(comparatorFor(ordering));
+    }
+
+    public Ordering getOrdering() {
+        return ordering;
+    }
+
+    /** Re-sorts the queue under a new ordering. O(n log n). */
+    public void setOrdering(Ordering ordering) {
+        if (ordering == this.ordering) {
+            return;
+        }
+        TreeSet<Entry> reordered = new TreeSet<>(comparatorFor(ordering));
+        reordered.addAll(queue);
+        this.queue = reordered;
+        this.ordering = ordering;
+        if (shares != null) {
+            setFairShare(shares);
+        }
+    }
+
+    /**
+     * Turns fair-share mode on with the given shares, or off with null.
+     * Pending jobs are redistributed into per-client sub-queues. O(n log n).
+     */
+    public void setFairShare(ClientShares shares) {
+        this.shares = shares;
+        if (shares == null) {
+            clientQueues = null;
+            clientOrder = null;
+            clientHeads = null;
+            return;
+        }
+        clientQueues = new HashMap<>();
+        clientOrder = new TreeSet<>(Comparator.<String, Job.Priority>comparing(
+                        c -> clientQueues.get(c).first().priority, Comparator.reverseOrder())
+                .thenComparingDouble(shares::finishTag)
+                .thenComparing(Comparator.naturalOrder()));
+        clientHeads = new EnumMap<>(Job.Priority.class);
+        for (Job.Priority priority : Job.Priority.values()) {
+            clientHeads.put(priority, new TreeSet<>(Comparator.comparingLong(e -> e.sequence)));
+        }
+        for (Entry entry : queue) {
+            addToClient(entry);
+        }
+    }
+
+    public boolean isFairShare() {
+        return shares != null;
+    }
+
+    public void setMaxBypass(int maxBypass) {
+        this.maxBypass = maxBypass;
+    }
+
+    @Override
+    public boolean offer(Job job) {
+        if (job == null || entries.containsKey(job)) {
+            return false;
+        }
+        Entry entry = new Entry(job, sequence++);
+        entry.servedAtArrival = served;
+        entries.put(job, entry);
+        queue.add(entry);
+        if (shares != null) {
+            addToClient(entry);
+        }
+        return true;
+    }
+
+    @Override
+    public Job poll() {
+        if (shares != null) {
+            Entry next = pickFair();
+            if (next == null) {
+                return null;
+            }
+            removeEntry(next);
+            serve(next);
+            return next.job;
+        }
+        Entry first = queue.pollFirst();
+        if (first == null) {
+            return null;
+        }
+        entries.remove(first.job);
+        return first.job;
+    }
+
+    @Override
+    public Job peek() {
+        if (shares != null) {
+            Entry next = pickFair();
+            return next == null ? null : next.job;
+        }
+        return queue.isEmpty() ? null : queue.first().job;
+    }
+
+    /** The job that would be dequeued last, or null. O(n log clients) in fair-share mode. */
+    public Job peekLast() {
+        if (shares != null) {
+            Entry last = null;
+            for (Iterator<Entry> it = new FairOrder(); it.hasNext(); ) {
+                last = it.next();
+            }
+            return last == null ? null : last.job;
+        }
+        return queue.isEmpty() ? null : queue.last().job;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        Entry entry = entries.get(o);
+        if (entry == null) {
+            return false;
+        }
+        removeEntry(entry);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return entries.containsKey(o);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+        queue.clear();
+        if (shares != null) {
+            clientQueues.clear();
+            clientOrder.clear();
+            for (TreeSet<Entry> heads : clientHeads.values()) {
+                heads.clear();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    /** Iterates in queue order; remove() is supported. */
+    @Override
+    public Iterator<Job> iterator() {
+        final Iterator<Entry> it = shares == null ? queue.iterator() : new FairOrder();
+        return new Iterator<Job>() {
+            private Entry current;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Job next() {
+                current = it.next();
+                return current.job;
+            }
+
+            @Override
+            public void remove() {
+                if (shares == null) {
+                    it.remove();
+                    entries.remove(current.job);
+                    return;
+                }
+                removeEntry(current);
+                serve(current);
+            }
+        };
+    }
+
+    private void removeEntry(Entry entry) {
+        entries.remove(entry.job);
+        queue.remove(entry);
+        if (shares != null) {
+            removeFromClient(entry);
+        }
+    }
+
+    private void addToClient(Entry entry) {
+        TreeSet<Entry> jobs = clientQueues.get(entry.client);
+        if (jobs == null) {
+            jobs = new TreeSet<>(queue.comparator());
+            jobs.add(entry);
+            clientQueues.put(entry.client, jobs);
+            shares.join(entry.client);
+            clientOrder.add(entry.client);
+            clientHeads.get(entry.priority).add(entry);
+            return;
+        }
+        Entry head = jobs.first();
+        if (queue.comparator().compare(entry, head) >= 0) {
+            jobs.add(entry);
+            return;
+        }
+        // New head: take the client out of the ordered sets while its key changes
+        clientOrder.remove(entry.client);
+        clientHeads.get(head.priority).remove(head);
+        jobs.add(entry);
+        clientHeads.get(entry.priority).add(entry);
+        clientOrder.add(entry.client);
+    }
+
+    private void removeFromClient(Entry entry) {
+        TreeSet<Entry> jobs = clientQueues.get(entry.client);
+        if (jobs == null) {
+            return;
+        }
+        if (jobs.first() != entry) {
+            jobs.remove(entry);
+            return;
+        }
+        clientOrder.remove(entry.client);
+        clientHeads.get(entry.priority).remove(entry);
+        jobs.remove(entry);
+        if (jobs.isEmpty()) {
+            clientQueues.remove(entry.client);
+        } else {
+            Entry head = jobs.first();
+            clientHeads.get(head.priority).add(head);
+            clientOrder.add(entry.client);
+        }
+    }
+
+    // Charges the client of a job that was just taken off the queue
+    private void serve(Entry entry) {
+        served++;
+        boolean backlogged = clientQueues.containsKey(entry.client) && clientOrder.remove(entry.client);
+        shares.charge(entry.client, ClientShares.costOf(entry.job));
+        if (backlogged) {
+            clientOrder.add(entry.client);
+        }
+    }
+
+    // Head of the client with the smallest finish tag, unless an older head of the same class has waited too long
+    private Entry pickFair() {
+        if (clientOrder.isEmpty()) {
+            return null;
+        }
+        Entry next = clientQueues.get(clientOrder.first()).first();
+        Entry oldest = clientHeads.get(next.priority).first();
+        if (served - oldest.servedAtArrival > maxBypass) {
+            return oldest;
+        }
+        return next;
+    }
+
+    /**
+     * Order in which the jobs would be picked if nothing else changed, merged
+     * lazily from the client sub-queues with simulated finish tags. Cursors
+     * step with higher() rather than a tree iterator, so removing the job just
+     * returned (through the iterator or remove(Object)) is safe; jobs offered
+     * during the walk may be missed.
+     */
+    private class FairOrder implements Iterator<Entry> {
+        private final PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, clientOrder.size()),
+                Comparator.<Cursor, Job.Priority>comparing(c -> c.head.priority, Comparator.reverseOrder())
+                        .thenComparingDouble(c -> c.finish)
+                        .thenComparing(c -> c.clientID));
+        private Cursor next;
+        private double virtualTime = shares.getVirtualTime();
+
+        FairOrder() {
+            Entry first = pickFair();
+            if (first == null) {
+                return;
+            }
+            for (String client : clientOrder) {
+                TreeSet<Entry> jobs = clientQueues.get(client);
+                if (client.equals(first.client)) {
+                    next = new Cursor(client, jobs, first, shares.finishTag(client));
+                } else {
+                    cursors.add(new Cursor(client, jobs, jobs.first(), shares.finishTag(client)));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Cursor cursor = next;
+            Entry entry = cursor.head;
+            double start = Math.max(virtualTime, cursor.finish);
+            cursor.finish = start + ClientShares.costOf(entry.job) / shares.getWeight(cursor.clientID);
+            virtualTime = start;
+            cursor.head = cursor.jobs.higher(entry);
+            if (cursor.head != null) {
+                cursors.add(cursor);
+            }
+            next = cursors.poll();
+            return entry;
+        }
+    }
+
+    private static Comparator<Entry> comparatorFor(Ordering ordering) {
+        Comparator<Entry> byPriority = Comparator.comparing((Entry e) -> e.priority, Comparator.reverseOrder());
+        return byPriority.thenComparing(withinPriority(ordering));
+    }
+
+    private static Comparator<Entry> withinPriority(Ordering ordering) {
+        Comparator<Entry> bySequence = Comparator.comparingLong(e -> e.sequence);
+        switch (ordering) {
+            case EARLIEST_DEADLINE_FIRST:
+                return Comparator.<Entry, LocalDateTime>comparing(e -> deadlineOf(e.job)).thenComparing(bySequence);
+            case LEAST_SLACK_FIRST:
+                return Comparator.<Entry, LocalDateTime>comparing(e -> deadlineOf(e.job).minusHours(e.job.getDuration()))
+                        .thenComparing(bySequence);
+            case FIFO:
+            default:
+                return bySequence;
+        }
+    }
+
+    private static LocalDateTime deadlineOf(Job job) {
+        return job.getDeadline() != null ? job.getDeadline() : LocalDateTime.MAX;
+    }
+
+    private static String clientOf(Job job) {
+        return job.getSenderID() != null ? job.getSenderID() : "UNKNOWN";
+    }
+
+    private static class Entry {
+        final Job job;
+        final long sequence;
+        final String client;
+        final Job.Priority priority;
+        // Jobs served before this one arrived, for aging
+        long servedAtArrival;
+
+        Entry(Job job, long sequence) {
+            this.job = job;
+            this.sequence = sequence;
+            this.client = clientOf(job);
+            this.priority = job.getPriority();
+        }
+    }
+
+    private static class Cursor {
+        final String clientID;
+        final TreeSet<Entry> jobs;
+        Entry head;
+        double finish;
+
+        Cursor(String clientID, TreeSet<Entry> jobs, Entry head, double finish) {
+            this.clientID = clientID;
+            this.jobs = jobs;
+            this.head = head;
+            this.finish = finish;
+        }
+    }
+}
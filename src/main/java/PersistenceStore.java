@@ -0,0 +1,46 @@
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage backend used by the Server.
+ * DatabaseManager is the MySQL implementation used by the application;
+ * InMemoryStore (in the test sources) keeps everything in process for tests, benchmarks and simulations.
+ */
+public interface PersistenceStore {
+
+    void saveJob(Job job, String clientEnteredId, String username);
+
+    void saveVehicle(Vehicle vehicle, String ownerEnteredId, String username);
+
+    /**
+     * Saves jobs and vehicles together, atomically where the backend supports it.
+     * Takes immutable rows, so it can run on another thread than the one changing the objects.
+     */
+    void saveBatch(List<JobRow> jobs, List<VehicleRow> vehicles);
+
+    String getJobStatus(String jobId);
+
+    List<Job> getAllJobs();
+
+    List<Vehicle> getAllVehicles();
+
+    List<Job> getClientJobHistory(String username);
+
+    List<Vehicle> getOwnerVehicleHistory(String username);
+
+    Map<String, String> getJobClientMap();
+
+    Map<String, String> getJobSenderMap();
+
+    Map<String, String> getVehicleSenderMap();
+
+    Map<String, String> getVehicleOwnerIdMap();
+
+    /**
+     * A store for another writer working in parallel (e.g. one shard of a
+     * ShardedVCController). Stores that are safe to share return themselves.
+     */
+    default PersistenceStore openSession() {
+        return this;
+    }
+}
@@ -0,0 +1,34 @@
+import java.io.Serializable;
+
+/**
+ * Fraction of a job one replica has completed, sent by the vehicle running
+ * it to the NetworkServer port. The controller compares it with the job's
+ * other replicas to find stragglers (see VCController.handleProgressReport).
+ */
+public class ProgressReport implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String vehicleSignature;
+    private final String jobID;
+    private final double fraction;
+
+    public ProgressReport(String vehicleSignature, String jobID, double fraction) {
+        this.vehicleSignature = vehicleSignature;
+        this.jobID = jobID;
+        this.fraction = fraction;
+    }
+
+    /** Signature (license plate + state) of the reporting vehicle. */
+    public String getVehicleSignature() {
+        return vehicleSignature;
+    }
+
+    public String getJobID() {
+        return jobID;
+    }
+
+    /** Completed share of the job, 0..1. */
+    public double getFraction() {
+        return fraction;
+    }
+}
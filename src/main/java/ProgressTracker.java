@@ -0,0 +1,143 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Progress of each vehicle running a job, from the fraction of work it
+ * reports and from how often it sends checkpoints. VCController uses it to
+ * find replicas that fall behind their peers on the same job.
+ */
+public class ProgressTracker {
+
+    // A replica is a straggler below this share of the reference progress or checkpoint rate
+    public static final double STRAGGLER_RATIO = 0.5;
+
+    // Checkpoints the fastest peer must have sent before cadence is compared
+    private static final int MIN_PEER_CHECKPOINTS = 2;
+
+    private final Map<String, Map<String, Assignment>> jobs = new HashMap<>();
+    // Jobs with a progress report or enough checkpoints for stragglers() to flag anything
+    private final Set<String> observed = new LinkedHashSet<>();
+
+    /** A vehicle started (or restarted) work on a job. */
+    public void started(String jobID, String vehicleID, LocalDateTime now) {
+        jobs.computeIfAbsent(jobID, id -> new HashMap<>()).put(vehicleID, new Assignment(now));
+    }
+
+    /** A vehicle reported the fraction of the job it has completed (0..1). */
+    public void reported(String jobID, String vehicleID, double fraction) {
+        Assignment assignment = assignment(jobID, vehicleID);
+        if (assignment != null) {
+            assignment.reported = Math.max(0, Math.min(1, fraction));
+            observed.add(jobID);
+        }
+    }
+
+    public void checkpointed(String jobID, String vehicleID) {
+        Assignment assignment = assignment(jobID, vehicleID);
+        if (assignment != null) {
+            assignment.checkpoints++;
+            if (assignment.checkpoints >= MIN_PEER_CHECKPOINTS) {
+                observed.add(jobID);
+            }
+        }
+    }
+
+    public void stopped(String jobID, String vehicleID) {
+        Map<String, Assignment> hosts = jobs.get(jobID);
+        if (hosts != null) {
+            hosts.remove(vehicleID);
+            if (hosts.isEmpty()) {
+                jobs.remove(jobID);
+                observed.remove(jobID);
+            }
+        }
+    }
+
+    public void forgetJob(String jobID) {
+        jobs.remove(jobID);
+        observed.remove(jobID);
+    }
+
+    public void clear() {
+        jobs.clear();
+        observed.clear();
+    }
+
+    /**
+     * Jobs stragglers() may find something in: a host has reported progress or
+     * sent enough checkpoints to compare cadence. Every other job has none.
+     */
+    public List<String> getObservedJobs() {
+        return new ArrayList<>(observed);
+    }
+
+    /**
+     * Hosts of a job that lag: their reported progress is below STRAGGLER_RATIO
+     * of the best peer's (or of expectedFraction, the share of the job's
+     * duration already elapsed, when no peer reports), or their checkpoint rate
+     * is below STRAGGLER_RATIO of the fastest peer's.
+     */
+    public List<String> stragglers(String jobID, Collection<String> hostIDs, double expectedFraction, LocalDateTime now) {
+        List<String> stragglers = new ArrayList<>();
+        Map<String, Assignment> hosts = jobs.get(jobID);
+        if (hosts == null) {
+            return stragglers;
+        }
+
+        double bestReported = -1;
+        double bestRate = 0;
+        int bestCheckpoints = 0;
+        for (String id : hostIDs) {
+            Assignment a = hosts.get(id);
+            if (a == null) {
+                continue;
+            }
+            bestReported = Math.max(bestReported, a.reported);
+            bestRate = Math.max(bestRate, a.checkpointRate(now));
+            bestCheckpoints = Math.max(bestCheckpoints, a.checkpoints);
+        }
+        double reference = Math.max(bestReported, expectedFraction);
+
+        for (String id : hostIDs) {
+            Assignment a = hosts.get(id);
+            if (a == null) {
+                continue;
+            }
+            boolean behind = a.reported >= 0 && a.reported < STRAGGLER_RATIO * reference;
+            boolean slowCadence = bestCheckpoints >= MIN_PEER_CHECKPOINTS
+                    && a.checkpointRate(now) < STRAGGLER_RATIO * bestRate;
+            if (behind || slowCadence) {
+                stragglers.add(id);
+            }
+        }
+        return stragglers;
+    }
+
+    private Assignment assignment(String jobID, String vehicleID) {
+        Map<String, Assignment> hosts = jobs.get(jobID);
+        return hosts == null ? null : hosts.get(vehicleID);
+    }
+
+    private static class Assignment {
+        final LocalDateTime since;
+        double reported = -1;
+        int checkpoints;
+
+        Assignment(LocalDateTime since) {
+            this.since = since;
+        }
+
+        // Checkpoints per hour since the assignment started
+        double checkpointRate(LocalDateTime now) {
+            long minutes = Math.max(1, Duration.between(since, now).toMinutes());
+            return checkpoints * 60.0 / minutes;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+import java.io.Serializable;
+
+/**
+ * Result of one replica of a job, sent by the vehicle that ran it to the
+ * NetworkServer port. The controller aggregates the results of a job's
+ * replicas (see VCController.handleReplicaResult).
+ */
+public class ReplicaResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String vehicleSignature;
+    private final String jobID;
+    private final String result;
+
+    public ReplicaResult(String vehicleSignature, String jobID, String result) {
+        this.vehicleSignature = vehicleSignature;
+        this.jobID = jobID;
+        this.result = result;
+    }
+
+    /** Signature (license plate + state) of the reporting vehicle. */
+    public String getVehicleSignature() {
+        return vehicleSignature;
+    }
+
+    public String getJobID() {
+        return jobID;
+    }
+
+    public String getResult() {
+        return result;
+    }
+}
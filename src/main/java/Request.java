@@ -1,4 +1,5 @@
 import java.io.Serializable; 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -17,6 +18,9 @@ public class Request implements Serializable {
     private final LocalDateTime timestamp;
     private boolean acknowledged;
     private LocalDateTime decisionTimestamp;
+    // Set when admission control refused the request before it was queued
+    private String refusalReason;
+    private Duration retryAfter;
     
     private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
@@ -78,6 +82,25 @@ public class Request implements Serializable {
         this.status = "Rejected";
         this.decisionTimestamp = LocalDateTime.now();
     }
+
+    /** Rejects the request on arrival because the system is at a limit; retry after the given delay. */
+    public void refuse(String reason, Duration retryAfter) {
+        reject();
+        this.refusalReason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    public boolean isRefused() {
+        return refusalReason != null;
+    }
+
+    public String getRefusalReason() {
+        return refusalReason;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
     
     @Override
     public String toString() {
@@ -3,6 +3,7 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,6 +19,7 @@ public class RequestsFrame extends JFrame {
     private DefaultTableModel vehicleTableModel;
     private JTable jobTable;
     private JTable vehicleTable;
+    private JTabbedPane tabbedPane;
     
     private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -49,7 +51,7 @@ public class RequestsFrame extends JFrame {
         mainPanel.add(headerPanel, BorderLayout.NORTH);
 
         // Tabs
-        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane = new JTabbedPane();
         tabbedPane.setFont(new Font("SansSerif", Font.BOLD, 14));
         tabbedPane.setBackground(new Color(245, 245, 245));
         
@@ -58,10 +60,26 @@ public class RequestsFrame extends JFrame {
         
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
 
-        // Footer with Refresh
+        // Footer with bulk actions and Refresh
         JPanel footerPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         footerPanel.setBackground(new Color(245, 245, 245));
         footerPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JButton acceptSelectedBtn = new JButton("Accept Selected");
+        styleFooterButton(acceptSelectedBtn);
+        acceptSelectedBtn.addActionListener(e -> {
+            parentGUI.handleAcceptAll(selectedRequestIDs());
+            refreshAllRequests();
+        });
+        footerPanel.add(acceptSelectedBtn);
+
+        JButton rejectSelectedBtn = new JButton("Reject Selected");
+        styleFooterButton(rejectSelectedBtn);
+        rejectSelectedBtn.addActionListener(e -> {
+            parentGUI.handleRejectAll(selectedRequestIDs());
+            refreshAllRequests();
+        });
+        footerPanel.add(rejectSelectedBtn);
         
         JButton refreshBtn = new JButton("Refresh All");
         styleFooterButton(refreshBtn);
@@ -152,6 +170,21 @@ public class RequestsFrame extends JFrame {
         table.setGridColor(new Color(220, 220, 220));
         table.setShowVerticalLines(false);
         table.setIntercellSpacing(new Dimension(0, 0));
+        // Ctrl/Shift-click selects several requests for Accept/Reject Selected
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+    }
+
+    // Request IDs of the rows selected in the visible tab
+    private List<String> selectedRequestIDs() {
+        JTable table = tabbedPane.getSelectedIndex() == 0 ? jobTable : vehicleTable;
+        if (table.isEditing()) {
+            table.getCellEditor().stopCellEditing();
+        }
+        List<String> requestIDs = new ArrayList<>();
+        for (int row : table.getSelectedRows()) {
+            requestIDs.add((String) table.getModel().getValueAt(table.convertRowIndexToModel(row), 0));
+        }
+        return requestIDs;
     }
 
     private void styleFooterButton(JButton btn) {
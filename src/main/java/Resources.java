@@ -0,0 +1,72 @@
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * Numeric compute resources: CPU cores, memory and storage. Used both for
+ * what a vehicle offers (its capacity) and what a job needs on each vehicle
+ * it runs on (its requirements).
+ */
+public final class Resources implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Requirements of a job that declared none; every vehicle fits. */
+    public static final Resources NONE = new Resources(0, 0, 0);
+
+    /** Capacity assumed for a vehicle that has not reported its own. */
+    public static final Resources DEFAULT_VEHICLE = new Resources(4, 8, 64);
+
+    /** Smallest first: by cores, then memory, then storage. */
+    public static final Comparator<Resources> ORDER = Comparator.comparingInt(Resources::getCpuCores)
+            .thenComparingInt(Resources::getMemoryGB)
+            .thenComparingInt(Resources::getStorageGB);
+
+    private final int cpuCores;
+    private final int memoryGB;
+    private final int storageGB;
+
+    public Resources(int cpuCores, int memoryGB, int storageGB) {
+        if (cpuCores < 0 || memoryGB < 0 || storageGB < 0) {
+            throw new IllegalArgumentException("Resources cannot be negative.");
+        }
+        this.cpuCores = cpuCores;
+        this.memoryGB = memoryGB;
+        this.storageGB = storageGB;
+    }
+
+    /** True if this capacity covers the given requirements in every dimension. */
+    public boolean fits(Resources required) {
+        return cpuCores >= required.cpuCores
+                && memoryGB >= required.memoryGB
+                && storageGB >= required.storageGB;
+    }
+
+    public int getCpuCores() {
+        return cpuCores;
+    }
+
+    public int getMemoryGB() {
+        return memoryGB;
+    }
+
+    public int getStorageGB() {
+        return storageGB;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Resources)) return false;
+        Resources other = (Resources) obj;
+        return cpuCores == other.cpuCores && memoryGB == other.memoryGB && storageGB == other.storageGB;
+    }
+
+    @Override
+    public int hashCode() {
+        return (cpuCores * 31 + memoryGB) * 31 + storageGB;
+    }
+
+    @Override
+    public String toString() {
+        return cpuCores + " cores, " + memoryGB + " GB memory, " + storageGB + " GB storage";
+    }
+}
@@ -0,0 +1,105 @@
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the results the replicas of a redundant job report and decides
+ * when enough of them agree. Results are compared by SHA-256 digest, so large
+ * outputs are not compared character by character and one copy is kept per
+ * distinct result.
+ */
+public class ResultAggregator {
+
+    public enum Outcome {
+        /** Not enough matching results yet. */
+        PENDING,
+        /** A quorum of replicas reported the same result. */
+        AGREED,
+        /** The replicas still running cannot make any result reach the quorum. */
+        NO_QUORUM
+    }
+
+    private final Map<String, Votes> votes = new HashMap<>();
+
+    /**
+     * Records one replica's result.
+     * @param hosts signatures of the vehicles currently running the job
+     */
+    public Outcome record(String jobID, String vehicleSignature, String result, int quorum, Collection<String> hosts) {
+        Votes job = votes.computeIfAbsent(jobID, id -> new Votes());
+        if (!job.reporters.add(vehicleSignature)) {
+            return Outcome.PENDING; // one vote per replica
+        }
+        String digest = digest(result);
+        int count = job.counts.merge(digest, 1, Integer::sum);
+        if (count >= quorum) {
+            job.agreed = result;
+            return Outcome.AGREED;
+        }
+
+        int outstanding = outstanding(jobID, hosts);
+        int best = 0;
+        for (int c : job.counts.values()) {
+            best = Math.max(best, c);
+        }
+        return best + outstanding < quorum ? Outcome.NO_QUORUM : Outcome.PENDING;
+    }
+
+    /** The result a quorum agreed on, or null. */
+    public String agreedResult(String jobID) {
+        Votes job = votes.get(jobID);
+        return job == null ? null : job.agreed;
+    }
+
+    /** How many of the given hosts have not reported a result for the job yet. */
+    public int outstanding(String jobID, Collection<String> hosts) {
+        Votes job = votes.get(jobID);
+        int outstanding = 0;
+        for (String host : hosts) {
+            if (job == null || !job.reporters.contains(host)) {
+                outstanding++;
+            }
+        }
+        return outstanding;
+    }
+
+    /** Replicas that have reported for the job so far. */
+    public int reportCount(String jobID) {
+        Votes job = votes.get(jobID);
+        return job == null ? 0 : job.reporters.size();
+    }
+
+    /** Drops the votes of a job that finished or stopped running. */
+    public void forget(String jobID) {
+        votes.remove(jobID);
+    }
+
+    public void clear() {
+        votes.clear();
+    }
+
+    static String digest(String result) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha.digest((result == null ? "" : result).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class Votes {
+        final Set<String> reporters = new HashSet<>();
+        final Map<String, Integer> counts = new HashMap<>();
+        String agreed;
+    }
+}
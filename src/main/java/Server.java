@@ -4,6 +4,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 public class Server implements Serializable {
 
@@ -32,13 +33,52 @@ public class Server implements Serializable {
     // Active notification sockets (Transient, Local to Host)
     private transient ConcurrentHashMap<String, ObjectOutputStream> activeNotificationClients;
 
-    private List<Vehicle> registeredVehicles;
-    private List<Job> approvedJobs;
+    // Insertion-ordered sets so re-storing a job or vehicle is an O(1) membership check
+    private Set<Vehicle> registeredVehicles;
+    private Set<Job> approvedJobs;
+
+    // Storage backend (MySQL by default)
+    private transient PersistenceStore store;
+
+    // Latest checkpoint per job, so recovery does not scan the whole repository
+    private transient Map<String, Checkpoint> latestCheckpoints;
+
+    // Signatures of pending, available and active vehicles (shared by a front Server and its shards)
+    private final transient VehicleSignatureIndex vehicleIndex;
+
+    // Limits on waiting job submissions, shared with the controllers
+    private final transient AdmissionControl admission = new AdmissionControl();
+    // Admission state of the controller that will run a job; this Server's own unless routed to shards
+    private transient Function<String, AdmissionControl> admissionByJob = jobID -> admission;
+
+    // Set on a shard's Server: requests and notifications are handled by the front Server
+    private final transient Server front;
+
+    // Local WAL and snapshots of checkpoints and queue order; null keeps them in memory only
+    private final transient StateJournal journal;
+    private transient boolean journalLoaded;
 
     public Server() {
+        this(DatabaseManager.getInstance());
+    }
+
+    public Server(PersistenceStore store) {
+        this(store, null);
+    }
+
+    /**
+     * @param journal if not null, startup restores live jobs, vehicles,
+     *                checkpoints and queue order from its snapshot and log,
+     *                and reads the store only when it has no usable snapshot
+     */
+    public Server(PersistenceStore store, StateJournal journal) {
+        this.store = Objects.requireNonNull(store, "Store cannot be null.");
+        this.journal = journal;
+        this.front = null;
+        this.vehicleIndex = new VehicleSignatureIndex();
         this.activeNotificationClients = new ConcurrentHashMap<>();
-        this.registeredVehicles = new ArrayList<>();
-        this.approvedJobs = new ArrayList<>();
+        this.registeredVehicles = new LinkedHashSet<>();
+        this.approvedJobs = new LinkedHashSet<>();
 
         if (!loadState()) {
             this.storageArchive = new ArrayList<>();
@@ -58,13 +98,48 @@ public class Server implements Serializable {
         }
     }
 
+    /**
+     * Server for one shard of a ShardedVCController. It has its own store
+     * session, lock and admission limits, and starts from the live jobs,
+     * vehicles and checkpoints the front Server loaded. Requests and
+     * notifications stay with the front Server; the journal and the vehicle
+     * index are shared with it.
+     */
+    public Server(Server front, PersistenceStore store) {
+        this.store = Objects.requireNonNull(store, "Store cannot be null.");
+        this.front = Objects.requireNonNull(front, "Front server cannot be null.");
+        this.journal = front.journal;
+        this.journalLoaded = true;
+        this.vehicleIndex = front.vehicleIndex;
+        this.activeNotificationClients = new ConcurrentHashMap<>();
+        synchronized (front) {
+            this.registeredVehicles = new LinkedHashSet<>(front.registeredVehicles);
+            this.approvedJobs = new LinkedHashSet<>(front.approvedJobs);
+            this.checkpointRepo = new ArrayList<>(front.checkpointRepo);
+        }
+        this.latestCheckpoints = new HashMap<>();
+        for (Checkpoint checkpoint : checkpointRepo) {
+            indexCheckpoint(checkpoint);
+        }
+        this.storageArchive = new ArrayList<>();
+        this.pendingRequests = new HashMap<>();
+        this.archivedRequests = new ArrayList<>();
+        this.requestCounter = new AtomicInteger(1);
+        this.notificationStore = new ConcurrentHashMap<>();
+        this.controllerLogs = new ArrayList<>();
+        this.jobClientMap = new ConcurrentHashMap<>();
+        this.jobSenderMap = new ConcurrentHashMap<>();
+        this.vehicleSenderMap = new ConcurrentHashMap<>();
+        this.vehicleOwnerIdMap = new ConcurrentHashMap<>();
+    }
+
     public boolean loadState() {
         reloadState();
         return true;
     }
 
     public synchronized void reloadState() {
-        DatabaseManager db = DatabaseManager.getInstance();
+        PersistenceStore db = store;
         
         // In-memory only (Reset on restart)
         if (this.pendingRequests == null) this.pendingRequests = new HashMap<>();
@@ -72,10 +147,32 @@ public class Server implements Serializable {
         if (this.requestCounter == null) this.requestCounter = new AtomicInteger(1);
         if (this.notificationStore == null) this.notificationStore = new ConcurrentHashMap<>();
         if (this.controllerLogs == null) this.controllerLogs = new ArrayList<>();
+        if (this.checkpointRepo == null) this.checkpointRepo = new ArrayList<>();
+        this.latestCheckpoints = new HashMap<>();
+        for (Checkpoint checkpoint : this.checkpointRepo) {
+            indexCheckpoint(checkpoint);
+        }
 
-        // Persistent Data
-        this.registeredVehicles = db.getAllVehicles();
-        this.approvedJobs = db.getAllJobs(); 
+        // At startup the live state comes from the journal's snapshot and log; MySQL only on a cold start
+        if (journal != null && !journalLoaded) {
+            journalLoaded = true;
+            StateJournal.Recovered recovered = journal.recover();
+            if (recovered.isWarm()) {
+                restoreFromJournal(recovered);
+                return;
+            }
+            loadFromStore(db);
+            journal.seed(JobRow.of(approvedJobs), VehicleRow.of(registeredVehicles));
+            System.out.println("Server: No journal snapshot, state loaded from DB.");
+            return;
+        }
+        loadFromStore(db);
+        System.out.println("Server: State reloaded from DB.");
+    }
+
+    private void loadFromStore(PersistenceStore db) {
+        this.registeredVehicles = new LinkedHashSet<>(db.getAllVehicles());
+        this.approvedJobs = new LinkedHashSet<>(db.getAllJobs()); 
         
         this.jobClientMap = new ConcurrentHashMap<>(db.getJobClientMap());
         this.jobSenderMap = new ConcurrentHashMap<>(db.getJobSenderMap());
@@ -88,14 +185,82 @@ public class Server implements Serializable {
                 this.storageArchive.add(j);
             }
         }
-        System.out.println("Server: State reloaded from DB.");
+    }
+
+    // Live jobs and vehicles only; finished jobs stay in MySQL for the history views
+    private void restoreFromJournal(StateJournal.Recovered recovered) {
+        this.approvedJobs = new LinkedHashSet<>();
+        this.jobClientMap = new ConcurrentHashMap<>();
+        this.jobSenderMap = new ConcurrentHashMap<>();
+        for (JobRow row : recovered.getJobs()) {
+            approvedJobs.add(row.toJob());
+            jobClientMap.put(row.getJobID(), row.getClientID());
+            jobSenderMap.put(row.getJobID(), row.getUsername());
+        }
+        this.registeredVehicles = new LinkedHashSet<>();
+        this.vehicleOwnerIdMap = new ConcurrentHashMap<>();
+        this.vehicleSenderMap = new ConcurrentHashMap<>();
+        for (VehicleRow row : recovered.getVehicles()) {
+            registeredVehicles.add(row.toVehicle());
+            vehicleOwnerIdMap.put(row.getVehicleID(), row.getOwnerID());
+            vehicleSenderMap.put(row.getVehicleID(), row.getUsername());
+        }
+        this.storageArchive = new ArrayList<>();
+        for (Checkpoint checkpoint : recovered.getCheckpoints()) {
+            checkpointRepo.add(checkpoint);
+            indexCheckpoint(checkpoint);
+        }
+        System.out.println("Server: Restored " + approvedJobs.size() + " live job(s), " + registeredVehicles.size()
+                + " vehicle(s), " + recovered.getCheckpoints().size() + " checkpoint(s) and the order of "
+                + recovered.getQueueOrder().size() + " pending job(s) from the journal ("
+                + recovered.getReplayedRecords() + " log record(s) replayed).");
+    }
+
+    /** IDs of pending jobs in the order they entered the queue; empty without a journal. */
+    public synchronized List<String> getQueueOrder() {
+        return journal == null ? new ArrayList<>() : journal.getQueueOrder();
+    }
+
+    /** Records that a job entered a controller's pending queue, so a restart keeps its place. */
+    public synchronized void recordEnqueued(String jobID) {
+        if (journal != null) {
+            journal.appendEnqueued(jobID);
+        }
+    }
+
+    public PersistenceStore getStore() {
+        return store;
+    }
+
+    public VehicleSignatureIndex getVehicleIndex() {
+        return vehicleIndex;
+    }
+
+    public AdmissionControl getAdmission() {
+        return admission;
+    }
+
+    /** Sends each submitted job to the admission limits of the shard that will run it. */
+    public void routeAdmission(Function<String, AdmissionControl> admissionByJob) {
+        this.admissionByJob = Objects.requireNonNull(admissionByJob, "Admission route cannot be null.");
     }
 
     // --- Request Management ---
 
     public synchronized Request createRequest(String senderID, String requestType, Object data) {
+        if (front != null) return front.createRequest(senderID, requestType, data);
         String requestID = "REQ-" + requestCounter.getAndIncrement();
         Request request = new Request(requestID, senderID, requestType, data);
+        if (requestType.equals("JOB_SUBMISSION") && data instanceof Job) {
+            AdmissionControl.Decision decision = admissionByJob.apply(((Job) data).getJobID()).admit(((Job) data).getJobID(), senderID);
+            if (!decision.isAdmitted()) {
+                // Not stored anywhere; the sender retries later
+                request.refuse(decision.getReason(), decision.getRetryAfter());
+                System.out.println("Server: Refused request " + requestID + " from " + senderID + ": "
+                        + decision.getReason() + ", retry after " + decision.getRetryAfter().getSeconds() + "s");
+                return request;
+            }
+        }
         pendingRequests.put(requestID, request);
 
         if (requestType.equals("JOB_SUBMISSION") && data instanceof Job) {
@@ -106,6 +271,7 @@ public class Server implements Serializable {
         } else if (requestType.equals("VEHICLE_REGISTRATION") && data instanceof Vehicle) {
             Vehicle vehicle = (Vehicle) data;
             vehicleSenderMap.put(vehicle.getVehicleID(), senderID);
+            vehicleIndex.pendingRegistration(vehicle);
         }
 
         System.out.println("Server: Created request " + requestID + " from " + senderID);
@@ -113,10 +279,17 @@ public class Server implements Serializable {
     }
 
     public Request getRequest(String requestID) {
+        if (front != null) return front.getRequest(requestID);
         return pendingRequests.get(requestID);
     }
 
+    public synchronized int getPendingRequestCount() {
+        if (front != null) return front.getPendingRequestCount();
+        return pendingRequests.size();
+    }
+
     public synchronized List<Request> getPendingRequests() {
+        if (front != null) return front.getPendingRequests();
         return pendingRequests.values()
                 .stream()
                 .filter(r -> r.getStatus().equals("Pending"))
@@ -124,12 +297,14 @@ public class Server implements Serializable {
     }
 
     public synchronized List<Request> getAllRequests() {
+        if (front != null) return front.getAllRequests();
         List<Request> all = new ArrayList<>(pendingRequests.values());
         all.addAll(archivedRequests);
         return all;
     }
 
     public synchronized boolean approveRequest(String requestID) {
+        if (front != null) return front.approveRequest(requestID);
         Request request = pendingRequests.get(requestID);
         if (request == null || !request.getStatus().equals("Pending")) {
             return false;
@@ -137,11 +312,15 @@ public class Server implements Serializable {
         request.approve();
         pendingRequests.remove(requestID);
         archivedRequests.add(request);
+        if (request.getData() instanceof Vehicle) {
+            vehicleIndex.registrationApproved((Vehicle) request.getData());
+        }
         System.out.println("Server: Approved request " + requestID);
         return true;
     }
 
     public synchronized boolean rejectRequest(String requestID) {
+        if (front != null) return front.rejectRequest(requestID);
         Request request = pendingRequests.get(requestID);
         if (request == null || !request.getStatus().equals("Pending")) {
             return false;
@@ -149,10 +328,48 @@ public class Server implements Serializable {
         request.reject();
         pendingRequests.remove(requestID);
         archivedRequests.add(request);
+        if (request.getData() instanceof Vehicle) {
+            vehicleIndex.registrationRejected((Vehicle) request.getData());
+        } else if (request.getData() instanceof Job) {
+            String jobID = ((Job) request.getData()).getJobID();
+            admissionByJob.apply(jobID).release(jobID);
+        }
         System.out.println("Server: Rejected request " + requestID);
         return true;
     }
 
+    /**
+     * Approves many requests under one lock acquisition.
+     * @return the requests that were still pending and are now approved, in the given order
+     */
+    public synchronized List<Request> approveRequests(Collection<String> requestIDs) {
+        if (front != null) return front.approveRequests(requestIDs);
+        List<Request> approved = new ArrayList<>();
+        for (String requestID : requestIDs) {
+            Request request = pendingRequests.get(requestID);
+            if (approveRequest(requestID)) {
+                approved.add(request);
+            }
+        }
+        return approved;
+    }
+
+    /**
+     * Rejects many requests under one lock acquisition.
+     * @return the requests that were still pending and are now rejected, in the given order
+     */
+    public synchronized List<Request> rejectRequests(Collection<String> requestIDs) {
+        if (front != null) return front.rejectRequests(requestIDs);
+        List<Request> rejected = new ArrayList<>();
+        for (String requestID : requestIDs) {
+            Request request = pendingRequests.get(requestID);
+            if (rejectRequest(requestID)) {
+                rejected.add(request);
+            }
+        }
+        return rejected;
+    }
+
     // --- Job & Vehicle Lookups ---
 
     public String getClientIDForJob(Job job) {
@@ -193,16 +410,15 @@ public class Server implements Serializable {
     public synchronized void storeRegisteredVehicle(Vehicle vehicle) {
         if (vehicle != null) {
             // Add to memory if not present
-            if (!registeredVehicles.contains(vehicle)) {
-                registeredVehicles.add(vehicle);
-            }
+            registeredVehicles.add(vehicle);
             
             // save to DB
             String ownerEnteredID = vehicle.getOwnerEnteredID();
             if (ownerEnteredID == null) ownerEnteredID = "UNKNOWN";
             String username = vehicle.getSenderID();
             if (username == null) username = "UNKNOWN";
-            DatabaseManager.getInstance().saveVehicle(vehicle, ownerEnteredID, username);
+            if (journal != null) journal.appendVehicle(VehicleRow.of(vehicle));
+            store.saveVehicle(vehicle, ownerEnteredID, username);
             System.out.println("Server: Stored vehicle " + vehicle.getVehicleID());
         }
     }
@@ -214,16 +430,15 @@ public class Server implements Serializable {
     public synchronized void storeApprovedJob(Job job) {
         if (job != null) {
              // Add to memory if not present
-            if (!approvedJobs.contains(job)) {
-                approvedJobs.add(job);
-            }
+            approvedJobs.add(job);
 
             // save to DB 
             String clientEnteredID = job.getClientEnteredID(); 
             if (clientEnteredID == null) clientEnteredID = "UNKNOWN";
             String username = job.getSenderID();
             if (username == null) username = "UNKNOWN";
-            DatabaseManager.getInstance().saveJob(job, clientEnteredID, username);
+            if (journal != null) journal.appendJob(JobRow.of(job));
+            store.saveJob(job, clientEnteredID, username);
             System.out.println("Server: Stored approved job " + job.getJobID());
         }
     }
@@ -232,6 +447,35 @@ public class Server implements Serializable {
         return new ArrayList<>(approvedJobs);
     }
 
+    /**
+     * Registers the jobs and vehicles changed by one scheduling pass. No I/O,
+     * so the controller calls it on its own thread; their rows then go to
+     * storeSchedulingBatch.
+     */
+    public synchronized void trackSchedulingBatch(Collection<Job> jobs, Collection<Vehicle> vehicles) {
+        approvedJobs.addAll(jobs);
+        registeredVehicles.addAll(vehicles);
+        for (Job job : jobs) {
+            if ("Completed".equals(job.getStatus())) {
+                storageArchive.add(job);
+            }
+        }
+    }
+
+    /**
+     * Stores the rows of one scheduling pass in a single batched transaction
+     * instead of one round trip per object, after forcing them to the journal
+     * (the restart source). Runs on the controller's I/O thread outside the
+     * Server's lock (the journal has its own), so the controller is not held
+     * up by it.
+     */
+    public void storeSchedulingBatch(List<JobRow> jobs, List<VehicleRow> vehicles) {
+        if (jobs.isEmpty() && vehicles.isEmpty()) return;
+        if (journal != null) journal.appendBatch(jobs, vehicles);
+        store.saveBatch(jobs, vehicles);
+        System.out.println("Server: Stored batch of " + jobs.size() + " job(s) and " + vehicles.size() + " vehicle(s)");
+    }
+
     public synchronized void storeCompletedJob(Job job) {
         if (job != null) {
             storageArchive.add(job);
@@ -241,7 +485,8 @@ public class Server implements Serializable {
             if (clientEnteredID == null) clientEnteredID = "UNKNOWN";
             String username = job.getSenderID();
             if (username == null) username = "UNKNOWN";
-            DatabaseManager.getInstance().saveJob(job, clientEnteredID, username);
+            if (journal != null) journal.appendJob(JobRow.of(job));
+            store.saveJob(job, clientEnteredID, username);
             System.out.println("Server: Stored completed job " + job.getJobID());
         }
     }
@@ -251,15 +496,19 @@ public class Server implements Serializable {
     public synchronized void storeCheckpoint(Checkpoint checkpoint) {
         if (checkpoint != null) {
             this.checkpointRepo.add(checkpoint);
+            indexCheckpoint(checkpoint);
+            if (journal != null) journal.appendCheckpoint(checkpoint);
             System.out.println("Server: Stored checkpoint " + checkpoint.getCheckpointID());
         }
     }
 
     public synchronized Checkpoint getLatestCheckpoint(String jobID) {
-        return checkpointRepo.stream()
-                .filter(cp -> cp.getJobID().equals(jobID))
-                .max(Comparator.comparing(Checkpoint::getTimestamp))
-                .orElse(null);
+        return latestCheckpoints.get(jobID);
+    }
+
+    private void indexCheckpoint(Checkpoint checkpoint) {
+        latestCheckpoints.merge(checkpoint.getJobID(), checkpoint,
+                (current, candidate) -> candidate.getTimestamp().isBefore(current.getTimestamp()) ? current : candidate);
     }
 
     // --- Notifications ---
@@ -282,6 +531,10 @@ public class Server implements Serializable {
     }
 
     public synchronized void notifyUser(String userID, String message) {
+        if (front != null) {
+            front.notifyUser(userID, message);
+            return;
+        }
         if (userID == null || message == null) return;
         
         String timestamp = TS_FMT.format(LocalDateTime.now());
@@ -0,0 +1,550 @@
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs N VCController shards so scheduling is no longer bound to a single
+ * monitor. Each shard owns a partition of the vehicles (by a partition key
+ * such as the lot, or by vehicle signature) and its own pending queue; calls
+ * for different shards run in parallel.
+ *
+ * Each shard has its own Server, with its own lock, store session (a separate
+ * DB connection for MySQL) and admission limits. The front Server passed in
+ * keeps requests, notifications and users and routes each job submission to
+ * the admission limits of the shard that will run it. The shards share the
+ * journal, the vehicle signature index and one JobDependencyGraph, so
+ * dependencies may cross shards.
+ *
+ * Jobs go to the shard picked by hash of the job ID; vehicles, and later their
+ * departures, to the shard that currently owns them. When a shard's head job
+ * lacks vehicles, idle vehicles of shards with empty queues are moved over
+ * (cross-shard placement). A job always runs within one shard.
+ *
+ * Shard monitors are never nested: vehicles are released by one shard and
+ * then adopted by the other, and a dependent released or cancelled by another
+ * shard's job is handed to its own shard and picked up after the call.
+ */
+public class ShardedVCController implements CloudController {
+
+    private final Server server;
+    private final int shardCount;
+    // Filled while the shards are built (each loads its state as it is created), fixed afterwards
+    private final List<VCController> shards;
+    private final Function<Vehicle, String> partitionKey;
+    private final JobDependencyGraph dependencies = new JobDependencyGraph();
+
+    // Vehicle signature -> shard currently owning the vehicle
+    private final Map<String, Integer> vehicleShards = new ConcurrentHashMap<>();
+
+    // Shards whose head job is waiting for vehicles
+    private final Set<Integer> starving = ConcurrentHashMap.newKeySet();
+
+    public ShardedVCController(Server server, int shardCount) {
+        this(server, shardCount, Vehicle::getSignature);
+    }
+
+    /**
+     * @param partitionKey maps a vehicle to its partition (e.g. its lot); vehicles
+     *                     with the same key start in the same shard
+     */
+    public ShardedVCController(Server server, int shardCount, Function<Vehicle, String> partitionKey) {
+        this(server, shardCount, partitionKey, () -> server.getStore().openSession());
+    }
+
+    /**
+     * @param shardStores opens the store each shard's Server writes to
+     */
+    public ShardedVCController(Server server, int shardCount, Function<Vehicle, String> partitionKey,
+                               Supplier<PersistenceStore> shardStores) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1.");
+        }
+        this.server = Objects.requireNonNull(server, "Server cannot be null.");
+        this.shardCount = shardCount;
+        this.partitionKey = Objects.requireNonNull(partitionKey, "Partition key cannot be null.");
+        this.shards = new ArrayList<>(shardCount);
+
+        server.getVehicleIndex().clearRegistered();
+        for (int i = 0; i < shardCount; i++) {
+            final int shard = i;
+            shards.add(new VCController(this, new Server(server, shardStores.get()),
+                    vehicle -> partitionOf(vehicle) == shard,
+                    jobID -> shardOfJob(jobID) == shard,
+                    dependencies));
+        }
+        server.routeAdmission(jobID -> shardFor(jobID).getServer().getAdmission());
+        // The single-controller defaults, now spread over the shards
+        setAdmissionLimits(AdmissionControl.DEFAULT_MAX_PER_CLIENT, AdmissionControl.DEFAULT_MAX_GLOBAL);
+
+        // A shard releases a vehicle on its own when its departure timer fires or its lease runs out
+        for (int i = 0; i < shardCount; i++) {
+            final int shard = i;
+            shards.get(i).addTimerListener(event -> {
+                if (event.getType() == TimerEvent.Type.VEHICLE_DEPARTED
+                        || event.getType() == TimerEvent.Type.LEASE_EXPIRED) {
+                    vehicleShards.remove(((Vehicle) event.getSubject()).getSignature(), shard);
+                }
+            });
+        }
+
+        for (Vehicle vehicle : server.getAllRegisteredVehicles()) {
+            if ("Departed".equalsIgnoreCase(vehicle.getStatus())) {
+                continue;
+            }
+            String jobID = vehicle.getCurrentJobID();
+            boolean busy = "Active".equalsIgnoreCase(vehicle.getStatus()) || "Busy".equalsIgnoreCase(vehicle.getCpuStatus());
+            vehicleShards.put(vehicle.getSignature(), busy && jobID != null ? shardOfJob(jobID) : partitionOf(vehicle));
+        }
+        for (int i = 0; i < shardCount; i++) {
+            rebalance(i);
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public List<VCController> getShards() {
+        return Collections.unmodifiableList(shards);
+    }
+
+    public VCController shardFor(Job job) {
+        return shardFor(job.getJobID());
+    }
+
+    private VCController shardFor(String jobID) {
+        return shards.get(shardOfJob(jobID));
+    }
+
+    /** The front Server: requests, notifications and users. */
+    public Server getServer() {
+        return server;
+    }
+
+    // --- Configuration, applied to every shard ---
+
+    public void setClock(Clock clock) {
+        for (VCController shard : shards) {
+            shard.setClock(clock);
+        }
+    }
+
+    /**
+     * Splits the limits evenly over the shards' own admission state (rounded
+     * up). Jobs are spread over the shards by ID, so a client's jobs are too.
+     */
+    public void setAdmissionLimits(int maxPerClient, int maxGlobal) {
+        if (maxPerClient < 1 || maxGlobal < 1) {
+            throw new IllegalArgumentException("Admission limits must be at least 1.");
+        }
+        int perClient = (maxPerClient + shardCount - 1) / shardCount;
+        int global = (maxGlobal + shardCount - 1) / shardCount;
+        for (VCController shard : shards) {
+            shard.setAdmissionLimits(perClient, global);
+        }
+    }
+
+    public void setControllerGUI(VCControllerGUI gui) {
+        for (VCController shard : shards) {
+            shard.setControllerGUI(gui);
+        }
+    }
+
+    public void setLeaseDuration(Duration duration) {
+        for (VCController shard : shards) {
+            shard.setLeaseDuration(duration);
+        }
+    }
+
+    public void startLeaseMonitor(Duration period) {
+        for (VCController shard : shards) {
+            shard.startLeaseMonitor(period);
+        }
+    }
+
+    public void startBackgroundPlanner(Duration period) {
+        for (VCController shard : shards) {
+            shard.startBackgroundPlanner(period);
+        }
+    }
+
+    /** Renews the lease in the shard that owns the vehicle; false if no shard does. */
+    public boolean renewLease(String vehicleSignature) {
+        Integer shard = vehicleShards.get(vehicleSignature);
+        return shard != null && shards.get(shard).renewLease(vehicleSignature);
+    }
+
+    public void addTimerListener(Consumer<TimerEvent> listener) {
+        for (VCController shard : shards) {
+            shard.addTimerListener(listener);
+        }
+    }
+
+    public void setBackfillingEnabled(boolean enabled) {
+        for (VCController shard : shards) {
+            shard.setBackfillingEnabled(enabled);
+        }
+    }
+
+    public void setQueueOrdering(PendingJobQueue.Ordering ordering) {
+        for (VCController shard : shards) {
+            shard.setQueueOrdering(ordering);
+        }
+    }
+
+    /** Gives every shard its own scheduler and I/O thread (see VCController.enableEventLoop). */
+    public void enableEventLoop(int queueCapacityPerShard) {
+        for (VCController shard : shards) {
+            shard.enableEventLoop(queueCapacityPerShard);
+        }
+    }
+
+    public void disableEventLoop() {
+        for (VCController shard : shards) {
+            shard.disableEventLoop();
+        }
+    }
+
+    // --- Routed operations ---
+
+    /** @return false if admission control refused the job */
+    public boolean addJob(Job job) {
+        int shard = shardOfJob(job.getJobID());
+        if (!shards.get(shard).addJob(job)) {
+            return false;
+        }
+        rebalance(shard);
+        return true;
+    }
+
+    /** Acknowledges a job request in the shard that will run the job, which may approve it at once. */
+    public boolean processJobRequest(Request request) {
+        if (request == null || !(request.getData() instanceof Job)) {
+            return shards.get(0).processJobRequest(request);
+        }
+        int shard = shardOfJob(((Job) request.getData()).getJobID());
+        boolean accepted = shards.get(shard).processJobRequest(request);
+        rebalance(shard);
+        admitHandedOver();
+        return accepted;
+    }
+
+    /** Acknowledges a vehicle request in the shard of the vehicle's partition, which may approve it at once. */
+    public boolean processVehicleRequest(Request request) {
+        if (request == null || !(request.getData() instanceof Vehicle)) {
+            return shards.get(0).processVehicleRequest(request);
+        }
+        Vehicle vehicle = (Vehicle) request.getData();
+        int shard = partitionOf(vehicle);
+        boolean accepted = shards.get(shard).processVehicleRequest(request);
+        if ("Approved".equals(request.getStatus())) {
+            vehicleShards.put(vehicle.getSignature(), shard);
+            afterVehiclesFreed(shard);
+        }
+        return accepted;
+    }
+
+    public void approveJobSubmission(String requestID) {
+        Request request = server.getRequest(requestID);
+        if (request == null || !(request.getData() instanceof Job)) {
+            System.err.println("Invalid job request: " + requestID);
+            return;
+        }
+        int shard = shardOfJob(((Job) request.getData()).getJobID());
+        shards.get(shard).approveJobSubmission(requestID);
+        rebalance(shard);
+        admitHandedOver();
+    }
+
+    public void rejectJobSubmission(String requestID) {
+        shards.get(0).rejectJobSubmission(requestID);
+    }
+
+    public void approveVehicleRegistration(String requestID) {
+        Request request = server.getRequest(requestID);
+        if (request == null || !(request.getData() instanceof Vehicle)) {
+            System.err.println("Invalid vehicle request: " + requestID);
+            return;
+        }
+        Vehicle vehicle = (Vehicle) request.getData();
+        int shard = partitionOf(vehicle);
+        vehicleShards.put(vehicle.getSignature(), shard);
+        shards.get(shard).approveVehicleRegistration(requestID);
+        afterVehiclesFreed(shard);
+    }
+
+    public void rejectVehicleRegistration(String requestID) {
+        shards.get(0).rejectVehicleRegistration(requestID);
+    }
+
+    /**
+     * Approves many requests: each shard approves its own jobs and vehicles
+     * in one call, then the shards that gained vehicles are rebalanced once.
+     * @return IDs of the requests approved
+     */
+    public List<String> approveRequests(Collection<String> requestIDs) {
+        Map<Integer, List<String>> byShard = new TreeMap<>();
+        Set<Integer> gainedVehicles = new HashSet<>();
+        for (String requestID : requestIDs) {
+            Request request = server.getRequest(requestID);
+            if (request == null) {
+                continue;
+            }
+            int shard;
+            if (request.getData() instanceof Job) {
+                shard = shardOfJob(((Job) request.getData()).getJobID());
+            } else if (request.getData() instanceof Vehicle) {
+                Vehicle vehicle = (Vehicle) request.getData();
+                shard = partitionOf(vehicle);
+                vehicleShards.put(vehicle.getSignature(), shard);
+                gainedVehicles.add(shard);
+            } else {
+                continue;
+            }
+            byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(requestID);
+        }
+
+        List<String> approved = new ArrayList<>();
+        for (Map.Entry<Integer, List<String>> entry : byShard.entrySet()) {
+            approved.addAll(shards.get(entry.getKey()).approveRequests(entry.getValue()));
+        }
+        for (Integer shard : byShard.keySet()) {
+            if (gainedVehicles.contains(shard)) {
+                afterVehiclesFreed(shard);
+            } else {
+                rebalance(shard);
+            }
+        }
+        admitHandedOver();
+        return approved;
+    }
+
+    /** @return IDs of the requests rejected */
+    public List<String> rejectRequests(Collection<String> requestIDs) {
+        return shards.get(0).rejectRequests(requestIDs);
+    }
+
+    public void recruitVehicle(Vehicle vehicle) {
+        int shard = partitionOf(vehicle);
+        vehicleShards.put(vehicle.getSignature(), shard);
+        shards.get(shard).recruitVehicle(vehicle);
+        afterVehiclesFreed(shard);
+    }
+
+    public void handleVehicleDeparture(Vehicle vehicle) {
+        Integer shard = vehicleShards.remove(vehicle.getSignature());
+        if (shard == null) {
+            System.err.println("Departing vehicle " + vehicle.getVehicleID() + " is not owned by any shard.");
+            return;
+        }
+        shards.get(shard).handleVehicleDeparture(vehicle);
+        rebalance(shard);
+    }
+
+    public void handleJobCompletion(Job job) {
+        int shard = shardOfJob(job.getJobID());
+        shards.get(shard).handleJobCompletion(job);
+        // Dependents in other shards were handed to them
+        admitHandedOver();
+        afterVehiclesFreed(shard);
+    }
+
+    /**
+     * Fails a job and cancels everything downstream of it, in any shard.
+     * @return IDs of the downstream jobs cancelled
+     */
+    public List<String> handleJobFailure(Job job, String reason) {
+        int shard = shardOfJob(job.getJobID());
+        List<String> cancelled = shards.get(shard).handleJobFailure(job, reason);
+        admitHandedOver();
+        afterVehiclesFreed(shard);
+        return cancelled;
+    }
+
+    public void handleCheckpoint(Checkpoint checkpoint) {
+        shards.get(shardOfJob(checkpoint.getJobID())).handleCheckpoint(checkpoint);
+    }
+
+    public CompletableFuture<Void> handleCheckpointAsync(Checkpoint checkpoint) {
+        return shardFor(checkpoint.getJobID()).handleCheckpointAsync(checkpoint);
+    }
+
+    /** A replica result may complete the job; its shard's dependents elsewhere are picked up afterwards. */
+    public CompletableFuture<Void> handleReplicaResultAsync(ReplicaResult report) {
+        int shard = shardOfJob(report.getJobID());
+        return shards.get(shard).handleReplicaResultAsync(report).thenRun(() -> {
+            admitHandedOver();
+            afterVehiclesFreed(shard);
+        });
+    }
+
+    public CompletableFuture<Void> handleProgressReportAsync(ProgressReport report) {
+        return shardFor(report.getJobID()).handleProgressReportAsync(report);
+    }
+
+    /** A vehicle that grew may now fit its shard's head job, or another shard's. */
+    public CompletableFuture<Void> handleCapacityReportAsync(CapacityReport report) {
+        Integer shard = vehicleShards.get(report.getVehicleSignature());
+        if (shard == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return shards.get(shard).handleCapacityReportAsync(report).thenRun(() -> afterVehiclesFreed(shard));
+    }
+
+    public void triggerCheckpoint(Job job) {
+        shardFor(job).triggerCheckpoint(job);
+    }
+
+    /** Runs every shard's planner (timers, migrations and automatic checkpoints). */
+    public void runPlanner() {
+        for (VCController shard : shards) {
+            shard.runPlanner();
+        }
+    }
+
+    // --- Reads ---
+
+    public String getJobStatus(String jobID) {
+        int shard = shardOfJob(jobID);
+        if (shard >= shards.size()) {
+            // Asked by a shard loading its state before this one is built
+            return server.getStore().getJobStatus(jobID);
+        }
+        return shards.get(shard).getJobStatus(jobID);
+    }
+
+    public boolean isJobInSystem(String jobID) {
+        return shards.get(shardOfJob(jobID)).isJobInSystem(jobID);
+    }
+
+    public boolean isVehicleInSystem(String license, String state) {
+        return server.getVehicleIndex().contains(license + state);
+    }
+
+    public List<Job> getClientJobHistory(String loginID) {
+        return server.getStore().getClientJobHistory(loginID);
+    }
+
+    public List<Vehicle> getOwnerVehicleHistory(String ownerID) {
+        return server.getStore().getOwnerVehicleHistory(ownerID);
+    }
+
+    /** Each shard's estimates, one shard after the other. */
+    public String calculateCompletionTimes() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < shardCount; i++) {
+            if (shards.get(i).getPendingJobCount() == 0) {
+                continue;
+            }
+            text.append("Shard ").append(i).append(":\n").append(shards.get(i).calculateCompletionTimes()).append("\n");
+        }
+        return text.toString();
+    }
+
+    public List<Job> getInProgressJobs() {
+        List<Job> jobs = new ArrayList<>();
+        for (VCController shard : shards) {
+            jobs.addAll(shard.getInProgressJobs());
+        }
+        return jobs;
+    }
+
+    public int getPendingJobCount() {
+        int count = 0;
+        for (VCController shard : shards) {
+            count += shard.getPendingJobCount();
+        }
+        return count;
+    }
+
+    public int getInProgressJobCount() {
+        int count = 0;
+        for (VCController shard : shards) {
+            count += shard.getInProgressJobCount();
+        }
+        return count;
+    }
+
+    /** Sum of one metric over all shards. */
+    public long getMetric(String name) {
+        long total = 0;
+        for (VCController shard : shards) {
+            total += shard.getMetrics().get(name);
+        }
+        return total;
+    }
+
+    // --- Cross-shard hand-over ---
+
+    // Runs the dependents other shards released or cancelled; no shard monitor is held here
+    private void admitHandedOver() {
+        for (int i = 0; i < shardCount; i++) {
+            if (shards.get(i).hasHandedOver()) {
+                shards.get(i).admitHandedOver();
+                rebalance(i);
+            }
+        }
+    }
+
+    // --- Cross-shard placement ---
+
+    // A shard gained idle vehicles; let starving shards take them if it has no queue of its own
+    private void afterVehiclesFreed(int shard) {
+        rebalance(shard);
+        for (Integer needy : starving) {
+            if (needy != shard) {
+                rebalance(needy);
+            }
+        }
+    }
+
+    /**
+     * Moves idle vehicles that fit the given shard's head job from shards with
+     * empty queues until the head fits or no donor has vehicles left.
+     */
+    private void rebalance(int shard) {
+        VCController needy = shards.get(shard);
+        int shortfall = needy.getVehicleShortfall();
+        Resources required = needy.getHeadRequirements();
+        for (int step = 1; shortfall > 0 && step < shardCount; step++) {
+            int donor = (shard + step) % shardCount;
+            List<Vehicle> moved = shards.get(donor).releaseIdleVehicles(shortfall, required);
+            if (moved.isEmpty()) {
+                continue;
+            }
+            // Adopted before they are remapped, so a heartbeat always finds a shard holding the lease
+            needy.adoptVehicles(moved);
+            for (Vehicle vehicle : moved) {
+                vehicleShards.put(vehicle.getSignature(), shard);
+            }
+            shards.get(donor).releaseLeases(moved);
+            shortfall = needy.getVehicleShortfall();
+        }
+        if (shortfall > 0) {
+            starving.add(shard);
+        } else {
+            starving.remove(shard);
+        }
+    }
+
+    private int partitionOf(Vehicle vehicle) {
+        return Math.floorMod(partitionKey.apply(vehicle).hashCode(), shardCount);
+    }
+
+    private int shardOfJob(String jobID) {
+        return Math.floorMod(jobID.hashCode(), shardCount);
+    }
+}
@@ -0,0 +1,618 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead log of the controller's live state, with periodic
+ * snapshots: every live job and registered vehicle (as JobRow / VehicleRow),
+ * the latest checkpoint of each live job and the order in which pending jobs
+ * entered the queue.
+ *
+ * Every job the Server stores is appended as a JOB record, every vehicle as a
+ * VEHICLE record, every checkpoint as a CHECKPOINT record, and every time a
+ * job enters the pending queue an ENQUEUE record keeps its place in arrival
+ * order. Jobs that complete, fail or are cancelled drop out of the journal
+ * together with their checkpoints, and departed vehicles drop out too (MySQL
+ * keeps their history), so a snapshot holds only live state. After
+ * snapshotInterval records a new log is started and the snapshot is written
+ * by a background thread, off the journal's lock, so recovery reads one
+ * snapshot plus at most a few intervals of records no matter how long the
+ * system has run.
+ *
+ * Each append is forced to disk before it returns; the rows of one
+ * scheduling pass are written together and forced once (group commit).
+ *
+ * Files: snapshot.bin holds the state up to log generation g; wal-g.log and
+ * any later logs hold what came after. A snapshot is written to a temporary
+ * file and renamed into place before older logs are deleted, so a crash at
+ * any point leaves a snapshot and the logs that continue it. A record torn
+ * by a crash fails its CRC and is cut off on recovery.
+ *
+ * Startup rebuilds the state from the snapshot and the log tail. MySQL is
+ * only read on a cold start, when there is no usable snapshot (first run, or
+ * after a failed write deleted it); the Server then seeds the journal with
+ * what it loaded from the store. Thread-safe: the Servers of a sharded
+ * controller share one journal.
+ */
+public class StateJournal {
+
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+
+    private static final byte JOB = 1;
+    private static final byte CHECKPOINT = 2;
+    private static final byte ENQUEUE = 3;
+    private static final byte VEHICLE = 4;
+
+    private static final int SNAPSHOT_MAGIC = 0x56435333; // "VCS3"
+    // Larger lengths can only come from a torn or corrupt record
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    /** State rebuilt from the snapshot and the log. */
+    public static final class Recovered {
+        private final boolean warm;
+        private final List<JobRow> jobs;
+        private final List<VehicleRow> vehicles;
+        private final List<Checkpoint> checkpoints;
+        private final List<String> queueOrder;
+        private final int replayedRecords;
+
+        private Recovered(boolean warm, List<JobRow> jobs, List<VehicleRow> vehicles, List<Checkpoint> checkpoints,
+                List<String> queueOrder, int replayedRecords) {
+            this.warm = warm;
+            this.jobs = jobs;
+            this.vehicles = vehicles;
+            this.checkpoints = checkpoints;
+            this.queueOrder = queueOrder;
+            this.replayedRecords = replayedRecords;
+        }
+
+        /** False on a cold start: there was no usable snapshot and nothing was restored. */
+        public boolean isWarm() {
+            return warm;
+        }
+
+        /** Every live job. */
+        public List<JobRow> getJobs() {
+            return jobs;
+        }
+
+        /** Every registered vehicle that has not departed. */
+        public List<VehicleRow> getVehicles() {
+            return vehicles;
+        }
+
+        /** Latest checkpoint of each live job. */
+        public List<Checkpoint> getCheckpoints() {
+            return checkpoints;
+        }
+
+        /** IDs of pending jobs in the order they entered the queue. */
+        public List<String> getQueueOrder() {
+            return queueOrder;
+        }
+
+        /** Log records applied on top of the snapshot. */
+        public int getReplayedRecords() {
+            return replayedRecords;
+        }
+    }
+
+    // State captured for one snapshot; written after the lock is released
+    private static final class Snapshot {
+        final long generation;
+        final List<JobRow> jobs;
+        final List<VehicleRow> vehicles;
+        final List<Checkpoint> checkpoints;
+        final List<String> queueOrder;
+
+        Snapshot(long generation, List<JobRow> jobs, List<VehicleRow> vehicles, List<Checkpoint> checkpoints,
+                List<String> queueOrder) {
+            this.generation = generation;
+            this.jobs = jobs;
+            this.vehicles = vehicles;
+            this.checkpoints = checkpoints;
+            this.queueOrder = queueOrder;
+        }
+    }
+
+    private final Path directory;
+    private int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+
+    // Current live state, written out by snapshots
+    private final Map<String, JobRow> jobs = new LinkedHashMap<>();
+    private final Map<String, VehicleRow> vehicles = new LinkedHashMap<>();
+    private final Map<String, Checkpoint> checkpoints = new LinkedHashMap<>();
+    private final Set<String> queueOrder = new LinkedHashSet<>();
+
+    private long generation;
+    private FileChannel log;
+    private int recordsSinceSnapshot;
+    private volatile boolean failed;
+
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "vc-journal-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Opens (creating if needed) the journal in the given directory. Call recover() before appending. */
+    public StateJournal(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal directory " + directory, e);
+        }
+    }
+
+    /** Records between snapshots; bounds how much log a restart replays. */
+    public void setSnapshotInterval(int records) {
+        if (records < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be at least 1.");
+        }
+        this.snapshotInterval = records;
+    }
+
+    /**
+     * Loads the latest snapshot and replays the logs after it, then writes a
+     * fresh snapshot and opens a new log. Without a usable snapshot nothing is
+     * restored (isWarm() is false) and the caller must seed() the journal
+     * from the store before appending.
+     */
+    public synchronized Recovered recover() {
+        int replayed;
+        try {
+            replayed = load();
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("StateJournal: Recovery failed, starting from the store: " + e.getMessage());
+            replayed = -1;
+        }
+        if (replayed < 0) {
+            clearState();
+            return new Recovered(false, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 0);
+        }
+        Recovered recovered = new Recovered(true, new ArrayList<>(jobs.values()), new ArrayList<>(vehicles.values()),
+                new ArrayList<>(checkpoints.values()), getQueueOrder(), replayed);
+        startFresh();
+        return recovered;
+    }
+
+    /** Cold start: takes the state loaded from the store as the journal's starting point. */
+    public synchronized void seed(Collection<JobRow> storedJobs, Collection<VehicleRow> storedVehicles) {
+        clearState();
+        for (JobRow job : storedJobs) {
+            applyJob(job);
+        }
+        for (VehicleRow vehicle : storedVehicles) {
+            applyVehicle(vehicle);
+        }
+        startFresh();
+    }
+
+    /** A job was stored; records its row (finished jobs leave the journal). */
+    public void appendJob(JobRow job) {
+        appendBatch(Collections.singletonList(job), Collections.emptyList());
+    }
+
+    public void appendVehicle(VehicleRow vehicle) {
+        appendBatch(Collections.emptyList(), Collections.singletonList(vehicle));
+    }
+
+    /** The rows of one scheduling pass, forced to disk together. */
+    public synchronized void appendBatch(List<JobRow> jobRows, List<VehicleRow> vehicleRows) {
+        for (JobRow job : jobRows) {
+            applyJob(job);
+        }
+        for (VehicleRow vehicle : vehicleRows) {
+            applyVehicle(vehicle);
+        }
+        if (failed || log == null) {
+            return;
+        }
+        try {
+            for (JobRow job : jobRows) {
+                write(JOB, job);
+            }
+            for (VehicleRow vehicle : vehicleRows) {
+                write(VEHICLE, vehicle);
+            }
+            commit();
+        } catch (IOException e) {
+            invalidate(e);
+        }
+    }
+
+    public synchronized void appendCheckpoint(Checkpoint checkpoint) {
+        applyCheckpoint(checkpoint);
+        append(CHECKPOINT, checkpoint);
+    }
+
+    /** A job entered the pending queue; it goes behind every job that entered before it. */
+    public synchronized void appendEnqueued(String jobID) {
+        queueOrder.remove(jobID);
+        queueOrder.add(jobID);
+        append(ENQUEUE, jobID);
+    }
+
+    /** IDs of pending jobs in the order they entered the queue; jobs never seen entering it go last. */
+    public synchronized List<String> getQueueOrder() {
+        List<String> order = new ArrayList<>();
+        for (String jobID : queueOrder) {
+            if (isPending(jobs.get(jobID))) {
+                order.add(jobID);
+            }
+        }
+        for (JobRow job : jobs.values()) {
+            if (isPending(job) && !queueOrder.contains(job.getJobID())) {
+                order.add(job.getJobID());
+            }
+        }
+        return order;
+    }
+
+    /** Waits for a snapshot in progress, then closes the log. */
+    public synchronized void close() {
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (log == null) {
+            return;
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.err.println("StateJournal: Error closing log: " + e.getMessage());
+        }
+        log = null;
+    }
+
+    private void applyJob(JobRow job) {
+        String jobID = job.getJobID();
+        if (isArchived(job.getStatus())) {
+            jobs.remove(jobID);
+            checkpoints.remove(jobID);
+            queueOrder.remove(jobID);
+            return;
+        }
+        jobs.put(jobID, job);
+        if (!isPending(job)) {
+            queueOrder.remove(jobID);
+        }
+    }
+
+    private void applyVehicle(VehicleRow vehicle) {
+        if ("Departed".equals(vehicle.getStatus())) {
+            vehicles.remove(vehicle.getVehicleID());
+        } else {
+            vehicles.put(vehicle.getVehicleID(), vehicle);
+        }
+    }
+
+    private void applyCheckpoint(Checkpoint checkpoint) {
+        // A late checkpoint of a finished job is not worth keeping
+        if (jobs.containsKey(checkpoint.getJobID())) {
+            checkpoints.put(checkpoint.getJobID(), checkpoint);
+        }
+    }
+
+    private void clearState() {
+        jobs.clear();
+        vehicles.clear();
+        checkpoints.clear();
+        queueOrder.clear();
+    }
+
+    private static boolean isPending(JobRow job) {
+        return job != null && job.getStatus() != null && job.getStatus().startsWith("Pending");
+    }
+
+    private static boolean isArchived(String status) {
+        return "Completed".equals(status) || "Failed".equals(status) || "Cancelled".equals(status);
+    }
+
+    // --- Log records: [length][crc32][type][payload] ---
+
+    private void append(byte type, Object value) {
+        if (failed || log == null) {
+            return;
+        }
+        try {
+            write(type, value);
+            commit();
+        } catch (IOException e) {
+            invalidate(e);
+        }
+    }
+
+    private void write(byte type, Object value) throws IOException {
+        byte[] payload = encode(type, value);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (record.hasRemaining()) {
+            log.write(record);
+        }
+        recordsSinceSnapshot++;
+    }
+
+    // Makes the records written so far durable, then starts a new log if one is due
+    private void commit() throws IOException {
+        log.force(false);
+        if (recordsSinceSnapshot >= snapshotInterval) {
+            Snapshot snapshot = rotate();
+            snapshotWriter.execute(() -> writeSnapshotQuietly(snapshot));
+        }
+    }
+
+    private static byte[] encode(byte type, Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        bytes.write(type);
+        if (type == ENQUEUE) {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF((String) value);
+            out.flush();
+            return bytes.toByteArray();
+        }
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Applies every intact record; a torn tail is cut off. Returns the number applied, or -1 - applied if torn.
+    private int replay(Path file) throws IOException, ClassNotFoundException {
+        int applied = 0;
+        long good = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                int length;
+                int expected;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    expected = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != expected) {
+                    break;
+                }
+                apply(payload);
+                applied++;
+                good += 8 + length;
+            }
+        }
+        if (good < Files.size(file)) {
+            System.err.println("StateJournal: Dropping torn log tail of " + (Files.size(file) - good) + " bytes.");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(good);
+            }
+            return -1 - applied;
+        }
+        return applied;
+    }
+
+    private void apply(byte[] payload) throws IOException, ClassNotFoundException {
+        byte type = payload[0];
+        ByteArrayInputStream bytes = new ByteArrayInputStream(payload, 1, payload.length - 1);
+        switch (type) {
+            case JOB:
+                try (ObjectInputStream in = new ObjectInputStream(bytes)) {
+                    applyJob((JobRow) in.readObject());
+                }
+                break;
+            case VEHICLE:
+                try (ObjectInputStream in = new ObjectInputStream(bytes)) {
+                    applyVehicle((VehicleRow) in.readObject());
+                }
+                break;
+            case ENQUEUE:
+                String enqueued = new DataInputStream(bytes).readUTF();
+                queueOrder.remove(enqueued);
+                queueOrder.add(enqueued);
+                break;
+            case CHECKPOINT:
+                try (ObjectInputStream in = new ObjectInputStream(bytes)) {
+                    applyCheckpoint((Checkpoint) in.readObject());
+                }
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    // --- Snapshots ---
+
+    // Reads snapshot.bin and the logs after it; returns the records replayed, or -1 without a snapshot
+    private int load() throws IOException, ClassNotFoundException {
+        TreeMap<Long, Path> logs = listLogs();
+        Path file = snapshotPath();
+        if (!Files.exists(file)) {
+            // Never snapshotted, or invalidated after a failed write: the logs are not a full history
+            return -1;
+        }
+        readSnapshot(file);
+        int replayed = 0;
+        for (Map.Entry<Long, Path> entry : logs.tailMap(generation).entrySet()) {
+            int applied = replay(entry.getValue());
+            if (applied < 0) {
+                // Nothing after a torn record can be trusted to follow it
+                replayed += -1 - applied;
+                break;
+            }
+            replayed += applied;
+        }
+        return replayed;
+    }
+
+    // Snapshots the current state, opens a new log and removes logs left over from before
+    private void startFresh() {
+        try {
+            Snapshot snapshot = rotate();
+            writeSnapshot(snapshot);
+            // Anything else left in the directory (e.g. logs of an invalidated journal) is stale
+            for (Path stale : listLogs().values()) {
+                if (!stale.equals(logPath(generation))) {
+                    Files.deleteIfExists(stale);
+                }
+            }
+        } catch (IOException e) {
+            invalidate(e);
+        }
+    }
+
+    // Starts the next log and captures the state it continues from. Caller holds the journal's lock.
+    private Snapshot rotate() throws IOException {
+        Snapshot snapshot = new Snapshot(generation + 1, new ArrayList<>(jobs.values()),
+                new ArrayList<>(vehicles.values()), new ArrayList<>(checkpoints.values()), new ArrayList<>(queueOrder));
+        if (log != null) {
+            log.close();
+        }
+        generation = snapshot.generation;
+        openLog();
+        recordsSinceSnapshot = 0;
+        return snapshot;
+    }
+
+    private void writeSnapshotQuietly(Snapshot snapshot) {
+        try {
+            writeSnapshot(snapshot);
+        } catch (IOException e) {
+            invalidate(e);
+        }
+    }
+
+    private void writeSnapshot(Snapshot snapshot) throws IOException {
+        if (failed) {
+            return;
+        }
+        Path temporary = directory.resolve("snapshot.tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel)));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(snapshot.generation);
+            out.writeObject(snapshot.jobs);
+            out.writeObject(snapshot.vehicles);
+            out.writeObject(snapshot.checkpoints);
+            out.writeObject(snapshot.queueOrder);
+            out.flush();
+            channel.force(true);
+        }
+        if (failed) {
+            return; // invalidated while writing
+        }
+        Files.move(temporary, snapshotPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Logs before this snapshot's generation are fully covered by it
+        Iterator<Path> older = listLogs().headMap(snapshot.generation).values().iterator();
+        while (older.hasNext()) {
+            Files.deleteIfExists(older.next());
+        }
+        System.out.println("StateJournal: Snapshot " + snapshot.generation + " written ("
+                + snapshot.jobs.size() + " live jobs, " + snapshot.vehicles.size() + " vehicles, "
+                + snapshot.checkpoints.size() + " checkpoints).");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readSnapshot(Path file) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a journal snapshot: " + file);
+            }
+            generation = in.readLong();
+            for (JobRow job : (List<JobRow>) in.readObject()) {
+                jobs.put(job.getJobID(), job);
+            }
+            for (VehicleRow vehicle : (List<VehicleRow>) in.readObject()) {
+                vehicles.put(vehicle.getVehicleID(), vehicle);
+            }
+            for (Checkpoint checkpoint : (List<Checkpoint>) in.readObject()) {
+                checkpoints.put(checkpoint.getJobID(), checkpoint);
+            }
+            queueOrder.addAll((List<String>) in.readObject());
+        }
+    }
+
+    private Path snapshotPath() {
+        return directory.resolve("snapshot.bin");
+    }
+
+    private Path logPath(long generation) {
+        return directory.resolve("wal-" + generation + ".log");
+    }
+
+    private void openLog() throws IOException {
+        log = FileChannel.open(logPath(generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // Log files by generation
+    private TreeMap<Long, Path> listLogs() throws IOException {
+        TreeMap<Long, Path> logs = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "wal-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    logs.put(Long.parseLong(name.substring(4, name.length() - 4)), file);
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return logs;
+    }
+
+    // Stops journalling and removes the snapshot, so the next start does not trust a journal that stopped short
+    private void invalidate(IOException e) {
+        failed = true;
+        System.err.println("StateJournal: Write failed, journalling disabled until restart: " + e.getMessage());
+        try {
+            Files.deleteIfExists(snapshotPath());
+        } catch (IOException io) {
+            System.err.println("StateJournal: Could not remove snapshot: " + io.getMessage());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import java.time.LocalDateTime;
+
+/**
+ * A time-based event raised by VCController when one of its timers fires:
+ * a job that can no longer start in time or has passed its deadline, a
+ * request nobody decided on, or a vehicle reaching its departure time or
+ * going silent.
+ */
+public class TimerEvent {
+
+    public enum Type {
+        /** The job is still waiting at its latest start time (deadline minus duration). */
+        DEADLINE_AT_RISK,
+        /** The job's deadline passed before it completed. */
+        DEADLINE_MISSED,
+        /** The request stayed "Pending" past the expiry window and was rejected. */
+        REQUEST_EXPIRED,
+        /** The vehicle reached its departureSchedule and was released. */
+        VEHICLE_DEPARTED,
+        /** The vehicle stopped sending heartbeats and was released. */
+        LEASE_EXPIRED
+    }
+
+    private final Type type;
+    private final String subjectID;
+    private final Object subject;
+    private final LocalDateTime dueAt;
+
+    public TimerEvent(Type type, String subjectID, Object subject, LocalDateTime dueAt) {
+        this.type = type;
+        this.subjectID = subjectID;
+        this.subject = subject;
+        this.dueAt = dueAt;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** Job ID, request ID or vehicle ID. */
+    public String getSubjectID() {
+        return subjectID;
+    }
+
+    /** The Job, Request or Vehicle the event is about. */
+    public Object getSubject() {
+        return subject;
+    }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + subjectID + " at " + dueAt;
+    }
+}
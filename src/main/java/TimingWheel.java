@@ -0,0 +1,205 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed hierarchical timing wheel. Time is cut into ticks; level 0 has one
+ * slot per tick for the next SLOTS ticks, and each higher level has slots
+ * SLOTS times as wide. A timer goes into the lowest level whose range covers
+ * it and moves down a level (cascades) when the clock reaches its slot, so
+ * scheduling and cancelling are O(1) no matter how many timers are pending.
+ *
+ * advance only visits slots that hold timers (found through a bitmap per
+ * level), so a jump of days on a virtual clock costs the same as one tick.
+ * Timers fire at most one tick late; timers past the top level's range wait
+ * in its farthest slot and are placed again when it is reached.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    /** A scheduled timer; cancel it through the wheel that returned it. */
+    public static final class Timer<T> {
+        private final T payload;
+        private final long expiry;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private int level = -1;
+        private int slot;
+
+        private Timer(T payload, long expiry) {
+            this.payload = payload;
+            this.expiry = expiry;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public boolean isPending() {
+            return level >= 0;
+        }
+    }
+
+    private final long tickSeconds;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Timer<T>[][] slots = new Timer[LEVELS][SLOTS];
+    private final long[] occupied = new long[LEVELS];
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(Duration tick, LocalDateTime start) {
+        if (tick.getSeconds() < 1) {
+            throw new IllegalArgumentException("Tick must be at least one second.");
+        }
+        this.tickSeconds = tick.getSeconds();
+        this.currentTick = tickOf(start);
+    }
+
+    /** Schedules a payload for the given time; times already passed fire on the next advance. */
+    public Timer<T> schedule(LocalDateTime at, T payload) {
+        long expiry = (at.toEpochSecond(ZoneOffset.UTC) + tickSeconds - 1) / tickSeconds;
+        Timer<T> timer = new Timer<>(payload, Math.max(expiry, currentTick));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /** Removes a timer that has not fired; returns false if it already fired or was cancelled. */
+    public boolean cancel(Timer<T> timer) {
+        if (timer == null || !timer.isPending()) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /** Moves the wheel to now and returns the payloads of every timer due by then, earliest first. */
+    public List<T> advance(LocalDateTime now) {
+        List<T> fired = new ArrayList<>();
+        long target = tickOf(now);
+        while (size > 0) {
+            long next = nextBusyTick();
+            if (next > target) {
+                break;
+            }
+            currentTick = Math.max(currentTick, next);
+            for (int level = LEVELS - 1; level > 0; level--) {
+                cascade(level, slotOf(currentTick, level));
+            }
+            int slot = slotOf(currentTick, 0);
+            Timer<T> timer = slots[0][slot];
+            while (timer != null) {
+                Timer<T> following = timer.next;
+                unlink(timer);
+                size--;
+                fired.add(timer.payload);
+                timer = following;
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+        return fired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Cancels every pending timer and returns their payloads (in no particular order). */
+    public List<T> clear() {
+        List<T> pending = new ArrayList<>(size);
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                for (Timer<T> timer = slots[level][slot]; timer != null; timer = timer.next) {
+                    timer.level = -1;
+                    pending.add(timer.payload);
+                }
+                slots[level][slot] = null;
+            }
+            occupied[level] = 0;
+        }
+        size = 0;
+        return pending;
+    }
+
+    private long tickOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), tickSeconds);
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+
+    // Lowest level whose range from the current tick covers the expiry
+    private void place(Timer<T> timer) {
+        int level = 0;
+        while (level < LEVELS - 1
+                && (timer.expiry >>> (SLOT_BITS * level)) - (currentTick >>> (SLOT_BITS * level)) >= SLOTS) {
+            level++;
+        }
+        long units = (timer.expiry >>> (SLOT_BITS * level)) - (currentTick >>> (SLOT_BITS * level));
+        long unit = units >= SLOTS
+                ? (currentTick >>> (SLOT_BITS * level)) + SLOTS - 1 // beyond the top level: farthest slot
+                : timer.expiry >>> (SLOT_BITS * level);
+        int slot = (int) (unit & (SLOTS - 1));
+
+        timer.level = level;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = slots[level][slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        slots[level][slot] = timer;
+        occupied[level] |= 1L << slot;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        if (slots[timer.level][timer.slot] == null) {
+            occupied[timer.level] &= ~(1L << timer.slot);
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.level = -1;
+    }
+
+    // Re-places every timer in a higher-level slot relative to the current tick
+    private void cascade(int level, int slot) {
+        Timer<T> timer = slots[level][slot];
+        while (timer != null) {
+            Timer<T> following = timer.next;
+            unlink(timer);
+            place(timer);
+            timer = following;
+        }
+    }
+
+    // First tick at which some slot holding timers is reached (fires or cascades)
+    private long nextBusyTick() {
+        long best = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            if (occupied[level] == 0) {
+                continue;
+            }
+            int shift = SLOT_BITS * level;
+            long base = currentTick >>> shift;
+            int ahead = Long.numberOfTrailingZeros(Long.rotateRight(occupied[level], (int) (base & (SLOTS - 1))));
+            long start = (base + ahead) << shift;
+            best = Math.min(best, Math.max(start, currentTick));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,71 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Busy vehicles ordered by departureSchedule.
+ * The migration planner asks for every car leaving before a cutoff; that is a
+ * walk over the head of the map, so each check costs O(k log n) for the k cars
+ * that are due no matter how many departures are being tracked.
+ */
+public class UpcomingDepartures {
+
+    private static final Comparator<Key> ORDER =
+            Comparator.<Key, LocalDateTime>comparing(k -> k.departure).thenComparing(k -> k.signature);
+
+    private final NavigableMap<Key, Vehicle> vehicles = new TreeMap<>(ORDER);
+
+    /** Vehicles without a departureSchedule never leave and are not tracked. */
+    public void add(Vehicle vehicle) {
+        if (vehicle.getDepartureSchedule() != null) {
+            vehicles.put(keyOf(vehicle), vehicle);
+        }
+    }
+
+    public boolean remove(Vehicle vehicle) {
+        return vehicle.getDepartureSchedule() != null && vehicles.remove(keyOf(vehicle)) != null;
+    }
+
+    /** Removes and returns every vehicle departing at or before cutoff, earliest first. */
+    public List<Vehicle> pollDepartingBy(LocalDateTime cutoff) {
+        List<Vehicle> due = new ArrayList<>();
+        Map.Entry<Key, Vehicle> first = vehicles.firstEntry();
+        while (first != null && !first.getKey().departure.isAfter(cutoff)) {
+            vehicles.pollFirstEntry();
+            due.add(first.getValue());
+            first = vehicles.firstEntry();
+        }
+        return due;
+    }
+
+    /** Earliest tracked departure, or null when nothing is tracked. */
+    public LocalDateTime nextDeparture() {
+        return vehicles.isEmpty() ? null : vehicles.firstKey().departure;
+    }
+
+    public int size() {
+        return vehicles.size();
+    }
+
+    public void clear() {
+        vehicles.clear();
+    }
+
+    private static Key keyOf(Vehicle vehicle) {
+        return new Key(vehicle.getDepartureSchedule(), vehicle.getSignature());
+    }
+
+    private static class Key {
+        final LocalDateTime departure;
+        final String signature;
+
+        Key(LocalDateTime departure, String signature) {
+            this.departure = departure;
+            this.signature = signature;
+        }
+    }
+}
@@ -1,10 +1,32 @@
 import java.util.List;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.PriorityQueue;
 import java.util.Queue;
-import java.util.LinkedList;
-import java.util.stream.Stream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Map;   
 import java.util.HashMap; 
+import java.util.HashSet;
 import java.io.*; 
 import java.util.Objects; 
 
@@ -12,26 +34,158 @@ import java.util.Objects;
 /**
  * VCController with client-server request processing.
  * Thread-safe operations for handling concurrent requests.
+ *
+ * Threading: all controller state is changed under the controller monitor,
+ * which every mutating method takes; scheduling passes check this. The *Async
+ * methods queue the same calls for the event loop's scheduler thread, which
+ * takes the monitor like any other caller, so GUI, network and planner threads
+ * may call either form. Status queries read the lock-free ControllerReadView.
+ * Side effects (DB writes, notifications, console output) only get immutable
+ * data (JobRow, VehicleRow, Checkpoint, strings), so they can run on the I/O
+ * thread while the scheduler keeps changing the live objects.
  */
-public class VCController implements Serializable {
+public class VCController implements Serializable, CloudController {
   
   private static final long serialVersionUID = 2L; 
 
-  private List<Vehicle> availableVehicles; 
-  private List<Vehicle> activeVehicles;
-  private LinkedList<Job> pendingJobs; 
-  private List<Job> inProgressJobs;
-  private List<Job> archivedJobs;
+  private AvailableVehiclePool availableVehicles; 
+  private Set<Vehicle> activeVehicles;
+  private PendingJobQueue pendingJobs; 
+  // Every known job by ID, with its lifecycle bucket (pending, in-progress, archived)
+  private JobRegistry jobRegistry;
   private transient Server systemServer; 
   
   private Map<Job, List<Vehicle>> jobVehicleMap; 
   private Map<Vehicle, Job> vehicleJobMap;
   
+  // Copy of job state for status queries; statuses, counts and the in-progress list are lock-free
+  private final transient ControllerReadView readView = new ControllerReadView(this, () -> pendingJobs);
+
+  // Per-job ETAs for the pending queue, maintained incrementally
+  private final transient CompletionTimeEstimator completionEstimator = new CompletionTimeEstimator();
+
+  // Busy vehicles by departure time, watched by the migration planner
+  private final transient UpcomingDepartures upcomingDepartures = new UpcomingDepartures();
+
+  // How long before a departure its job is checkpointed and moved; null disables migration
+  private transient Duration migrationLeadTime = Duration.ofMinutes(30);
+
+  // Next automatic checkpoint per in-progress job, and the interval policy behind it
+  private final transient CheckpointSchedule checkpointSchedule = new CheckpointSchedule();
+  private final transient CheckpointIntervalPolicy checkpointPolicy = new CheckpointIntervalPolicy(
+      Duration.ofMinutes(2), Duration.ofHours(12), Duration.ofMinutes(5));
+  private transient boolean autoCheckpointing = true;
+
+  // Last checkpoint time per in-progress job and recruit time per vehicle, for the policy and metrics
+  private final transient Map<String, LocalDateTime> lastCheckpointAt = new HashMap<>();
+  private final transient Map<String, LocalDateTime> recruitedAt = new HashMap<>();
+
+  // In-progress jobs by priority class, for finding preemption victims
+  private final transient Map<Job.Priority, Set<Job>> runningByPriority = new EnumMap<>(Job.Priority.class);
+
+  // Checkpoints that evicted jobs resume from when they are started again
+  private final transient Map<String, Checkpoint> resumeCheckpoints = new HashMap<>();
+  // Work those jobs had done by their checkpoint; they restart that far into their duration
+  private final transient Map<String, Duration> resumeProgress = new HashMap<>();
+
+  // Jobs run at least preemptionMinRun before they can be evicted, and at most
+  // maxPreemptionsPerHour evictions happen per hour; 0 turns preemption off
+  private transient Duration preemptionMinRun = Duration.ofMinutes(15);
+  private transient int maxPreemptionsPerHour = 20;
+  private final transient Deque<LocalDateTime> recentPreemptions = new ArrayDeque<>();
+
+  // Per-replica results of redundant jobs; resultQuorum matching results complete
+  // a job (0 = a majority of its redundancy level)
+  private final transient ResultAggregator resultAggregator = new ResultAggregator();
+  private transient int resultQuorum;
+
+  // Jobs waiting for their predecessors to complete; shards of a ShardedVCController share one graph
+  private final transient JobDependencyGraph dependencies;
+
+  // Rules under which requests are approved on arrival instead of waiting for RequestsFrame
+  private final transient ApprovalPolicy approvalPolicy;
+
+  // Per-assignment progress, and speculative copies of straggling replicas (copy -> original and back)
+  private final transient ProgressTracker progressTracker = new ProgressTracker();
+  private final transient Map<Vehicle, Vehicle> speculativeOriginals = new HashMap<>();
+  private final transient Map<Vehicle, Vehicle> speculativeCopies = new HashMap<>();
+
+  // Share of the idle fleet speculative copies may occupy; 0 turns speculation off
+  private transient double speculationBudget = 0.25;
+  private static final Duration STRAGGLER_MIN_RUN = Duration.ofMinutes(15);
+
+  // Background thread that periodically runs runPlanner (migrations and checkpoints)
+  private transient ScheduledExecutorService backgroundPlanner;
+  // Background thread that only expires leases; for setups without the full planner
+  private transient ScheduledExecutorService leaseMonitor;
+
+  // Counters for scheduling cost and job/vehicle lifecycle events
+  private final transient ControllerMetrics metrics = new ControllerMetrics();
+
   // GUI reference for notifications
   private transient VCControllerGUI controllerGUI;
 
+  // Time source for scheduling decisions (replaced by a virtual clock in benchmarks)
+  private transient Clock clock = Clock.systemDefaultZone();
+
+  // Deadline, request-expiry and departure timers, fired by runPlanner
+  private static final Duration TIMER_TICK = Duration.ofSeconds(1);
+  private transient TimingWheel<TimerEvent> timers = new TimingWheel<>(TIMER_TICK, LocalDateTime.now(clock));
+  private final transient Map<String, List<TimingWheel.Timer<TimerEvent>>> jobTimers = new HashMap<>();
+  private final transient List<Consumer<TimerEvent>> timerListeners = new CopyOnWriteArrayList<>();
+
+  // How long a request may wait for a manual decision; null turns expiry off
+  private transient Duration requestExpiry = Duration.ofDays(7);
+
+  // Heartbeat leases of held vehicles; renewed from network threads without the monitor
+  private final transient LeaseTable leases = new LeaseTable(Duration.ofSeconds(15));
+
+  // When false, scheduleJobs falls back to strict FIFO (head-of-queue only)
+  private boolean backfillingEnabled = true;
+
+  // Per-client weights and virtual times; used by pendingJobs while fair-share is on
+  private final transient ClientShares clientShares = new ClientShares();
+  private boolean fairShareEnabled;
+
+  // Opt-in single-writer mode; null means callers run directly under the monitor
+  private transient volatile ControllerEventLoop eventLoop;
+
+  // Job/vehicle writes collected during a scheduling pass, flushed as one batch
+  private transient Set<Job> batchedJobs;
+  private transient Set<Vehicle> batchedVehicles;
+  private transient int batchDepth;
+
+  // While above 0, scheduleJobs does nothing; bulk decisions run one pass at the end
+  private transient int schedulingDeferred;
+
+  // Which stored vehicles and jobs reloadState picks up; null means all of them
+  private transient Predicate<Vehicle> vehicleFilter;
+  private transient Predicate<String> jobFilter;
+
+  // Set on a shard: the router owning the other shards, and work they handed to this one
+  private final transient ShardedVCController router;
+  private final transient Queue<Runnable> handedOver = new ConcurrentLinkedQueue<>();
+
   public VCController(Server server){
+    this(null, server, null, null, new JobDependencyGraph());
+  }
+
+  /**
+   * Controller for one shard of a ShardedVCController, on the shard's own
+   * Server. reloadState only loads the idle vehicles accepted by
+   * vehicleFilter and the jobs whose ID is accepted by jobFilter; busy
+   * vehicles follow their job. The dependency graph is shared by all shards:
+   * dependents of this shard's jobs that belong to another shard are handed
+   * to it through the router.
+   */
+  public VCController(ShardedVCController router, Server server, Predicate<Vehicle> vehicleFilter,
+      Predicate<String> jobFilter, JobDependencyGraph dependencies){
+    this.router = router;
     this.systemServer = Objects.requireNonNull(server, "Server cannot be null.");
+    this.vehicleFilter = vehicleFilter;
+    this.jobFilter = jobFilter;
+    this.dependencies = Objects.requireNonNull(dependencies, "Dependency graph cannot be null.");
+    this.approvalPolicy = new ApprovalPolicy(server.getVehicleIndex());
     
     reloadState();
     
@@ -50,41 +204,551 @@ public class VCController implements Serializable {
   }
 
 
+  // EVENT LOOP MODE
+
+  /**
+   * Switches the controller to event-loop mode: mutations submitted through
+   * the *Async methods are queued (up to queueCapacity) and run by one scheduler
+   * thread, and DB writes, notifications, GUI updates and console output are
+   * handed off to a background I/O thread. Synchronous calls from other threads
+   * still work and are serialized with the loop by the controller monitor.
+   */
+  public synchronized void enableEventLoop(int queueCapacity) {
+    if (eventLoop == null) {
+      eventLoop = new ControllerEventLoop(queueCapacity);
+      System.out.println("VCController event loop enabled (queue capacity " + queueCapacity + ").");
+    }
+  }
+
+  /** Stops the event loop; already queued commands still run. */
+  public synchronized void disableEventLoop() {
+    if (eventLoop != null) {
+      eventLoop.shutdown();
+      eventLoop = null;
+    }
+  }
+
+  public boolean isEventLoopEnabled() {
+    return eventLoop != null;
+  }
+
+  /**
+   * Runs a command on the scheduler thread, or directly when the event loop
+   * is off. The future completes with the command's result.
+   */
+  private <T> CompletableFuture<T> submit(Callable<T> command) {
+    ControllerEventLoop loop = eventLoop;
+    if (loop != null) {
+      return loop.submit(command);
+    }
+    CompletableFuture<T> result = new CompletableFuture<>();
+    try {
+      result.complete(command.call());
+    } catch (Exception e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  private CompletableFuture<Void> submit(Runnable command) {
+    return submit(() -> {
+      command.run();
+      return null;
+    });
+  }
+
+  public CompletableFuture<Boolean> addJobAsync(Job job) {
+    return submit(() -> addJob(job));
+  }
+
+  public CompletableFuture<Void> approveJobSubmissionAsync(String requestID) {
+    return submit(() -> approveJobSubmission(requestID));
+  }
+
+  public CompletableFuture<Void> rejectJobSubmissionAsync(String requestID) {
+    return submit(() -> rejectJobSubmission(requestID));
+  }
+
+  public CompletableFuture<Void> approveVehicleRegistrationAsync(String requestID) {
+    return submit(() -> approveVehicleRegistration(requestID));
+  }
+
+  public CompletableFuture<Void> rejectVehicleRegistrationAsync(String requestID) {
+    return submit(() -> rejectVehicleRegistration(requestID));
+  }
+
+  public CompletableFuture<List<String>> approveRequestsAsync(Collection<String> requestIDs) {
+    return submit(() -> approveRequests(requestIDs));
+  }
+
+  public CompletableFuture<List<String>> rejectRequestsAsync(Collection<String> requestIDs) {
+    return submit(() -> rejectRequests(requestIDs));
+  }
+
+  public CompletableFuture<Void> recruitVehicleAsync(Vehicle vehicle) {
+    return submit(() -> recruitVehicle(vehicle));
+  }
+
+  public CompletableFuture<Void> handleCheckpointAsync(Checkpoint checkpoint) {
+    return submit(() -> handleCheckpoint(checkpoint));
+  }
+
+  public CompletableFuture<Void> handleJobCompletionAsync(Job job) {
+    return submit(() -> handleJobCompletion(job));
+  }
+
+  public CompletableFuture<List<String>> handleJobFailureAsync(Job job, String reason) {
+    return submit(() -> handleJobFailure(job, reason));
+  }
+
+  public CompletableFuture<Void> handleVehicleDepartureAsync(Vehicle vehicle) {
+    return submit(() -> handleVehicleDeparture(vehicle));
+  }
+
+  public CompletableFuture<Void> handleReplicaResultAsync(Vehicle vehicle, String result) {
+    return submit(() -> handleReplicaResult(vehicle, result));
+  }
+
+  public CompletableFuture<Void> handleReplicaResultAsync(ReplicaResult report) {
+    return submit(() -> handleReplicaResult(report));
+  }
+
+  public CompletableFuture<Void> handleProgressReportAsync(Vehicle vehicle, double fraction) {
+    return submit(() -> handleProgressReport(vehicle, fraction));
+  }
+
+  public CompletableFuture<Void> handleProgressReportAsync(ProgressReport report) {
+    return submit(() -> handleProgressReport(report));
+  }
+
+  public CompletableFuture<Void> handleCapacityReportAsync(Vehicle vehicle, Resources capacity) {
+    return submit(() -> handleCapacityReport(vehicle, capacity));
+  }
+
+  public CompletableFuture<Void> handleCapacityReportAsync(CapacityReport report) {
+    return submit(() -> handleCapacityReport(report));
+  }
+
+  public CompletableFuture<Void> triggerCheckpointAsync(Job job) {
+    return submit(() -> triggerCheckpoint(job));
+  }
+
+  public CompletableFuture<Void> runPlannerAsync() {
+    return submit((Runnable) this::runPlanner);
+  }
+
+  public CompletableFuture<Void> checkLeasesAsync() {
+    return submit((Runnable) this::checkLeases);
+  }
+
+  // Runs I/O inline, or on the I/O thread in event loop mode
+  private void sideEffect(Runnable effect) {
+    ControllerEventLoop loop = eventLoop;
+    if (loop != null) {
+      loop.sideEffect(effect);
+    } else {
+      effect.run();
+    }
+  }
+
+  private void log(String message) {
+    sideEffect(() -> System.out.println(message));
+  }
+
+  private void notifyUser(String userID, String message) {
+    sideEffect(() -> systemServer.notifyUser(userID, message));
+  }
+
+  private void guiNotification(String message) {
+    VCControllerGUI gui = controllerGUI;
+    if (gui != null) {
+      sideEffect(() -> gui.addNotification(message));
+    }
+  }
+
+  private void guiLog(String message) {
+    VCControllerGUI gui = controllerGUI;
+    if (gui != null) {
+      sideEffect(() -> gui.logToFile(message));
+    }
+  }
+
+  public ApprovalPolicy getApprovalPolicy() {
+    return approvalPolicy;
+  }
+
+  /** Sets the time source; pending timers are moved onto a wheel started at the new time. */
+  public synchronized void setClock(Clock clock) {
+    this.clock = Objects.requireNonNull(clock, "Clock cannot be null.");
+    systemServer.getAdmission().setClock(clock);
+    leases.setClock(clock);
+    List<TimerEvent> pending = timers.clear();
+    timers = new TimingWheel<>(TIMER_TICK, now());
+    jobTimers.clear();
+    for (TimerEvent event : pending) {
+      scheduleTimer(event);
+    }
+  }
+
+  /**
+   * Sets how long a request may stay "Pending" before it is rejected as
+   * expired. Null or zero turns expiry off for requests received from now on.
+   */
+  public synchronized void setRequestExpiry(Duration expiry) {
+    this.requestExpiry = (expiry == null || expiry.isZero() || expiry.isNegative()) ? null : expiry;
+  }
+
+  /**
+   * Sets how long a vehicle stays live after a heartbeat. A vehicle that has
+   * sent heartbeats and then misses them for this long is treated as departed.
+   */
+  public void setLeaseDuration(Duration duration) {
+    leases.setDuration(duration);
+  }
+
+  /**
+   * Renews a vehicle's lease; called for every heartbeat, without taking the
+   * controller's lock.
+   * @return false if the vehicle is not held by this controller
+   */
+  public boolean renewLease(String vehicleSignature) {
+    return leases.renew(vehicleSignature);
+  }
+
+  /** Whether the vehicle has sent a heartbeat within the lease duration. */
+  public boolean isVehicleLive(String vehicleSignature) {
+    return leases.isLive(vehicleSignature);
+  }
+
+  /**
+   * Receives every timer event (deadline at risk or missed, request expired, vehicle departed).
+   * Listeners run as side effects, on the I/O thread when the event loop is on,
+   * so they should only use the event's IDs and the subject's identity.
+   */
+  public void addTimerListener(Consumer<TimerEvent> listener) {
+    timerListeners.add(Objects.requireNonNull(listener, "Listener cannot be null."));
+  }
+
+  public void removeTimerListener(Consumer<TimerEvent> listener) {
+    timerListeners.remove(listener);
+  }
+
+  /**
+   * Limits on job submissions waiting to run (pending requests, queued and
+   * blocked jobs), per client and overall. Submissions over a limit are
+   * refused with a retry-after hint. The limits are shared by every
+   * controller on this Server.
+   */
+  public void setAdmissionLimits(int maxPerClient, int maxGlobal) {
+    systemServer.getAdmission().setLimits(maxPerClient, maxGlobal);
+  }
+
+  public synchronized void setBackfillingEnabled(boolean enabled) {
+    this.backfillingEnabled = enabled;
+  }
+
+  /**
+   * Changes how pending jobs are ordered (FIFO, EDF or least-slack-first).
+   * The queue is re-sorted and a scheduling pass is run, since a new head may fit.
+   */
+  public synchronized void setQueueOrdering(PendingJobQueue.Ordering ordering) {
+    pendingJobs.setOrdering(Objects.requireNonNull(ordering, "Ordering cannot be null."));
+    readView.refresh();
+    completionEstimator.invalidate();
+    log("Pending queue ordering set to " + ordering + ".");
+    scheduleJobs();
+  }
+
+  /**
+   * Sets how far ahead of a vehicle's departureSchedule its job is checkpointed
+   * and moved to another car. Null or zero turns proactive migration off.
+   */
+  public synchronized void setMigrationLeadTime(Duration leadTime) {
+    this.migrationLeadTime = (leadTime == null || leadTime.isZero() || leadTime.isNegative()) ? null : leadTime;
+  }
+
+  public synchronized Duration getMigrationLeadTime() {
+    return migrationLeadTime;
+  }
+
+  /**
+   * Sets the preemption rate limits: a job must have run for minRun before it
+   * can be evicted, and at most maxPerHour jobs are evicted per hour.
+   * maxPerHour = 0 turns preemption off.
+   */
+  public synchronized void setPreemptionLimits(Duration minRun, int maxPerHour) {
+    this.preemptionMinRun = Objects.requireNonNull(minRun, "Minimum run time cannot be null.");
+    this.maxPreemptionsPerHour = Math.max(0, maxPerHour);
+  }
+
+  /**
+   * Sets how many replicas must report the same result before a job is
+   * complete. Capped at the job's redundancy level; 0 means a majority.
+   */
+  public synchronized void setResultQuorum(int quorum) {
+    this.resultQuorum = Math.max(0, quorum);
+  }
+
+  /**
+   * Sets the share of idle vehicles that speculative copies of stragglers may
+   * occupy (0 turns speculation off). Copies only start while no job is waiting.
+   */
+  public synchronized void setSpeculationBudget(double share) {
+    this.speculationBudget = Math.max(0, Math.min(1, share));
+  }
+
+  /** Turns automatic checkpoint scheduling on or off; manual triggers still work. */
+  public synchronized void setAutoCheckpointing(boolean enabled) {
+    this.autoCheckpointing = enabled;
+    if (!enabled) {
+      checkpointSchedule.clear();
+    } else {
+      for (Job job : jobVehicleMap.keySet()) {
+        scheduleNextCheckpoint(job);
+      }
+    }
+  }
+
+  /** Sets the time one checkpoint takes away from a job (C in the interval formula). */
+  public synchronized void setCheckpointCost(Duration cost) {
+    checkpointPolicy.setCheckpointCost(Objects.requireNonNull(cost, "Cost cannot be null."));
+  }
+
+  public synchronized CheckpointIntervalPolicy getCheckpointPolicy() {
+    return checkpointPolicy;
+  }
+
+  /** Runs runPlanner every period on a background thread. */
+  public synchronized void startBackgroundPlanner(Duration period) {
+    if (backgroundPlanner != null) {
+      return;
+    }
+    backgroundPlanner = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "vc-background-planner");
+      t.setDaemon(true);
+      return t;
+    });
+    long millis = period.toMillis();
+    backgroundPlanner.scheduleAtFixedRate(this::runPlannerAsync, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  public synchronized void stopBackgroundPlanner() {
+    if (backgroundPlanner != null) {
+      backgroundPlanner.shutdown();
+      backgroundPlanner = null;
+    }
+  }
+
+  /**
+   * Runs checkLeases every period on a background thread. Unlike the planner
+   * it does nothing else: no timers, migrations, checkpoints or speculation.
+   */
+  public synchronized void startLeaseMonitor(Duration period) {
+    if (leaseMonitor != null) {
+      return;
+    }
+    leaseMonitor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "vc-lease-monitor");
+      t.setDaemon(true);
+      return t;
+    });
+    long millis = period.toMillis();
+    leaseMonitor.scheduleAtFixedRate(this::checkLeasesAsync, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  public synchronized void stopLeaseMonitor() {
+    if (leaseMonitor != null) {
+      leaseMonitor.shutdown();
+      leaseMonitor = null;
+    }
+  }
+
+  /** Releases the vehicles whose heartbeat lease ran out, as if they had departed. */
+  public synchronized void checkLeases() {
+    expireLeases();
+  }
+
+  /** Time-driven work: due timers, expired leases, migrations ahead of departures, due checkpoints, then speculation. */
+  public synchronized void runPlanner() {
+    fireDueTimers();
+    expireLeases();
+    migrateDepartingVehicles();
+    runDueCheckpoints();
+    speculateStragglers();
+  }
+
+  public synchronized PendingJobQueue.Ordering getQueueOrdering() {
+    return pendingJobs.getOrdering();
+  }
+
+  /**
+   * Turns weighted fair-share queueing across clients on or off. Within each
+   * client's jobs the queue ordering still applies; status queries list pending
+   * jobs in the resulting pick order.
+   */
+  public synchronized void setFairShareEnabled(boolean enabled) {
+    this.fairShareEnabled = enabled;
+    pendingJobs.setFairShare(enabled ? clientShares : null);
+    readView.refresh();
+    completionEstimator.invalidate();
+    log("Fair-share queueing " + (enabled ? "enabled." : "disabled."));
+    scheduleJobs();
+  }
+
+  public synchronized boolean isFairShareEnabled() {
+    return fairShareEnabled;
+  }
+
+  /** Sets a client's share of the fleet relative to other clients (default 1). */
+  public synchronized void setClientWeight(String clientID, double weight) {
+    clientShares.setWeight(Objects.requireNonNull(clientID, "Client ID cannot be null."), weight);
+    readView.refresh();
+    completionEstimator.invalidate();
+  }
+
+  /** Vehicle-hours started per client while fair-share was on. */
+  public synchronized Map<String, Double> getClientUsage() {
+    return clientShares.getUsage();
+  }
+
+  private LocalDateTime now() {
+    return LocalDateTime.now(clock);
+  }
+
   /** Reloads state from Server (DB) */
   public synchronized void reloadState() {
-      this.availableVehicles = new ArrayList<>();
-      this.activeVehicles = new ArrayList<>();
-      this.pendingJobs = new LinkedList<>();
-      this.inProgressJobs = new ArrayList<>();
-      this.archivedJobs = new ArrayList<>();
+      // The read view publishes once, after the whole state is back
+      readView.hold();
+      try {
+          loadStoredState();
+      } finally {
+          readView.release();
+      }
+  }
+
+  private void loadStoredState() {
+      this.availableVehicles = new AvailableVehiclePool();
+      this.activeVehicles = new LinkedHashSet<>();
+      this.pendingJobs = new PendingJobQueue(pendingJobs != null ? pendingJobs.getOrdering() : PendingJobQueue.Ordering.FIFO);
+      if (fairShareEnabled) {
+          pendingJobs.setFairShare(clientShares);
+      }
+      this.jobRegistry = new JobRegistry();
       this.jobVehicleMap = new HashMap<>();
       this.vehicleJobMap = new HashMap<>();
+      readView.clear();
+      upcomingDepartures.clear();
+      checkpointSchedule.clear();
+      lastCheckpointAt.clear();
+      recruitedAt.clear();
+      runningByPriority.clear();
+      resumeCheckpoints.clear();
+      resumeProgress.clear();
+      recentPreemptions.clear();
+      resultAggregator.clear();
+      progressTracker.clear();
+      speculativeOriginals.clear();
+      speculativeCopies.clear();
+      if (router == null) {
+          dependencies.clear(); // shards share the graph
+      }
+      timers.clear();
+      jobTimers.clear();
+      leases.clear();
+      completionEstimator.invalidate();
+      VehicleSignatureIndex vehicleIndex = systemServer.getVehicleIndex();
+      if (jobFilter == null) {
+          vehicleIndex.clearRegistered(); // shards share the index; their router clears it
+      }
 
       // Load Jobs
       List<Job> allJobs = systemServer.getAllApprovedJobs(); // This loads from DB
+      List<Job> blockedJobs = new ArrayList<>();
+      Map<String, Job> waitingJobs = new LinkedHashMap<>();
       for (Job job : allJobs) {
-          switch (job.getStatus()) {
+          if (jobFilter != null && !jobFilter.test(job.getJobID())) {
+              continue;
+          }
+          // Interrupted, preempted and no-quorum jobs wait in the queue like new ones
+          String status = job.getStatus().startsWith("Pending") ? "Pending" : job.getStatus();
+          switch (status) {
               case "Pending":
-                  pendingJobs.add(job);
+                  waitingJobs.put(job.getJobID(), job);
+                  jobRegistry.track(job, JobRegistry.Bucket.PENDING);
+                  if ("Pending(Preempted)".equals(job.getStatus())) {
+                      // Evicted before the restart; continue from the checkpoint taken then
+                      Checkpoint resumeFrom = systemServer.getLatestCheckpoint(job.getJobID());
+                      if (resumeFrom != null) {
+                          resumeCheckpoints.put(job.getJobID(), resumeFrom);
+                          if (job.getStartTime() != null && resumeFrom.getTimestamp().isAfter(job.getStartTime())) {
+                              resumeProgress.put(job.getJobID(), Duration.between(job.getStartTime(), resumeFrom.getTimestamp()));
+                          }
+                      }
+                  }
+                  systemServer.getAdmission().hold(job.getJobID(), job.getSenderID());
+                  watchDeadline(job);
                   break;
               case "In-Progress":
-                  inProgressJobs.add(job);
+                  jobRegistry.track(job, JobRegistry.Bucket.IN_PROGRESS);
+                  readView.jobStarted(job);
+                  watchDeadline(job);
                   break;
               case "Completed":
-                  archivedJobs.add(job);
+              case "Failed":
+              case "Cancelled":
+                  jobRegistry.track(job, JobRegistry.Bucket.ARCHIVED);
+                  readView.jobFinished(job);
+                  break;
+              case "Blocked":
+                  blockedJobs.add(job);
+                  systemServer.getAdmission().hold(job.getJobID(), job.getSenderID());
+                  watchDeadline(job);
                   break;
               default:
                   break;
           }
       }
+      // Re-enter in the recorded queue order so ties break exactly as before the restart
+      for (String jobID : systemServer.getQueueOrder()) {
+          Job job = waitingJobs.remove(jobID);
+          if (job != null) {
+              pendingJobs.add(job);
+              readView.jobPending(job);
+          }
+      }
+      for (Job job : waitingJobs.values()) {
+          pendingJobs.add(job);
+          readView.jobPending(job);
+      }
+      // After the loop, so predecessors stored later in the list are known
+      for (Job job : blockedJobs) {
+          if (admitDependent(job)) {
+              job.updateStatus("Pending");
+              enqueue(job);
+              jobRegistry.track(job, JobRegistry.Bucket.PENDING);
+              readView.jobPending(job);
+          }
+      }
 
       // Load Vehicles
       List<Vehicle> allVehicles = systemServer.getAllRegisteredVehicles(); // This loads from DB
       for (Vehicle v : allVehicles) {
+          if (!ownsStoredVehicle(v)) {
+              continue;
+          }
           if ("Available".equalsIgnoreCase(v.getStatus())) {
               availableVehicles.add(v);
+              vehicleIndex.available(v);
+              recruitedAt.put(v.getSignature(), now());
+              watchDeparture(v);
+              leases.track(v);
           } else if ("Active".equalsIgnoreCase(v.getStatus()) || "Busy".equalsIgnoreCase(v.getCpuStatus())) {
               activeVehicles.add(v);
+              vehicleIndex.active(v);
+              upcomingDepartures.add(v);
+              recruitedAt.put(v.getSignature(), now()); // arrival times are not stored; stays count from the reload
+              watchDeparture(v);
+              leases.track(v);
               
               // Re-link with Job
               String jobId = v.getCurrentJobID();
@@ -98,22 +762,44 @@ public class VCController implements Serializable {
           }
       }
       
-      System.out.println("VCController state reloaded from DB.");
+      for (Job job : jobVehicleMap.keySet()) {
+          runningStarted(job);
+          scheduleNextCheckpoint(job);
+      }
+
+      log("VCController state reloaded from DB.");
   }
   
+  // Busy vehicles belong to the shard of their job, idle ones to vehicleFilter's
+  private boolean ownsStoredVehicle(Vehicle v) {
+      if (vehicleFilter == null) {
+          return true;
+      }
+      String jobId = v.getCurrentJobID();
+      boolean busy = "Active".equalsIgnoreCase(v.getStatus()) || "Busy".equalsIgnoreCase(v.getCpuStatus());
+      if (busy && jobId != null) {
+          return jobFilter.test(jobId);
+      }
+      return vehicleFilter.test(v);
+  }
+
+  // Pending or in-progress job by ID, O(1)
   private Job findJob(String jobId) {
-      for (Job j : inProgressJobs) if (j.getJobID().equals(jobId)) return j;
-      for (Job j : pendingJobs) if (j.getJobID().equals(jobId)) return j;
-      return null;
+      JobRegistry.Bucket bucket = jobRegistry.bucketOf(jobId);
+      if (bucket == null || bucket == JobRegistry.Bucket.ARCHIVED) {
+          return null;
+      }
+      return jobRegistry.find(jobId);
   }
   
   // REQUEST PROCESSING METHODS 
   
   /**
-   * Processes a job submission request from a client.
+   * Processes a job submission request from a client. Requests that pass the
+   * approval policy are approved right away; the rest wait for manual review.
    */
   public synchronized boolean processJobRequest(Request request) {
-      if (request == null || !request.getRequestType().equals("JOB_SUBMISSION")) {
+      if (request == null || !request.getRequestType().equals("JOB_SUBMISSION") || request.isRefused()) {
           return false;
       }
       
@@ -126,10 +812,21 @@ public class VCController implements Serializable {
           Job j = (Job) request.getData();
           msg = "Job request " + j.getJobID() + " received and acknowledged by server";
       }
-      systemServer.notifyUser(request.getSenderID(), msg);
+      notifyUser(request.getSenderID(), msg);
       
-      if (controllerGUI != null) {
-          controllerGUI.addNotification(msg);
+      guiNotification(msg);
+
+      long started = System.nanoTime();
+      String violation = approvalPolicy.checkJob(request, now());
+      metrics.add(ControllerMetrics.APPROVAL_RULE_NANOS, System.nanoTime() - started);
+      if (violation == null) {
+          metrics.increment(ControllerMetrics.REQUESTS_AUTO_APPROVED);
+          log("Job request " + request.getRequestID() + " meets the approval policy.");
+          approveJobSubmission(request.getRequestID());
+      } else {
+          metrics.increment(ControllerMetrics.REQUESTS_MANUAL);
+          log("Job request " + request.getRequestID() + " needs manual review: " + violation + ".");
+          watchExpiry(request);
       }
       return true;
   }
@@ -146,24 +843,23 @@ public class VCController implements Serializable {
       
       // Approve 
       systemServer.approveRequest(requestID);
+      approvalPolicy.recordApproval(request);
       
       // Add job to controller
       Job job = (Job) request.getData();
       addJob(job);
 
       // Store the approved job in the server's persistent storage
-      systemServer.storeApprovedJob(job);
+      persistJob(job);
       
-      if (controllerGUI != null) {
-          controllerGUI.addNotification("Job " + job.getJobID() + " approved and added to queue");
-          controllerGUI.logToFile("Job " + job.getJobID() + " approved by VC Controller");
-      }
+      guiNotification("Job " + job.getJobID() + " approved and added to queue");
+      guiLog("Job " + job.getJobID() + " approved by VC Controller");
             // Notify user
         String senderID = request.getSenderID();
         String notificationMsg = "Your job " + job.getJobID() + " has been APPROVED and added to the queue.";
-        systemServer.notifyUser(senderID, notificationMsg);
+        notifyUser(senderID, notificationMsg);
       
-      System.out.println("VC Controller: Approved job " + job.getJobID());
+      log("VC Controller: Approved job " + job.getJobID());
   }
   
   /**
@@ -183,20 +879,20 @@ public class VCController implements Serializable {
           msg = "Your job " + j.getJobID() + " has been REJECTED.";
       }
       
-      if (controllerGUI != null) {
-          controllerGUI.addNotification(msg);
-          controllerGUI.logToFile(msg + " by VC Controller");
-      }
+      guiNotification(msg);
+      guiLog(msg + " by VC Controller");
       
       // Notify User
       String senderID = request.getSenderID();
-      systemServer.notifyUser(senderID, msg);
+      notifyUser(senderID, msg);
       
-      System.out.println("VC Controller: Rejected job request " + requestID);
+      log("VC Controller: Rejected job request " + requestID);
   }
   
   /**
-   * Processes a vehicle registration request from an owner.
+   * Processes a vehicle registration request from an owner. Requests that
+   * pass the approval policy are approved right away; the rest wait for
+   * manual review.
    */
   public synchronized boolean processVehicleRequest(Request request) {
       if (request == null || !request.getRequestType().equals("VEHICLE_REGISTRATION")) {
@@ -211,10 +907,21 @@ public class VCController implements Serializable {
           Vehicle v = (Vehicle) request.getData();
           msg = "Vehicle registration " + v.getVehicleID() + " received and acknowledged by server";
       }
-      systemServer.notifyUser(request.getSenderID(), msg);
+      notifyUser(request.getSenderID(), msg);
       
-      if (controllerGUI != null) {
-          controllerGUI.addNotification(msg);
+      guiNotification(msg);
+
+      long started = System.nanoTime();
+      String violation = approvalPolicy.checkVehicle(request, now());
+      metrics.add(ControllerMetrics.APPROVAL_RULE_NANOS, System.nanoTime() - started);
+      if (violation == null) {
+          metrics.increment(ControllerMetrics.REQUESTS_AUTO_APPROVED);
+          log("Vehicle request " + request.getRequestID() + " meets the approval policy.");
+          approveVehicleRegistration(request.getRequestID());
+      } else {
+          metrics.increment(ControllerMetrics.REQUESTS_MANUAL);
+          log("Vehicle request " + request.getRequestID() + " needs manual review: " + violation + ".");
+          watchExpiry(request);
       }
       
       return true;
@@ -231,23 +938,22 @@ public class VCController implements Serializable {
       }
       
       systemServer.approveRequest(requestID);
+      approvalPolicy.recordApproval(request);
       
       Vehicle vehicle = (Vehicle) request.getData();
       recruitVehicle(vehicle);
 
       // Store the vehicle in the server's persistent storage
-      systemServer.storeRegisteredVehicle(vehicle);
+      persistVehicle(vehicle);
       
-      if (controllerGUI != null) {
-          controllerGUI.addNotification("Vehicle " + vehicle.getVehicleID() + " approved and recruited");
-          controllerGUI.logToFile("Vehicle " + vehicle.getVehicleID() + " registered successfully");
-      }
+      guiNotification("Vehicle " + vehicle.getVehicleID() + " approved and recruited");
+      guiLog("Vehicle " + vehicle.getVehicleID() + " registered successfully");
         // Notify user
         String senderID = request.getSenderID();
         String notificationMsg = "Your vehicle " + vehicle.getVehicleID() + " has been APPROVED and registered.";
-        systemServer.notifyUser(senderID, notificationMsg);
+        notifyUser(senderID, notificationMsg);
       
-      System.out.println("VC Controller: Approved vehicle " + vehicle.getVehicleID());
+      log("VC Controller: Approved vehicle " + vehicle.getVehicleID());
   }
   
   /**
@@ -267,137 +973,797 @@ public class VCController implements Serializable {
           msg = "Vehicle " + v.getVehicleID() + " rejected";
       }
 
-      if (controllerGUI != null) {
-          controllerGUI.addNotification(msg);
-          controllerGUI.logToFile(msg + " by VC Controller");
-      }
+      guiNotification(msg);
+      guiLog(msg + " by VC Controller");
       
       // Notify User
-      systemServer.notifyUser(request.getSenderID(), msg);
+      notifyUser(request.getSenderID(), msg);
       
-      System.out.println("VC Controller: Rejected vehicle request " + requestID);
-  }
-  
-  //
-  public synchronized void addJob(Job job){ 
-    pendingJobs.add(job);
-    System.out.println("Job " + job.getJobID() + " added to pending queue.");
-    scheduleJobs();
+      log("VC Controller: Rejected vehicle request " + requestID);
   }
 
-  //schedule job
-  private synchronized void scheduleJobs(){
-    if(pendingJobs.isEmpty()){
-      return;
+  /**
+   * Approves many job and vehicle requests at once (e.g. a fleet registering
+   * all its cars). The requests are approved in one Server call, the jobs and
+   * vehicles are written in one batch, each sender gets one notification and
+   * a single scheduling pass runs at the end.
+   * @return IDs of the requests approved; unknown or already decided requests are skipped
+   */
+  public synchronized List<String> approveRequests(Collection<String> requestIDs){
+    List<String> approved = new ArrayList<>();
+    Map<String, List<String>> jobsBySender = new LinkedHashMap<>();
+    Map<String, List<String>> vehiclesBySender = new LinkedHashMap<>();
+    beginBatch();
+    try{
+      schedulingDeferred++;
+      try{
+        for(Request request : systemServer.approveRequests(requestIDs)){
+          approvalPolicy.recordApproval(request);
+          approved.add(request.getRequestID());
+          if(request.getData() instanceof Job){
+            Job job = (Job) request.getData();
+            addJob(job);
+            persistJob(job);
+            jobsBySender.computeIfAbsent(request.getSenderID(), id -> new ArrayList<>()).add(job.getJobID());
+          }else if(request.getData() instanceof Vehicle){
+            Vehicle vehicle = (Vehicle) request.getData();
+            recruitVehicle(vehicle);
+            persistVehicle(vehicle);
+            vehiclesBySender.computeIfAbsent(request.getSenderID(), id -> new ArrayList<>()).add(vehicle.getVehicleID());
+          }
+        }
+      }finally{
+        schedulingDeferred--;
+      }
+      scheduleJobs();
+    }finally{
+      commitBatch();
     }
-    Job nextJob = pendingJobs.peek();
-    int requiredVehicles = nextJob.getRedundancyLevel();
 
-    if(availableVehicles.size() >= requiredVehicles){
-      Job jobToAssign = pendingJobs.remove();
-      assignJob(jobToAssign); 
-      inProgressJobs.add(jobToAssign);
-      jobToAssign.updateStatus("In-Progress");
-      
-      // Update status in DB
-      systemServer.storeApprovedJob(jobToAssign);
-      
-      System.out.println("Job " + jobToAssign.getJobID() + " started.");
+    jobsBySender.forEach((senderID, jobIDs) -> notifyUser(senderID,
+        describe("job", jobIDs) + " APPROVED and added to the queue."));
+    vehiclesBySender.forEach((senderID, vehicleIDs) -> notifyUser(senderID,
+        describe("vehicle", vehicleIDs) + " APPROVED and registered."));
+    if(!approved.isEmpty()){
+      guiNotification(approved.size() + " request(s) approved");
+    }
+    log("VC Controller: Approved " + approved.size() + " of " + requestIDs.size() + " request(s)");
+    return approved;
+  }
 
-    }else{
-      System.out.println("Job " + nextJob.getJobID() + " postponed. Waiting for " 
-      + requiredVehicles + " vehicle(s).");
+  /**
+   * Rejects many job and vehicle requests at once, in one Server call and
+   * with one notification per sender.
+   * @return IDs of the requests rejected; unknown or already decided requests are skipped
+   */
+  public synchronized List<String> rejectRequests(Collection<String> requestIDs){
+    List<String> rejected = new ArrayList<>();
+    Map<String, List<String>> jobsBySender = new LinkedHashMap<>();
+    Map<String, List<String>> vehiclesBySender = new LinkedHashMap<>();
+    for(Request request : systemServer.rejectRequests(requestIDs)){
+      rejected.add(request.getRequestID());
+      if(request.getData() instanceof Job){
+        jobsBySender.computeIfAbsent(request.getSenderID(), id -> new ArrayList<>())
+            .add(((Job) request.getData()).getJobID());
+      }else if(request.getData() instanceof Vehicle){
+        vehiclesBySender.computeIfAbsent(request.getSenderID(), id -> new ArrayList<>())
+            .add(((Vehicle) request.getData()).getVehicleID());
+      }
+    }
+
+    jobsBySender.forEach((senderID, jobIDs) -> notifyUser(senderID, describe("job", jobIDs) + " REJECTED."));
+    vehiclesBySender.forEach((senderID, vehicleIDs) -> notifyUser(senderID, describe("vehicle", vehicleIDs) + " REJECTED."));
+    if(!rejected.isEmpty()){
+      guiNotification(rejected.size() + " request(s) rejected");
     }
+    log("VC Controller: Rejected " + rejected.size() + " of " + requestIDs.size() + " request(s)");
+    return rejected;
   }
 
-  //assign job
+  // "Your job J1 has been" / "Your 3 jobs (J1, J2, J3) have been"
+  private static String describe(String noun, List<String> ids){
+    if(ids.size() == 1){
+      return "Your " + noun + " " + ids.get(0) + " has been";
+    }
+    return "Your " + ids.size() + " " + noun + "s (" + String.join(", ", ids) + ") have been";
+  }
+  
+  //
+  /**
+   * Queues a job, or parks it until its predecessors complete.
+   * @return false if admission control refused the job
+   */
+  public synchronized boolean addJob(Job job){ 
+    AdmissionControl.Decision decision = systemServer.getAdmission().admit(job.getJobID(), job.getSenderID());
+    if(!decision.isAdmitted()){
+      metrics.increment(ControllerMetrics.JOBS_REFUSED);
+      log("Job " + job.getJobID() + " refused: " + decision.getReason() 
+          + ". Retry after " + decision.getRetryAfter().getSeconds() + "s.");
+      return false;
+    }
+    watchDeadline(job);
+    if(!job.getPredecessors().isEmpty() && !admitDependent(job)){
+      return true;
+    }
+    enqueue(job);
+    jobRegistry.track(job, JobRegistry.Bucket.PENDING);
+    readView.jobPending(job);
+    if(pendingJobs.isFairShare()){
+      completionEstimator.invalidate(); // the fair-share tail is O(n) to find
+    }else{
+      completionEstimator.jobEnqueued(job, pendingJobs.peekLast() == job, now());
+    }
+    metrics.increment(ControllerMetrics.JOBS_SUBMITTED);
+    log("Job " + job.getJobID() + " added to pending queue.");
+    scheduleJobs();
+    return true;
+  }
+
+  /**
+   * Checks a job's predecessors. Returns true if all have completed and the
+   * job can be queued; otherwise the job is parked in the dependency graph
+   * (status "Blocked") or, if a predecessor failed or the dependencies form a
+   * cycle, cancelled.
+   */
+  private boolean admitDependent(Job job){
+    JobDependencyGraph.Admission admission = dependencies.add(job,
+        id -> "Completed".equals(statusOf(id)), id -> isFailedStatus(statusOf(id)));
+    switch(admission){
+      case WAITING:
+        job.updateStatus("Blocked");
+        jobRegistry.track(job, JobRegistry.Bucket.PENDING);
+        readView.jobBlocked(job);
+        metrics.increment(ControllerMetrics.JOBS_BLOCKED);
+        log("Job " + job.getJobID() + " waits for " + dependencies.unfinishedPredecessors(job.getJobID()) + ".");
+        return false;
+      case UPSTREAM_FAILED:
+        cancelJob(job, "a predecessor failed");
+        cancelDependents(job.getJobID());
+        return false;
+      case CYCLE:
+        cancelJob(job, "its predecessors depend on it");
+        cancelDependents(job.getJobID());
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  private static boolean isFailedStatus(String status){
+    return "Failed".equals(status) || "Cancelled".equals(status);
+  }
+
+  // Status of any job, whichever shard runs it
+  private String statusOf(String jobID){
+    return router != null ? router.getJobStatus(jobID) : getJobStatus(jobID);
+  }
+
+  // Whether this controller runs the job (always, unless it is a shard)
+  private boolean owns(Job job){
+    return jobFilter == null || jobFilter.test(job.getJobID());
+  }
+
+  // Queues the jobs whose last predecessor just completed; other shards' jobs go to their shard
+  private void releaseDependents(String jobID){
+    for(Job dependent : dependencies.completed(jobID)){
+      if(owns(dependent)){
+        unblock(dependent, jobID);
+      }else{
+        VCController owner = router.shardFor(dependent);
+        owner.handOver(() -> owner.unblock(dependent, jobID));
+      }
+    }
+  }
+
+  private void unblock(Job dependent, String predecessorID){
+    if(!"Blocked".equals(dependent.getStatus())){
+      return; // cancelled while the hand-over was queued
+    }
+    dependent.updateStatus("Pending");
+    enqueue(dependent);
+    readView.jobPending(dependent);
+    completionEstimator.invalidate();
+    metrics.increment(ControllerMetrics.JOBS_UNBLOCKED);
+    persistJob(dependent);
+    log("Job " + dependent.getJobID() + " unblocked by completion of " + predecessorID + ".");
+  }
+
+  // Cancels everything downstream of a failed job, in any shard; returns the cancelled job IDs
+  private List<String> cancelDependents(String jobID){
+    List<String> cancelled = new ArrayList<>();
+    String reason = "upstream job " + jobID + " did not complete";
+    for(Job dependent : dependencies.failed(jobID)){
+      if(owns(dependent)){
+        cancelJob(dependent, reason);
+      }else{
+        VCController owner = router.shardFor(dependent);
+        owner.handOver(() -> {
+          if(!owner.jobRegistry.isIn(dependent, JobRegistry.Bucket.ARCHIVED)){
+            owner.cancelJob(dependent, reason);
+          }
+        });
+      }
+      cancelled.add(dependent.getJobID());
+    }
+    return cancelled;
+  }
+
+  /**
+   * Queues work another shard handed to this one (a dependent released or
+   * cancelled by the shared graph). It runs under this monitor: on the
+   * scheduler thread in event loop mode, otherwise at this shard's next
+   * scheduling pass or when the router calls admitHandedOver().
+   */
+  void handOver(Runnable work){
+    handedOver.add(work);
+    if(eventLoop != null){
+      submit((Runnable) this::admitHandedOver);
+    }
+  }
+
+  boolean hasHandedOver(){
+    return !handedOver.isEmpty();
+  }
+
+  /** Runs the work other shards handed over, then schedules. */
+  public synchronized void admitHandedOver(){
+    if(!handedOver.isEmpty()){
+      scheduleJobs();
+    }
+  }
+
+  private void runHandedOver(){
+    for(Runnable work = handedOver.poll(); work != null; work = handedOver.poll()){
+      work.run();
+    }
+  }
+
+  // Archives a job that never ran (it was waiting or queued)
+  private void cancelJob(Job job, String reason){
+    pendingJobs.remove(job);
+    systemServer.getAdmission().release(job.getJobID());
+    unwatchDeadline(job);
+    jobRegistry.track(job, JobRegistry.Bucket.ARCHIVED);
+    job.updateStatus("Cancelled");
+    readView.jobFinished(job);
+    metrics.increment(ControllerMetrics.JOBS_CANCELLED);
+    persistJob(job);
+    log("Job " + job.getJobID() + " cancelled: " + reason + ".");
+    guiNotification("Job " + job.getJobID() + " cancelled: " + reason + ".");
+  }
+
+  /**
+   * Schedules pending jobs using EASY backfilling.
+   * Jobs are started from the head of the queue while they fit. When the head
+   * does not fit, it gets a reservation (the earliest time enough vehicles will
+   * be free and still parked) and later jobs are started only if they cannot
+   * delay that reservation.
+   * Every job that fits is placed in one pass, and all resulting job and
+   * vehicle updates are written to the Server as a single batch.
+   */
+  private synchronized void scheduleJobs(){
+    if(schedulingDeferred > 0){
+      return;
+    }
+    long started = System.nanoTime();
+    beginBatch();
+    try{
+      runHandedOver();
+      drainPendingJobs();
+    }finally{
+      commitBatch();
+      metrics.increment(ControllerMetrics.SCHEDULING_PASSES);
+      metrics.add(ControllerMetrics.SCHEDULING_NANOS, System.nanoTime() - started);
+      updateQueueGauges();
+    }
+  }
+
+  private void updateQueueGauges(){
+    metrics.set(ControllerMetrics.QUEUE_PENDING_JOBS, pendingJobs.size());
+    metrics.set(ControllerMetrics.QUEUE_BLOCKED_JOBS, dependencies.waitingCount());
+    metrics.set(ControllerMetrics.QUEUE_PENDING_REQUESTS, systemServer.getPendingRequestCount());
+    metrics.set(ControllerMetrics.QUEUE_ADMITTED, systemServer.getAdmission().getOutstanding());
+  }
+
+  private void drainPendingJobs(){
+    while(!pendingJobs.isEmpty() 
+        && (fitsNow(pendingJobs.peek())
+            || reclaimSpeculativeFor(pendingJobs.peek())
+            || preemptFor(pendingJobs.peek()))){
+      startJob(pendingJobs.remove());
+    }
+    if(pendingJobs.isEmpty()){
+      return;
+    }
+
+    Job headJob = pendingJobs.peek();
+    log("Job " + headJob.getJobID() + " postponed. Waiting for " 
+    + headJob.getRedundancyLevel() + " vehicle(s) with " + headJob.getRequirements() + ".");
+
+    if(!backfillingEnabled || availableVehicles.isEmpty()){
+      return;
+    }
+
+    Reservation reservation = reserveFor(headJob);
+    LocalDateTime now = now();
+
+    Iterator<Job> candidates = pendingJobs.iterator();
+    candidates.next(); // head keeps its reservation
+    while(candidates.hasNext() && !availableVehicles.isEmpty()){
+      Job candidate = candidates.next();
+      int requiredVehicles = candidate.getRedundancyLevel();
+      LocalDateTime end = now.plus(remainingWork(candidate));
+      boolean endsBeforeShadow = reservation.shadowTime == null || !end.isAfter(reservation.shadowTime);
+
+      // Cars that fit and stay until the candidate ends; past the shadow time the head's cars are off limits
+      Set<Vehicle> offLimits = endsBeforeShadow ? Collections.emptySet() : reservation.reserved;
+      if(availableVehicles.countFitting(candidate.getRequirements(), end, offLimits, requiredVehicles) < requiredVehicles){
+        continue;
+      }
+      candidates.remove();
+      List<Vehicle> setAside = new ArrayList<>();
+      for(Vehicle vehicle : offLimits){
+        if(availableVehicles.remove(vehicle)){
+          setAside.add(vehicle);
+        }
+      }
+      startJob(candidate);
+      availableVehicles.addAll(setAside);
+      metrics.increment(ControllerMetrics.JOBS_BACKFILLED);
+      log("Job " + candidate.getJobID() + " backfilled ahead of " 
+      + headJob.getJobID() + ".");
+    }
+  }
+
+  // Enough idle vehicles with the capacity the job needs
+  private boolean fitsNow(Job job){
+    return availableVehicles.countFitting(job.getRequirements()) >= job.getRedundancyLevel();
+  }
+
+  private void startJob(Job job){
+    systemServer.getAdmission().release(job.getJobID());
+    assignJob(job);
+    jobRegistry.track(job, JobRegistry.Bucket.IN_PROGRESS);
+    job.updateStatus("In-Progress");
+    // A job resuming from a checkpoint keeps the progress it made before
+    Duration done = resumeProgress.remove(job.getJobID());
+    job.markStarted(done == null ? now() : now().minus(done));
+    job.markRunning(now());
+    readView.jobStarted(job);
+    completionEstimator.jobStarted(job, now());
+    metrics.increment(ControllerMetrics.JOBS_STARTED);
+    runningStarted(job);
+    scheduleNextCheckpoint(job);
+
+    // Update status in DB
+    persistJob(job);
+
+    log("Job " + job.getJobID() + " started.");
+  }
+
+  /**
+   * Computes the reservation for a job that does not fit right now.
+   * Only vehicles with the capacity the job needs count.
+   * Each available vehicle is free immediately, each active vehicle becomes free
+   * when its job is expected to end; a vehicle only counts while it is still
+   * parked (before its departureSchedule). The shadow time is the first moment
+   * at which enough vehicles are free. The idle vehicles the job will take
+   * then are reserved: cars that are busy now are counted first, then the idle
+   * cars that leave soonest, so the longest-staying idle cars stay open to
+   * backfilling. A null shadow time means the job cannot be reserved with the
+   * current fleet.
+   */
+  private Reservation reserveFor(Job job){
+    int requiredVehicles = job.getRedundancyLevel();
+
+    List<Release> releases = releasesOf(job.getRequirements());
+    releases.sort(Comparator.comparing(release -> release.freeAt));
+
+    // Vehicles released so far by departure; those gone by time t no longer count
+    PriorityQueue<Release> parked = new PriorityQueue<>(Comparator.comparing(release -> release.departure));
+    Reservation reservation = new Reservation();
+    for(int i = 0; i < releases.size(); i++){
+      LocalDateTime t = releases.get(i).freeAt;
+      parked.add(releases.get(i));
+      if(i + 1 < releases.size() && releases.get(i + 1).freeAt.equals(t)){
+        continue;
+      }
+      while(!parked.isEmpty() && !parked.peek().departure.isAfter(t)){
+        parked.poll();
+      }
+      if(parked.size() >= requiredVehicles){
+        reservation.shadowTime = t;
+        int busy = 0;
+        for(Release release : parked){
+          if(release.idle == null){
+            busy++;
+          }
+        }
+        int fromIdle = requiredVehicles - Math.min(busy, requiredVehicles);
+        while(fromIdle > 0){
+          Release release = parked.poll();
+          if(release.idle != null){
+            reservation.reserved.add(release.idle);
+            fromIdle--;
+          }
+        }
+        return reservation;
+      }
+    }
+    return reservation;
+  }
+
+  private void beginBatch(){
+    // Every change to controller state happens under the monitor (see the class comment)
+    if(!Thread.holdsLock(this)){
+      throw new IllegalStateException("Controller state changed outside the controller monitor.");
+    }
+    readView.hold();
+    if(batchDepth++ == 0){
+      batchedJobs = new LinkedHashSet<>();
+      batchedVehicles = new LinkedHashSet<>();
+    }
+  }
+
+  private void commitBatch(){
+    if(--batchDepth == 0){
+      Set<Job> jobs = batchedJobs;
+      Set<Vehicle> vehicles = batchedVehicles;
+      batchedJobs = null;
+      batchedVehicles = null;
+      if(!jobs.isEmpty() || !vehicles.isEmpty()){
+        systemServer.trackSchedulingBatch(jobs, vehicles);
+        // Copied here, so the I/O thread never reads a job or vehicle the scheduler is changing
+        List<JobRow> jobRows = JobRow.of(jobs);
+        List<VehicleRow> vehicleRows = VehicleRow.of(vehicles);
+        sideEffect(() -> systemServer.storeSchedulingBatch(jobRows, vehicleRows));
+      }
+    }
+    readView.release();
+  }
+
+  // Adds a job to the pending queue and journals its place in line
+  private void enqueue(Job job){
+    pendingJobs.add(job);
+    String jobID = job.getJobID();
+    sideEffect(() -> systemServer.recordEnqueued(jobID));
+  }
+
+  // Outside a scheduling pass the write is a batch of one
+  private void persistJob(Job job){
+    beginBatch();
+    batchedJobs.add(job);
+    commitBatch();
+  }
+
+  private void persistVehicle(Vehicle vehicle){
+    beginBatch();
+    batchedVehicles.add(vehicle);
+    commitBatch();
+  }
+
+  // Checkpoints are immutable, so the I/O thread can store them as they are
+  private void persistCheckpoint(Checkpoint checkpoint){
+    sideEffect(() -> systemServer.storeCheckpoint(checkpoint));
+  }
+
+  // Time a waiting job still needs once started, less what it did before an eviction
+  private Duration remainingWork(Job job){
+    Duration total = Duration.ofHours(job.getDuration());
+    Duration done = resumeProgress.get(job.getJobID());
+    return done == null || done.compareTo(total) >= 0 ? total : total.minus(done);
+  }
+
+  // When a running job is expected to finish (jobs without a start time are treated as starting now)
+  private LocalDateTime expectedEnd(Job job){
+    LocalDateTime started = job.getStartTime() != null ? job.getStartTime() : now();
+    return started.plusHours(job.getDuration());
+  }
+
+  /**
+   * One {free at, departure} pair per parked vehicle that fits the requirements:
+   * now for available cars, the expected end of the current job for active ones.
+   */
+  private List<LocalDateTime[]> vehicleReleases(Resources required){
+    List<LocalDateTime[]> releases = new ArrayList<>();
+    for(Release release : releasesOf(required)){
+      releases.add(new LocalDateTime[]{release.freeAt, release.departure});
+    }
+    return releases;
+  }
+
+  private List<Release> releasesOf(Resources required){
+    LocalDateTime now = now();
+    List<Release> releases = new ArrayList<>();
+    for(Vehicle vehicle : availableVehicles){
+      if(vehicle.getCapacity().fits(required)){
+        releases.add(new Release(now, departureOf(vehicle), vehicle));
+      }
+    }
+    for(Vehicle vehicle : activeVehicles){
+      if(!vehicle.getCapacity().fits(required)){
+        continue;
+      }
+      Job runningJob = vehicleJobMap.get(vehicle);
+      LocalDateTime release = now;
+      if(runningJob != null){
+        release = expectedEnd(runningJob);
+        if(release.isBefore(now)){
+          release = now;
+        }
+      }
+      releases.add(new Release(release, departureOf(vehicle), null));
+    }
+    return releases;
+  }
+
+  private static LocalDateTime departureOf(Vehicle vehicle){
+    return vehicle.getDepartureSchedule() != null ? vehicle.getDepartureSchedule() : LocalDateTime.MAX;
+  }
+
+  // When a vehicle is free and when it leaves; idle is the vehicle if it is available now
+  private static class Release {
+    final LocalDateTime freeAt;
+    final LocalDateTime departure;
+    final Vehicle idle;
+
+    Release(LocalDateTime freeAt, LocalDateTime departure, Vehicle idle){
+      this.freeAt = freeAt;
+      this.departure = departure;
+      this.idle = idle;
+    }
+  }
+
+  // Capacity set aside for the head of the queue during a backfilling pass
+  private static class Reservation {
+    LocalDateTime shadowTime;
+    // Idle vehicles the head takes at the shadow time
+    final Set<Vehicle> reserved = new HashSet<>();
+  }
+
+  //assign job
   private synchronized void assignJob(Job job){
     int redundancyLevel = job.getRedundancyLevel();
     String jobID = job.getJobID(); 
 
-    System.out.println("Assigning Job " + jobID 
+    log("Assigning Job " + jobID 
      + " to " + redundancyLevel + " vehicle(s).");
     
-    List<Vehicle> assignedVehicles = new ArrayList<>();
+    // Smallest cars that fit, and among those the ones that stay just long enough for this job
+    List<Vehicle> assignedVehicles = availableVehicles.takeBestFit(redundancyLevel, job.getRequirements(),
+        now().plus(remainingWork(job)));
+    // Set when the job was evicted earlier; it continues from that checkpoint
+    Checkpoint resumeFrom = resumeCheckpoints.remove(jobID);
     
-    for(int i = 0; i < redundancyLevel; i++){
-      Vehicle vehicleToAssign = availableVehicles.remove(0);
+    for(Vehicle vehicleToAssign : assignedVehicles){
       activeVehicles.add(vehicleToAssign);
+      systemServer.getVehicleIndex().active(vehicleToAssign);
+      upcomingDepartures.add(vehicleToAssign);
       
-      assignedVehicles.add(vehicleToAssign);
       vehicleJobMap.put(vehicleToAssign, job);
       
       vehicleToAssign.startExecution(jobID); 
+      progressTracker.started(jobID, vehicleToAssign.getVehicleID(), now());
+      if(resumeFrom != null){
+        restartComputation(resumeFrom, vehicleToAssign);
+      }
 
       // Save the updated vehicle state (Active, Job ID) to the database
-      systemServer.storeRegisteredVehicle(vehicleToAssign);
+      persistVehicle(vehicleToAssign);
     }
     jobVehicleMap.put(job, assignedVehicles);
   }
 
   public synchronized void handleCheckpoint(Checkpoint checkpoint){
-    System.out.println("Checkpoint received for vehicle: " + checkpoint.getVehicleID() + " at "
+    log("Checkpoint received for vehicle: " + checkpoint.getVehicleID() + " at "
      + checkpoint.getTimestamp());
     
-    systemServer.storeCheckpoint(checkpoint);
+    persistCheckpoint(checkpoint);
+    lastCheckpointAt.put(checkpoint.getJobID(), now());
+    progressTracker.checkpointed(checkpoint.getJobID(), checkpoint.getVehicleID());
+  }
+
+  /** A vehicle reports how much of its job it has completed (0..1). */
+  public synchronized void handleProgressReport(Vehicle vehicle, double fraction){
+    Job job = vehicleJobMap.get(vehicle);
+    if(job != null){
+      progressTracker.reported(job.getJobID(), vehicle.getVehicleID(), fraction);
+    }
+  }
+
+  /** A progress report from the network; ignored unless the vehicle is running that job. */
+  public synchronized void handleProgressReport(ProgressReport report){
+    Job job = jobRegistry.find(report.getJobID());
+    List<Vehicle> hosts = job == null ? null : jobVehicleMap.get(job);
+    if(hosts != null){
+      for(Vehicle host : hosts){
+        if(host.getSignature().equals(report.getVehicleSignature())){
+          progressTracker.reported(job.getJobID(), host.getVehicleID(), report.getFraction());
+          return;
+        }
+      }
+    }
+    log("Progress from vehicle " + report.getVehicleSignature() + " for Job " + report.getJobID()
+        + " ignored: it is not running that job.");
+  }
+
+  /**
+   * A vehicle reports its CPU cores, memory and storage. An idle vehicle is
+   * re-indexed under its new capacity; a busy one keeps its job and is
+   * matched by the new capacity once it is released.
+   */
+  public synchronized void handleCapacityReport(Vehicle vehicle, Resources capacity){
+    boolean idle = availableVehicles.remove(vehicle);
+    vehicle.setCapacity(capacity);
+    if(idle){
+      availableVehicles.add(vehicle);
+    }
+    log("Vehicle " + vehicle.getVehicleID() + " reports " + capacity + ".");
+    persistVehicle(vehicle);
+    if(idle){
+      scheduleJobs();
+    }
+  }
+
+  /** A capacity report from the network; the vehicle is found by its signature. */
+  public synchronized void handleCapacityReport(CapacityReport report){
+    Vehicle vehicle = leases.vehicleOf(report.getVehicleSignature());
+    if(vehicle == null){
+      log("Capacity report from vehicle " + report.getVehicleSignature() + " ignored: it is not held here.");
+      return;
+    }
+    handleCapacityReport(vehicle, report.getCapacity());
   }
 
   public synchronized void handleJobCompletion(Job job){
-    if(archivedJobs.contains(job)){
-      System.out.println("Job " + job.getJobID() + " is already archived.");
+    if(jobRegistry.isIn(job, JobRegistry.Bucket.ARCHIVED)){
+      log("Job " + job.getJobID() + " is already archived.");
       return;
     }
     
-    List<Vehicle> vehiclesToRelease = jobVehicleMap.getOrDefault(job, new ArrayList<>());
-    
-    if(vehiclesToRelease.isEmpty()){
-        System.out.println("Warning: Job completed but no active vehicles found in map.");
+    if(jobRegistry.isIn(job, JobRegistry.Bucket.IN_PROGRESS)){
+      completionEstimator.jobCompleted(expectedEnd(job), now());
+    }else{
+      completionEstimator.invalidate();
+    }
+    beginBatch();
+    try{
+      List<Vehicle> vehiclesToRelease = jobVehicleMap.getOrDefault(job, new ArrayList<>());
+      
+      if(vehiclesToRelease.isEmpty()){
+          log("Warning: Job completed but no active vehicles found in map.");
+      }
+      
+      for(Vehicle vehicle : vehiclesToRelease){
+          dropSpeculation(vehicle);
+          activeVehicles.remove(vehicle);
+          upcomingDepartures.remove(vehicle);
+          
+          vehicle.markAvailable();
+          availableVehicles.add(vehicle);
+          systemServer.getVehicleIndex().available(vehicle);
+          vehicleJobMap.remove(vehicle);
+          persistVehicle(vehicle);
+          
+          log("Vehicle " + vehicle.getVehicleID() + " is now available.");
+      }
+
+      jobVehicleMap.remove(job);
+      pendingJobs.remove(job);
+      systemServer.getAdmission().release(job.getJobID());
+      unwatchDeadline(job);
+      checkpointSchedule.cancel(job);
+      lastCheckpointAt.remove(job.getJobID());
+      resumeCheckpoints.remove(job.getJobID());
+      resumeProgress.remove(job.getJobID());
+      runningStopped(job);
+      jobRegistry.track(job, JobRegistry.Bucket.ARCHIVED);
+      job.updateStatus("Completed");
+      readView.jobFinished(job);
+      metrics.increment(ControllerMetrics.JOBS_COMPLETED);
+
+      log("Job " + job.getJobID() + " marked as 'Completed'.");
+      
+      this.transferJobToServer(job); 
+      releaseDependents(job.getJobID());
+      
+      scheduleJobs();
+    }finally{
+      commitBatch();
     }
-    
-    for(Vehicle vehicle : vehiclesToRelease){
-        activeVehicles.remove(vehicle);
-        
-        vehicle.markAvailable();
-        availableVehicles.add(vehicle);
-        vehicleJobMap.remove(vehicle);
-        
-        System.out.println("Vehicle " + vehicle.getVehicleID() + " is now available.");
-    }
-
-    jobVehicleMap.remove(job);
-    inProgressJobs.remove(job);
-    archivedJobs.add(job);
-    job.updateStatus("Completed");
-
-    System.out.println("Job " + job.getJobID() + " marked as 'Completed'.");
-    
-    this.transferJobToServer(job); 
-    
-    scheduleJobs();
   }
   
+  /**
+   * A job failed and will not be retried: its vehicles are freed, it is
+   * archived as "Failed", and every job downstream of it is cancelled.
+   * @return IDs of the downstream jobs cancelled
+   */
+  public synchronized List<String> handleJobFailure(Job job, String reason){
+    if(jobRegistry.isIn(job, JobRegistry.Bucket.ARCHIVED)){
+      log("Job " + job.getJobID() + " is already archived.");
+      return new ArrayList<>();
+    }
+    List<String> cancelled;
+    beginBatch();
+    try{
+      List<Vehicle> hosts = jobVehicleMap.remove(job);
+      if(hosts != null){
+        releaseHosts(hosts);
+        runningStopped(job);
+      }
+      pendingJobs.remove(job);
+      systemServer.getAdmission().release(job.getJobID());
+      unwatchDeadline(job);
+      checkpointSchedule.cancel(job);
+      lastCheckpointAt.remove(job.getJobID());
+      resumeCheckpoints.remove(job.getJobID());
+      resumeProgress.remove(job.getJobID());
+      jobRegistry.track(job, JobRegistry.Bucket.ARCHIVED);
+      job.updateStatus("Failed");
+      readView.jobFinished(job);
+      // After the status is visible, so a dependent added by another shard meanwhile sees the failure
+      cancelled = cancelDependents(job.getJobID());
+      completionEstimator.invalidate();
+      metrics.increment(ControllerMetrics.JOBS_FAILED);
+      persistJob(job);
+      log("Job " + job.getJobID() + " failed: " + reason + ".");
+      guiNotification("Job " + job.getJobID() + " failed: " + reason + ".");
+      scheduleJobs();
+    }finally{
+      commitBatch();
+    }
+    return cancelled;
+  }
+
   private void transferJobToServer(Job job){
-    systemServer.storeCompletedJob(job);
-    System.out.println("Job " + job.getJobID() + " data transferred to server.");
+    persistJob(job); // written with the rest of the completion's batch
+    log("Job " + job.getJobID() + " data transferred to server.");
   }
 
   public synchronized void handleVehicleDeparture(Vehicle vehicle){
-    System.out.println("Vehicle " + vehicle.getVehicleID() + " is departing...");
+    beginBatch();
+    try{
+      departVehicle(vehicle);
+    }finally{
+      commitBatch();
+    }
+  }
+
+  // Body of handleVehicleDeparture; every store write goes into the caller's batch
+  private void departVehicle(Vehicle vehicle){
+    completionEstimator.invalidate();
+    leases.untrack(vehicle);
+    LocalDateTime recruited = recruitedAt.remove(vehicle.getSignature());
+    if(recruited != null){
+      LocalDateTime scheduled = vehicle.getDepartureSchedule();
+      boolean early = scheduled == null || now().plus(checkpointPolicy.getMinInterval()).isBefore(scheduled);
+      checkpointPolicy.recordDeparture(Duration.between(recruited, now()), early);
+    }
+    log("Vehicle " + vehicle.getVehicleID() + " is departing...");
     
     if(availableVehicles.remove(vehicle)){
-      System.out.println("Vehicle removed from available pool");
+      systemServer.getVehicleIndex().departed(vehicle);
+      metrics.increment(ControllerMetrics.VEHICLES_DEPARTED);
+      log("Vehicle removed from available pool");
       // Update DB status
       vehicle.restoreState("Departed", "Idle", "Free", null); 
-      systemServer.storeRegisteredVehicle(vehicle);
+      persistVehicle(vehicle);
       return;
     }
 
     if(activeVehicles.remove(vehicle)){
-      System.out.println("Vehicle removed from active pool.");
+      systemServer.getVehicleIndex().departed(vehicle);
+      upcomingDepartures.remove(vehicle);
+      metrics.increment(ControllerMetrics.VEHICLES_DEPARTED);
+      log("Vehicle removed from active pool.");
 
       Job interruptedJob = vehicleJobMap.remove(vehicle);
+      dropSpeculation(vehicle); // a copy simply takes over from its departed original
+      vehicle.restoreState("Departed", "Idle", "Free", null);
+      persistVehicle(vehicle);
       
       if(interruptedJob != null){
+        progressTracker.stopped(interruptedJob.getJobID(), vehicle.getVehicleID());
         jobVehicleMap.computeIfPresent(interruptedJob, (job, list) -> {
             list.remove(vehicle);
             return list;
@@ -405,182 +1771,952 @@ public class VCController implements Serializable {
 
         List<Vehicle> remainingVehicles = jobVehicleMap.get(interruptedJob);
         if (remainingVehicles == null || remainingVehicles.isEmpty()) {
-            if (!availableVehicles.isEmpty()) {
+            if (availableVehicles.countFitting(interruptedJob.getRequirements()) > 0) {
                 
                 Checkpoint latestCheckpoint = systemServer.getLatestCheckpoint(interruptedJob.getJobID()); 
                 
                 if (latestCheckpoint != null) {
-                    Vehicle replacementVehicle = availableVehicles.remove(0); 
+                    Vehicle replacementVehicle = availableVehicles.takeBestFit(interruptedJob.getRequirements(), expectedEnd(interruptedJob)); 
                     activeVehicles.add(replacementVehicle);
+                    systemServer.getVehicleIndex().active(replacementVehicle);
+                    upcomingDepartures.add(replacementVehicle);
                     
                     restartComputation(latestCheckpoint, replacementVehicle);
+                    progressTracker.started(interruptedJob.getJobID(), replacementVehicle.getVehicleID(), now());
+                    persistVehicle(replacementVehicle);
                     
                     List<Vehicle> updatedVehicles = new ArrayList<>();
                     updatedVehicles.add(replacementVehicle);
                     jobVehicleMap.put(interruptedJob, updatedVehicles);
                     vehicleJobMap.put(replacementVehicle, interruptedJob);
+                    metrics.increment(ControllerMetrics.JOBS_RECOVERED);
+                    recordLostWork(interruptedJob, lastCheckpointAt.get(interruptedJob.getJobID()));
+                    scheduleNextCheckpoint(interruptedJob);
                     
-                    System.out.println("Job " + interruptedJob.getJobID() + " **recovered** on new vehicle: " 
+                    log("Job " + interruptedJob.getJobID() + " **recovered** on new vehicle: " 
                      + replacementVehicle.getVehicleID() + " from checkpoint.");
                 } else {
-                    inProgressJobs.remove(interruptedJob);
-                    pendingJobs.add(interruptedJob);
+                    jobRegistry.track(interruptedJob, JobRegistry.Bucket.PENDING);
+                    enqueue(interruptedJob);
                     interruptedJob.updateStatus("Pending(Interrupted)");
+                    readView.jobPending(interruptedJob);
+                    metrics.increment(ControllerMetrics.JOBS_REQUEUED);
+                    recordLostWork(interruptedJob, null);
+                    runningStopped(interruptedJob);
 
                     jobVehicleMap.remove(interruptedJob);
-                    System.out.println("Job " + interruptedJob.getJobID() 
+                    persistJob(interruptedJob);
+                    log("Job " + interruptedJob.getJobID() 
                      + " re-queued. No valid checkpoint found for recovery.");
                 }
             } else {
-                inProgressJobs.remove(interruptedJob);
-                pendingJobs.add(interruptedJob);
+                jobRegistry.track(interruptedJob, JobRegistry.Bucket.PENDING);
+                enqueue(interruptedJob);
                 interruptedJob.updateStatus("Pending(Interrupted)");
+                readView.jobPending(interruptedJob);
+                metrics.increment(ControllerMetrics.JOBS_REQUEUED);
+                recordLostWork(interruptedJob, null);
+                runningStopped(interruptedJob);
                 
                 jobVehicleMap.remove(interruptedJob);
-                System.out.println("Job " + interruptedJob.getJobID() + " re-queued. No vehicles available.");
+                persistJob(interruptedJob);
+                log("Job " + interruptedJob.getJobID() + " re-queued. No vehicles available.");
             }
 
         } else {
-             System.out.println("Job " + interruptedJob.getJobID() 
+             scheduleNextCheckpoint(interruptedJob);
+             log("Job " + interruptedJob.getJobID() 
              + " continues on " + remainingVehicles.size() + " vehicle(s).");
         }
       }
       return;
     }
-    System.out.println("Warning: Departing vehicle " + vehicle.getVehicleID() 
+    log("Warning: Departing vehicle " + vehicle.getVehicleID() 
     + " was not found in active or available lists.");
   }
   
   public synchronized void triggerCheckpoint(Job job){
-    if(!inProgressJobs.contains(job)){
-      System.out.println("Error: Cannot trigger checkpoint. Job " 
+    if(!jobRegistry.isIn(job, JobRegistry.Bucket.IN_PROGRESS)){
+      log("Error: Cannot trigger checkpoint. Job " 
       + job.getJobID() + " is not in progress.");
       return;
     }
-    System.out.println("Triggering checkpoint for Job " + job.getJobID() + "...");
+    log("Triggering checkpoint for Job " + job.getJobID() + "...");
     
     int vehiclesTriggered = 0;
     List<Vehicle> targetVehicles = jobVehicleMap.getOrDefault(job, new ArrayList<>());
 
     for(Vehicle vehicle: targetVehicles){
-        vehicle.createCheckpoint();
+        Checkpoint checkpoint = vehicle.createCheckpoint(now());
+        if(checkpoint != null){
+          progressTracker.checkpointed(job.getJobID(), vehicle.getVehicleID());
+        }
         vehiclesTriggered++;
     }
-    System.out.println("Checkpoint signal sent to " + vehiclesTriggered + " vehicle(s).");
+    log("Checkpoint signal sent to " + vehiclesTriggered + " vehicle(s).");
+  }
+
+  /**
+   * Proactive migration. Every busy vehicle leaving within the lead time whose
+   * job would still be running at its departure gets a fresh checkpoint, and
+   * the job is restarted from it on a replacement car that stays longer, so no
+   * work is lost when the car drives off. Vehicles with no better replacement
+   * are retried on the next run and otherwise fall back to the reactive
+   * handling in handleVehicleDeparture.
+   * @return number of vehicles whose work was moved
+   */
+  public synchronized int migrateDepartingVehicles(){
+    if(migrationLeadTime == null){
+      return 0;
+    }
+    List<Vehicle> departing = upcomingDepartures.pollDepartingBy(now().plus(migrationLeadTime));
+    if(departing.isEmpty()){
+      return 0;
+    }
+
+    int migrated = 0;
+    beginBatch();
+    try{
+      for(Vehicle vehicle : departing){
+        Job job = vehicleJobMap.get(vehicle);
+        if(job == null || !expectedEnd(job).isAfter(vehicle.getDepartureSchedule())){
+          continue; // finishes before the car leaves
+        }
+        if(migrate(vehicle, job)){
+          migrated++;
+        }else{
+          upcomingDepartures.add(vehicle);
+        }
+      }
+      if(migrated > 0){
+        completionEstimator.invalidate();
+        scheduleJobs();
+      }
+    }finally{
+      commitBatch();
+    }
+    return migrated;
   }
+
+  private boolean migrate(Vehicle vehicle, Job job){
+    Vehicle replacement = availableVehicles.takeBestFit(job.getRequirements(), expectedEnd(job));
+    if(replacement == null){
+      return false;
+    }
+    if(!departureOf(replacement).isAfter(departureOf(vehicle))){
+      availableVehicles.add(replacement);
+      return false;
+    }
+
+    Checkpoint checkpoint = vehicle.createCheckpoint(now());
+    if(checkpoint == null){
+      availableVehicles.add(replacement);
+      return false;
+    }
+    persistCheckpoint(checkpoint);
+    lastCheckpointAt.put(job.getJobID(), now());
+
+    replacement.startExecution(job.getJobID());
+    restartComputation(checkpoint, replacement);
+    dropSpeculation(vehicle);
+    progressTracker.stopped(job.getJobID(), vehicle.getVehicleID());
+    progressTracker.started(job.getJobID(), replacement.getVehicleID(), now());
+    activeVehicles.add(replacement);
+    systemServer.getVehicleIndex().active(replacement);
+    upcomingDepartures.add(replacement);
+    vehicleJobMap.put(replacement, job);
+    List<Vehicle> hosts = jobVehicleMap.get(job);
+    if(hosts != null && hosts.remove(vehicle)){
+      hosts.add(replacement);
+    }
+
+    activeVehicles.remove(vehicle);
+    vehicleJobMap.remove(vehicle);
+    vehicle.markAvailable();
+    availableVehicles.add(vehicle);
+    systemServer.getVehicleIndex().available(vehicle);
+
+    persistVehicle(replacement);
+    persistVehicle(vehicle);
+    scheduleNextCheckpoint(job); // the hosts and their departures changed
+    metrics.increment(ControllerMetrics.JOBS_MIGRATED);
+    log("Job " + job.getJobID() + " migrated from vehicle " + vehicle.getVehicleID() 
+    + " to " + replacement.getVehicleID() + " ahead of its departure.");
+    return true;
+  }
+
+  /**
+   * Preemption. When a job does not fit, lower-priority in-progress jobs are
+   * checkpointed and evicted, those with the least completed work
+   * (vehicle-hours since they started) first. Jobs that started or resumed less
+   * than preemptionMinRun ago are never evicted and at most maxPreemptionsPerHour
+   * evictions happen per hour, so jobs do not thrash between the queue and the
+   * fleet. Nothing is evicted unless the victims free enough vehicles.
+   * @return true if enough vehicles are now available for the job
+   */
+  private boolean preemptFor(Job job){
+    if(maxPreemptionsPerHour <= 0 || job.getPriority() == Job.Priority.LOW){
+      return false;
+    }
+    LocalDateTime now = now();
+    while(!recentPreemptions.isEmpty() && !recentPreemptions.peekFirst().isAfter(now.minusHours(1))){
+      recentPreemptions.pollFirst();
+    }
+    int budget = maxPreemptionsPerHour - recentPreemptions.size();
+    int shortfall = job.getRedundancyLevel() - availableVehicles.countFitting(job.getRequirements());
+    if(budget <= 0){
+      return false;
+    }
+
+    List<Job> candidates = new ArrayList<>();
+    for(Map.Entry<Job.Priority, Set<Job>> entry : runningByPriority.entrySet()){
+      if(entry.getKey().compareTo(job.getPriority()) >= 0){
+        break;
+      }
+      for(Job running : entry.getValue()){
+        if(running.getRunningSince() != null && !running.getRunningSince().plus(preemptionMinRun).isAfter(now)){
+          candidates.add(running);
+        }
+      }
+    }
+    candidates.sort(Comparator.comparingLong(running -> completedWork(running, now)));
+
+    List<Job> victims = new ArrayList<>();
+    int freed = 0;
+    for(Job candidate : candidates){
+      if(freed >= shortfall || victims.size() >= budget){
+        break;
+      }
+      victims.add(candidate);
+      for(Vehicle host : jobVehicleMap.getOrDefault(candidate, new ArrayList<>())){
+        if(host.getCapacity().fits(job.getRequirements())){
+          freed++;
+        }
+      }
+    }
+    if(freed < shortfall){
+      return false;
+    }
+
+    for(Job victim : victims){
+      evict(victim, job);
+    }
+    completionEstimator.invalidate();
+    return true;
+  }
+
+  // Vehicle-minutes a running job has completed, counting progress kept from before an eviction
+  private long completedWork(Job job, LocalDateTime now){
+    List<Vehicle> hosts = jobVehicleMap.getOrDefault(job, new ArrayList<>());
+    return Duration.between(job.getStartTime(), now).toMinutes() * hosts.size();
+  }
+
+  // Checkpoints a running job, frees its vehicles and puts it back in the queue
+  private void evict(Job victim, Job preemptor){
+    List<Vehicle> hosts = jobVehicleMap.remove(victim);
+    if(hosts == null){
+      return;
+    }
+    Checkpoint checkpoint = hosts.isEmpty() ? null : hosts.get(0).createCheckpoint(now());
+    if(checkpoint != null){
+      persistCheckpoint(checkpoint);
+      lastCheckpointAt.put(victim.getJobID(), now());
+      resumeCheckpoints.put(victim.getJobID(), checkpoint);
+      if(victim.getStartTime() != null){
+        resumeProgress.put(victim.getJobID(), Duration.between(victim.getStartTime(), now()));
+      }
+      checkpointSchedule.cancel(victim);
+    }else{
+      recordLostWork(victim, null);
+    }
+
+    releaseHosts(hosts);
+
+    runningStopped(victim);
+    jobRegistry.track(victim, JobRegistry.Bucket.PENDING);
+    victim.updateStatus("Pending(Preempted)");
+    enqueue(victim);
+    readView.jobPending(victim);
+    persistJob(victim);
+    recentPreemptions.addLast(now());
+    metrics.increment(ControllerMetrics.JOBS_PREEMPTED);
+
+    notifyUser(victim.getSenderID(), "Your job " + victim.getJobID() 
+        + " was paused for a higher-priority job and will resume from its checkpoint.");
+    log("Job " + victim.getJobID() + " (" + victim.getPriority() + ") preempted by " 
+        + preemptor.getJobID() + " (" + preemptor.getPriority() + ").");
+  }
+
+  // Returns a stopped job's vehicles to the available pool
+  private void releaseHosts(List<Vehicle> hosts){
+    for(Vehicle vehicle : hosts){
+      dropSpeculation(vehicle);
+      activeVehicles.remove(vehicle);
+      upcomingDepartures.remove(vehicle);
+      vehicleJobMap.remove(vehicle);
+      vehicle.markAvailable();
+      availableVehicles.add(vehicle);
+      systemServer.getVehicleIndex().available(vehicle);
+      persistVehicle(vehicle);
+    }
+  }
+
+  /**
+   * A result reported over the network. The vehicle is looked up among the
+   * job's current hosts, so a late result from a car that was moved off the
+   * job is ignored.
+   */
+  public synchronized void handleReplicaResult(ReplicaResult report){
+    Job job = jobRegistry.find(report.getJobID());
+    List<Vehicle> hosts = job == null ? null : jobVehicleMap.get(job);
+    if(hosts != null){
+      for(Vehicle host : hosts){
+        if(host.getSignature().equals(report.getVehicleSignature())){
+          handleReplicaResult(host, report.getResult());
+          return;
+        }
+      }
+    }
+    log("Result from vehicle " + report.getVehicleSignature() + " for Job " + report.getJobID()
+        + " ignored: it is not running that job.");
+  }
+
+  /**
+   * Result aggregation. Each replica of a job reports its result; results are
+   * compared by digest, and once the quorum agrees the job completes with that
+   * result and the replicas still running are cancelled, freeing their
+   * vehicles right away. If the remaining replicas can no longer reach the
+   * quorum, the job is re-queued and runs again from scratch.
+   */
+  public synchronized void handleReplicaResult(Vehicle vehicle, String result){
+    Job job = vehicleJobMap.get(vehicle);
+    if(job == null){
+      log("Result from vehicle " + vehicle.getVehicleID() + " ignored: it is not running a job.");
+      return;
+    }
+    // First finisher of a straggler and its speculative copy wins; the other is cancelled
+    Vehicle partner = speculationPartner(vehicle);
+    if(partner != null){
+      if(speculativeOriginals.containsKey(vehicle)){
+        metrics.increment(ControllerMetrics.SPECULATIVE_WON);
+      }
+      cancelReplica(job, partner);
+    }
+    List<Vehicle> hosts = jobVehicleMap.getOrDefault(job, new ArrayList<>());
+    List<String> hostSignatures = new ArrayList<>(hosts.size());
+    for(Vehicle host : hosts){
+      hostSignatures.add(host.getSignature());
+    }
+    int quorum = quorumFor(job);
+    ResultAggregator.Outcome outcome = 
+        resultAggregator.record(job.getJobID(), vehicle.getSignature(), result, quorum, hostSignatures);
+    log("Result for Job " + job.getJobID() + " from vehicle " + vehicle.getVehicleID() + " (" 
+        + resultAggregator.reportCount(job.getJobID()) + "/" + job.getRedundancyLevel() + " reported, quorum " + quorum + ").");
+
+    switch(outcome){
+      case AGREED:
+        job.setResult(resultAggregator.agreedResult(job.getJobID()));
+        int cancelled = resultAggregator.outstanding(job.getJobID(), hostSignatures);
+        metrics.increment(ControllerMetrics.RESULTS_AGREED);
+        if(cancelled > 0){
+          metrics.add(ControllerMetrics.REPLICAS_CANCELLED, cancelled);
+          log("Quorum reached for Job " + job.getJobID() + "; cancelling " + cancelled + " remaining replica(s).");
+        }
+        handleJobCompletion(job);
+        break;
+      case NO_QUORUM:
+        rerunWithoutQuorum(job);
+        break;
+      default:
+        if(partner != null){
+          scheduleJobs();
+        }
+        break;
+    }
+  }
+
+  private int quorumFor(Job job){
+    int replicas = Math.max(1, job.getRedundancyLevel());
+    return resultQuorum > 0 ? Math.min(resultQuorum, replicas) : replicas / 2 + 1;
+  }
+
+  private void rerunWithoutQuorum(Job job){
+    beginBatch();
+    try{
+      List<Vehicle> hosts = jobVehicleMap.remove(job);
+      if(hosts != null){
+        releaseHosts(hosts);
+      }
+      recordLostWork(job, null);
+      resumeCheckpoints.remove(job.getJobID());
+      resumeProgress.remove(job.getJobID());
+      runningStopped(job);
+      jobRegistry.track(job, JobRegistry.Bucket.PENDING);
+      job.updateStatus("Pending(NoQuorum)");
+      enqueue(job);
+      readView.jobPending(job);
+      persistJob(job);
+      completionEstimator.invalidate();
+      metrics.increment(ControllerMetrics.RESULTS_DISAGREED);
+      log("Replicas of Job " + job.getJobID() + " disagree and cannot reach a quorum. Job re-queued.");
+      guiNotification("Job " + job.getJobID() + " re-queued: replica results disagree.");
+      scheduleJobs();
+    }finally{
+      commitBatch();
+    }
+  }
+
+  private void runningStarted(Job job){
+    runningByPriority.computeIfAbsent(job.getPriority(), p -> new LinkedHashSet<>()).add(job);
+  }
+
+  /**
+   * Speculative execution. A replica that falls well behind its peers (or
+   * behind the job's elapsed share of its duration), judged from reported
+   * progress and checkpoint cadence, gets a copy on an idle vehicle, resumed
+   * from the job's latest checkpoint. Whichever of the two reports a result
+   * first wins and the other is cancelled. Copies only start while no job is
+   * waiting, are limited to speculationBudget of the idle fleet, and are the
+   * first vehicles reclaimed when a new job needs room.
+   * @return number of copies launched
+   */
+  public synchronized int speculateStragglers(){
+    if(speculationBudget <= 0 || !pendingJobs.isEmpty() || availableVehicles.isEmpty()){
+      return 0;
+    }
+    int budget = (int) (speculationBudget * (availableVehicles.size() + speculativeOriginals.size())) 
+        - speculativeOriginals.size();
+    if(budget <= 0){
+      return 0;
+    }
+
+    LocalDateTime now = now();
+    int launched = 0;
+    beginBatch();
+    try{
+      // Only jobs with progress reports or checkpoint cadence to judge can have stragglers
+      for(String jobID : progressTracker.getObservedJobs()){
+        Job job = findJob(jobID);
+        List<Vehicle> hosts = job == null ? null : jobVehicleMap.get(job);
+        if(hosts == null || job.getRunningSince() == null || job.getRunningSince().plus(STRAGGLER_MIN_RUN).isAfter(now)){
+          continue;
+        }
+        Map<String, Vehicle> hostsByID = new HashMap<>();
+        for(Vehicle host : hosts){
+          hostsByID.put(host.getVehicleID(), host);
+        }
+        double elapsed = Duration.between(job.getStartTime(), now).toMinutes() / (60.0 * Math.max(1, job.getDuration()));
+        for(String id : progressTracker.stragglers(job.getJobID(), hostsByID.keySet(), Math.min(1, elapsed), now)){
+          Vehicle straggler = hostsByID.get(id);
+          if(speculationPartner(straggler) != null){
+            continue;
+          }
+          if(launched >= budget || !launchCopy(job, straggler)){
+            return launched;
+          }
+          launched++;
+        }
+      }
+    }finally{
+      commitBatch();
+    }
+    return launched;
+  }
+
+  private boolean launchCopy(Job job, Vehicle straggler){
+    Vehicle copy = availableVehicles.takeBestFit(job.getRequirements(), expectedEnd(job));
+    if(copy == null){
+      return false;
+    }
+    copy.startExecution(job.getJobID());
+    Checkpoint checkpoint = systemServer.getLatestCheckpoint(job.getJobID());
+    if(checkpoint != null){
+      restartComputation(checkpoint, copy);
+    }
+    activeVehicles.add(copy);
+    systemServer.getVehicleIndex().active(copy);
+    upcomingDepartures.add(copy);
+    vehicleJobMap.put(copy, job);
+    jobVehicleMap.get(job).add(copy);
+    speculativeOriginals.put(copy, straggler);
+    speculativeCopies.put(straggler, copy);
+    progressTracker.started(job.getJobID(), copy.getVehicleID(), now());
+    persistVehicle(copy);
+    completionEstimator.invalidate();
+    metrics.increment(ControllerMetrics.SPECULATIVE_LAUNCHED);
+    log("Vehicle " + straggler.getVehicleID() + " is straggling on Job " + job.getJobID() 
+        + "; speculative copy started on " + copy.getVehicleID() + ".");
+    return true;
+  }
+
+  // Cancels speculative copies so a waiting job can use their vehicles
+  private boolean reclaimSpeculativeFor(Job job){
+    if(speculativeOriginals.isEmpty()){
+      return false;
+    }
+    for(Vehicle copy : new ArrayList<>(speculativeOriginals.keySet())){
+      if(fitsNow(job)){
+        break;
+      }
+      if(!copy.getCapacity().fits(job.getRequirements())){
+        continue;
+      }
+      cancelReplica(vehicleJobMap.get(copy), copy);
+      metrics.increment(ControllerMetrics.SPECULATIVE_CANCELLED);
+    }
+    return fitsNow(job);
+  }
+
+  // Takes one vehicle off a job that keeps running on its other hosts
+  private void cancelReplica(Job job, Vehicle vehicle){
+    List<Vehicle> hosts = job == null ? null : jobVehicleMap.get(job);
+    if(hosts != null){
+      hosts.remove(vehicle);
+      progressTracker.stopped(job.getJobID(), vehicle.getVehicleID());
+    }
+    List<Vehicle> released = new ArrayList<>();
+    released.add(vehicle);
+    releaseHosts(released);
+    completionEstimator.invalidate();
+    log("Replica on vehicle " + vehicle.getVehicleID() + " cancelled.");
+  }
+
+  // The straggler of a copy or the copy of a straggler, or null
+  private Vehicle speculationPartner(Vehicle vehicle){
+    Vehicle original = speculativeOriginals.get(vehicle);
+    return original != null ? original : speculativeCopies.get(vehicle);
+  }
+
+  private void dropSpeculation(Vehicle vehicle){
+    Vehicle original = speculativeOriginals.remove(vehicle);
+    if(original != null){
+      speculativeCopies.remove(original);
+    }
+    Vehicle copy = speculativeCopies.remove(vehicle);
+    if(copy != null){
+      speculativeOriginals.remove(copy);
+    }
+  }
+
+  private void runningStopped(Job job){
+    resultAggregator.forget(job.getJobID());
+    progressTracker.forgetJob(job.getJobID());
+    Set<Job> running = runningByPriority.get(job.getPriority());
+    if(running != null){
+      running.remove(job);
+    }
+  }
+
+  /**
+   * Automatic checkpoints. Takes a checkpoint of every in-progress job whose
+   * interval has elapsed and schedules its next one; the interval is
+   * recomputed each time from the current departure-rate estimate.
+   * Every host checkpoints, so the progress tracker can compare their cadence;
+   * redundant hosts run the same computation, so one checkpoint per job is stored.
+   * @return number of checkpoints taken
+   */
+  public synchronized int runDueCheckpoints(){
+    int taken = 0;
+    for(Job job : checkpointSchedule.pollDue(now())){
+      List<Vehicle> hosts = jobVehicleMap.get(job);
+      if(hosts == null || hosts.isEmpty() || !jobRegistry.isIn(job, JobRegistry.Bucket.IN_PROGRESS)){
+        continue;
+      }
+      Checkpoint checkpoint = null;
+      for(Vehicle host : hosts){
+        Checkpoint hostCheckpoint = host.createCheckpoint(now());
+        if(hostCheckpoint != null){
+          progressTracker.checkpointed(job.getJobID(), host.getVehicleID());
+          if(checkpoint == null){
+            checkpoint = hostCheckpoint;
+          }
+        }
+      }
+      if(checkpoint != null){
+        persistCheckpoint(checkpoint);
+        lastCheckpointAt.put(job.getJobID(), now());
+        metrics.increment(ControllerMetrics.CHECKPOINTS_TAKEN);
+        metrics.add(ControllerMetrics.CHECKPOINT_OVERHEAD_SECONDS, 
+            checkpointPolicy.getCheckpointCost().getSeconds());
+        taken++;
+      }
+      scheduleNextCheckpoint(job);
+    }
+    return taken;
+  }
+
+  private void scheduleNextCheckpoint(Job job){
+    if(!autoCheckpointing){
+      return;
+    }
+    LocalDateTime now = now();
+    List<Vehicle> hosts = jobVehicleMap.get(job);
+    int hostCount = hosts == null ? job.getRedundancyLevel() : hosts.size();
+    // The job loses its work when the last of its hosts leaves
+    Duration untilLastDeparture = null;
+    if(hosts != null && !hosts.isEmpty()){
+      LocalDateTime last = LocalDateTime.MIN;
+      for(Vehicle host : hosts){
+        LocalDateTime departure = departureOf(host);
+        if(departure.isAfter(last)){
+          last = departure;
+        }
+      }
+      if(!last.equals(LocalDateTime.MAX)){
+        untilLastDeparture = Duration.between(now, last);
+      }
+    }
+    Duration remainingWork = Duration.between(now, expectedEnd(job));
+    checkpointSchedule.schedule(job, now.plus(checkpointPolicy.nextCheckpointIn(hostCount, untilLastDeparture, remainingWork)));
+  }
+
+  // Work since the last checkpoint (or since the (re)start, without one) is lost when a job is interrupted
+  private void recordLostWork(Job job, LocalDateTime checkpointedAt){
+    checkpointSchedule.cancel(job);
+    LocalDateTime since = job.getRunningSince();
+    if(checkpointedAt != null && (since == null || checkpointedAt.isAfter(since))){
+      since = checkpointedAt;
+    }
+    if(since != null){
+      metrics.add(ControllerMetrics.WORK_LOST_SECONDS, Math.max(0, Duration.between(since, now()).getSeconds()));
+    }
+    if(checkpointedAt == null){
+      lastCheckpointAt.remove(job.getJobID());
+    }
+  }
+
   //
   public synchronized void recruitVehicle(Vehicle vehicle){
     this.availableVehicles.add(vehicle);
-    System.out.println("New vehicle recruited: " + vehicle.getVehicleID() 
+    recruitedAt.put(vehicle.getSignature(), now());
+    watchDeparture(vehicle);
+    leases.track(vehicle);
+    systemServer.getVehicleIndex().available(vehicle);
+    completionEstimator.invalidate();
+    metrics.increment(ControllerMetrics.VEHICLES_RECRUITED);
+    log("New vehicle recruited: " + vehicle.getVehicleID() 
     + ". Now available for jobs.");
     scheduleJobs();
   }
 
+  /**
+   * Recruits a group of vehicles (e.g. a fleet arriving at shift start) and
+   * drains the backlog in one scheduling pass instead of one pass per car.
+   */
+  public synchronized void recruitVehicles(Collection<Vehicle> vehicles){
+    for(Vehicle vehicle : vehicles){
+      this.availableVehicles.add(vehicle);
+      recruitedAt.put(vehicle.getSignature(), now());
+      systemServer.getVehicleIndex().available(vehicle);
+      watchDeparture(vehicle);
+      leases.track(vehicle);
+    }
+    completionEstimator.invalidate();
+    metrics.add(ControllerMetrics.VEHICLES_RECRUITED, vehicles.size());
+    log(vehicles.size() + " vehicle(s) recruited. Now available for jobs.");
+    scheduleJobs();
+  }
+
+  /**
+   * Vehicles missing for the head of the pending queue, 0 if the queue is
+   * empty or the head fits. Used by ShardedVCController to move vehicles.
+   */
+  public synchronized int getVehicleShortfall(){
+    Job head = pendingJobs.peek();
+    return head == null ? 0 
+        : Math.max(0, head.getRedundancyLevel() - availableVehicles.countFitting(head.getRequirements()));
+  }
+
+  /** What each vehicle must offer the head of the pending queue; NONE if the queue is empty. */
+  public synchronized Resources getHeadRequirements(){
+    Job head = pendingJobs.peek();
+    return head == null ? Resources.NONE : head.getRequirements();
+  }
+
+  /**
+   * Hands up to max idle vehicles that fit the given requirements to another
+   * shard, longest-staying first. Only gives vehicles away while this
+   * controller has no pending jobs. Their leases stay here until
+   * releaseLeases, so heartbeats sent while they move are still renewed.
+   */
+  public synchronized List<Vehicle> releaseIdleVehicles(int max, Resources required){
+    List<Vehicle> released = new ArrayList<>();
+    if(!pendingJobs.isEmpty()){
+      return released;
+    }
+    while(released.size() < max){
+      Vehicle vehicle = availableVehicles.takeBestFit(required, LocalDateTime.MAX);
+      if(vehicle == null){
+        break;
+      }
+      recruitedAt.remove(vehicle.getSignature());
+      released.add(vehicle);
+    }
+    if(!released.isEmpty()){
+      completionEstimator.invalidate();
+      log(released.size() + " idle vehicle(s) handed to another shard.");
+    }
+    return released;
+  }
+
+  /** Stops watching the leases of released vehicles once another shard has adopted them. */
+  public void releaseLeases(Collection<Vehicle> vehicles){
+    for(Vehicle vehicle : vehicles){
+      leases.untrack(vehicle);
+    }
+  }
+
+  /** Takes over idle vehicles released by another shard and schedules onto them. */
+  public synchronized void adoptVehicles(Collection<Vehicle> vehicles){
+    if(vehicles.isEmpty()){
+      return;
+    }
+    for(Vehicle vehicle : vehicles){
+      availableVehicles.add(vehicle);
+      systemServer.getVehicleIndex().available(vehicle);
+      watchDeparture(vehicle);
+      leases.track(vehicle);
+    }
+    completionEstimator.invalidate();
+    metrics.add(ControllerMetrics.VEHICLES_ADOPTED, vehicles.size());
+    log(vehicles.size() + " vehicle(s) adopted from another shard.");
+    scheduleJobs();
+  }
+
   private void restartComputation(Checkpoint checkpoint, Vehicle newVehicle){
-    System.out.println("Instructing vehicle " + newVehicle.getVehicleID() 
+    log("Instructing vehicle " + newVehicle.getVehicleID() 
      + " to restart computation from checkpoint " 
     + checkpoint.getCheckpointID());
     newVehicle.loadFromCheckpoint(checkpoint);
   }
 
 
-    public synchronized String getJobStatus(String jobID){
-      // First check local controller lists (active/pending)
-      String localStatus = Stream.of(pendingJobs, inProgressJobs, archivedJobs)
-          .flatMap(List::stream)
-          .filter(job -> job.getJobID().equals(jobID))
-          .map(Job::getStatus)
-          .findFirst()
-          .orElse(null);
-      
+  // TIMERS
+
+  // Latest-start and deadline timers for a job that has not finished
+  private void watchDeadline(Job job){
+    LocalDateTime deadline = job.getDeadline();
+    if(deadline == null || jobTimers.containsKey(job.getJobID())){
+      return;
+    }
+    if(!jobRegistry.isIn(job, JobRegistry.Bucket.IN_PROGRESS)){
+      scheduleTimer(new TimerEvent(TimerEvent.Type.DEADLINE_AT_RISK, job.getJobID(), job,
+          deadline.minusHours(job.getDuration())));
+    }
+    scheduleTimer(new TimerEvent(TimerEvent.Type.DEADLINE_MISSED, job.getJobID(), job, deadline));
+  }
+
+  private void unwatchDeadline(Job job){
+    List<TimingWheel.Timer<TimerEvent>> pending = jobTimers.remove(job.getJobID());
+    if(pending != null){
+      for(TimingWheel.Timer<TimerEvent> timer : pending){
+        timers.cancel(timer);
+      }
+    }
+  }
+
+  private void watchExpiry(Request request){
+    if(requestExpiry != null){
+      scheduleTimer(new TimerEvent(TimerEvent.Type.REQUEST_EXPIRED, request.getRequestID(), request,
+          now().plus(requestExpiry)));
+    }
+  }
+
+  private void watchDeparture(Vehicle vehicle){
+    if(vehicle.getDepartureSchedule() != null){
+      scheduleTimer(new TimerEvent(TimerEvent.Type.VEHICLE_DEPARTED, vehicle.getVehicleID(), vehicle,
+          vehicle.getDepartureSchedule()));
+    }
+  }
+
+  private void scheduleTimer(TimerEvent event){
+    TimingWheel.Timer<TimerEvent> timer = timers.schedule(event.getDueAt(), event);
+    if(event.getSubject() instanceof Job){
+      jobTimers.computeIfAbsent(event.getSubjectID(), id -> new ArrayList<>(2)).add(timer);
+    }
+  }
+
+  /**
+   * Fires every timer due by now. Request and departure timers are not
+   * cancelled when their subject is decided or leaves early, so each one
+   * first checks that it still applies.
+   */
+  private void fireDueTimers(){
+    for(TimerEvent event : timers.advance(now())){
+      switch(event.getType()){
+        case DEADLINE_AT_RISK:
+          deadlineAtRisk(event);
+          break;
+        case DEADLINE_MISSED:
+          deadlineMissed(event);
+          break;
+        case REQUEST_EXPIRED:
+          requestExpired(event);
+          break;
+        case VEHICLE_DEPARTED:
+          departureDue(event);
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  // Still queued or blocked at the latest time it could start and finish by its deadline
+  private void deadlineAtRisk(TimerEvent event){
+    Job job = (Job) event.getSubject();
+    if(!jobRegistry.isIn(job, JobRegistry.Bucket.PENDING)){
+      return;
+    }
+    metrics.increment(ControllerMetrics.DEADLINES_AT_RISK);
+    notifyUser(job.getSenderID(), "Your job " + job.getJobID() + " has not started yet and may miss its deadline.");
+    emit(event, "Job " + job.getJobID() + " has not started and is at risk of missing its deadline.");
+  }
+
+  private void deadlineMissed(TimerEvent event){
+    Job job = (Job) event.getSubject();
+    jobTimers.remove(job.getJobID());
+    if(jobRegistry.isIn(job, JobRegistry.Bucket.ARCHIVED)){
+      return;
+    }
+    metrics.increment(ControllerMetrics.DEADLINES_MISSED);
+    notifyUser(job.getSenderID(), "Your job " + job.getJobID() + " missed its deadline.");
+    emit(event, "Job " + job.getJobID() + " missed its deadline of " + event.getDueAt() + ".");
+  }
+
+  private void requestExpired(TimerEvent event){
+    Request request = (Request) event.getSubject();
+    if(!systemServer.rejectRequest(request.getRequestID())){
+      return; // decided in the meantime
+    }
+    metrics.increment(ControllerMetrics.REQUESTS_EXPIRED);
+    notifyUser(request.getSenderID(), "Your request " + request.getRequestID() 
+        + " expired without a decision and was rejected.");
+    emit(event, "Request " + request.getRequestID() + " expired without a decision.");
+  }
+
+  // Releases a vehicle still held at its departure time (unless it was rescheduled or already left)
+  private void departureDue(TimerEvent event){
+    Vehicle vehicle = (Vehicle) event.getSubject();
+    if(!event.getDueAt().equals(vehicle.getDepartureSchedule())
+        || !(availableVehicles.contains(vehicle) || activeVehicles.contains(vehicle))){
+      return;
+    }
+    handleVehicleDeparture(vehicle);
+    emit(event, "Vehicle " + vehicle.getVehicleID() + " reached its departure time.");
+  }
+
+  // Vehicles that stopped sending heartbeats are handled as if they had announced their departure
+  private void expireLeases(){
+    LocalDateTime now = now();
+    for(Vehicle vehicle : leases.expired(now)){
+      if(!(availableVehicles.contains(vehicle) || activeVehicles.contains(vehicle))){
+        continue;
+      }
+      metrics.increment(ControllerMetrics.LEASES_EXPIRED);
+      handleVehicleDeparture(vehicle);
+      emit(new TimerEvent(TimerEvent.Type.LEASE_EXPIRED, vehicle.getVehicleID(), vehicle, now),
+          "Vehicle " + vehicle.getVehicleID() + " stopped sending heartbeats and was treated as departed.");
+    }
+  }
+
+  private void emit(TimerEvent event, String message){
+    log(message);
+    guiNotification(message);
+    for(Consumer<TimerEvent> listener : timerListeners){
+      sideEffect(() -> listener.accept(event));
+    }
+  }
+
+  /** Timers waiting to fire (deadlines, request expiries, departures). */
+  public synchronized int getPendingTimerCount(){
+    return timers.size();
+  }
+
+
+  // READ PATH
+  // Status queries are served from readView and never take the controller monitor.
+
+  public String getJobStatus(String jobID){
+      // First check the controller's view (pending/in-progress/archived)
+      String localStatus = readView.getJobStatus(jobID);
       if (localStatus != null) {
           return localStatus; 
       }
       
       // Check Database
-      return DatabaseManager.getInstance().getJobStatus(jobID);
+      return systemServer.getStore().getJobStatus(jobID);
   }
 
-  public String calculateCompletionTimes(){
-    StringBuilder output = new StringBuilder();
-    int cumulativeTime = 0;
+  /**
+   * Estimated completion time of each pending job, in queue order, taking the
+   * number of vehicles, redundancy and departure schedules into account.
+   */
+  public synchronized String calculateCompletionTimes(){
+    refreshCompletionEstimates();
+    return completionEstimator.describe(now());
+  }
 
-    for(Job job: pendingJobs){
-      int jobDuration = job.getDuration();
-      cumulativeTime += jobDuration;
+  /** jobID -> estimated completion time (null if the current fleet cannot run the job). */
+  public synchronized Map<String, LocalDateTime> getEstimatedCompletionTimes(){
+    refreshCompletionEstimates();
+    return completionEstimator.getEstimates();
+  }
 
-      output.append("Job ID: ");
-      output.append(job.getJobID());
-      output.append(", Duration: ");
-      output.append(jobDuration);
-      output.append(", Est. Completion Time: ");
-      output.append(cumulativeTime);
-      output.append("\n");
+  private void refreshCompletionEstimates(){
+    if(completionEstimator.isStale()){
+      completionEstimator.rebuild(now(), vehicleReleases(Resources.NONE), pendingJobs);
     }
-    if(output.length() == 0){
-      return "No Jobs pending in the queue.";
-    }
-    return output.toString();
   }
 
-  public synchronized boolean isVehicleInSystem(String license, String state) {
-    String signature = license + state;
-    
-    // Check available and active vehicles
-    boolean inAvailable = availableVehicles.stream()
-            .anyMatch(vehicle -> vehicle.getSignature().equals(signature));
-    if (inAvailable) return true;
-    
-    boolean inActive = activeVehicles.stream()
-            .anyMatch(vehicle -> vehicle.getSignature().equals(signature));
-    if (inActive) return true;
-
-    // Check pending requests in the server
-    if (systemServer != null) {
-        List<Request> pendingRequests = systemServer.getPendingRequests();
-        for (Request req : pendingRequests) {
-            if (req.getRequestType().equals("VEHICLE_REGISTRATION") && req.getData() instanceof Vehicle) {
-                Vehicle v = (Vehicle) req.getData();
-                if (v.getSignature().equals(signature)) {
-                    return true;
-                }
-            }
-        }
-    }
-    
-    return false;
+  /**
+   * True if a vehicle with this license + state is available, running a job or
+   * waiting for registration approval. O(1) probe of the Server's signature index.
+   */
+  public boolean isVehicleInSystem(String license, String state) {
+    return systemServer.getVehicleIndex().contains(license + state);
   }
   
   /**
    * Returns a list of all registered vehicles associated with the given owner ID.
    * This is used by OwnerGUI to display persistent vehicle registration history.
    */
-  public synchronized List<Vehicle> getOwnerVehicleHistory(String ownerID) {
-      return DatabaseManager.getInstance().getOwnerVehicleHistory(ownerID);
+  public List<Vehicle> getOwnerVehicleHistory(String ownerID) {
+      return systemServer.getStore().getOwnerVehicleHistory(ownerID);
   }
   
-  public synchronized boolean isJobInSystem(String jobID) {
-    return Stream.of(pendingJobs, inProgressJobs, archivedJobs)
-            .flatMap(List::stream)
-            .anyMatch(job -> job.getJobID().equals(jobID));
+  public boolean isJobInSystem(String jobID) {
+    return readView.containsJob(jobID);
   }
   
   /**
    * Returns a list of all jobs (Pending, In-Progress, Archived) associated 
    * with the given client ID .
    */
-  public synchronized List<Job> getClientJobHistory(String loginID) {
-      return DatabaseManager.getInstance().getClientJobHistory(loginID);
+  public List<Job> getClientJobHistory(String loginID) {
+      return systemServer.getStore().getClientJobHistory(loginID);
   }
 
-  public synchronized List<Job> getInProgressJobs() {
-    return new ArrayList<>(inProgressJobs);
+  public List<Job> getInProgressJobs() {
+    return readView.getInProgressJobs();
   }
   
-  public synchronized Queue<Job> getPendingJobs() {
-    return new LinkedList<>(pendingJobs);
+  public Queue<Job> getPendingJobs() {
+    return readView.getPendingJobs();
+  }
+
+  public int getPendingJobCount() {
+    return readView.getPendingCount();
+  }
+
+  public int getInProgressJobCount() {
+    return readView.getInProgressCount();
   }
   
+  public ControllerMetrics getMetrics() {
+    return metrics;
+  }
+
   public Server getServer() {
     return systemServer;
   }
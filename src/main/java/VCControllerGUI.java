@@ -4,13 +4,14 @@ import java.awt.event.ActionEvent;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * VCControllerGUI with request approval/rejection functionality.
  */
 public class VCControllerGUI extends JPanel {
 
-    private VCController controller;
+    private CloudController controller;
     private Server server;
     private Runnable onBack;
 
@@ -25,7 +26,7 @@ public class VCControllerGUI extends JPanel {
 
     private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    public VCControllerGUI(VCController controller, Server server, Runnable onBack) {
+    public VCControllerGUI(CloudController controller, Server server, Runnable onBack) {
         this.controller = controller;
         this.server = server;
         this.onBack = onBack;
@@ -369,7 +370,7 @@ public class VCControllerGUI extends JPanel {
         calcStatusField.setFont(new Font("Segoe UI", Font.PLAIN, 12));
 
         calcBtn.addActionListener(e -> {
-            if (controller.getPendingJobs().isEmpty()) {
+            if (controller.getPendingJobCount() == 0) {
                 calcStatusField.setText("No jobs pending to calculate.");
                 JOptionPane.showMessageDialog(this, "No jobs pending in the queue to calculate completion times.", "Info", JOptionPane.INFORMATION_MESSAGE);
                 return;
@@ -459,7 +460,7 @@ public class VCControllerGUI extends JPanel {
 
     /** Loads notifications from DB when GUI starts. */
     private void loadNotifications() {
-        java.util.List<String> logs = server.getControllerLogs();
+        List<String> logs = server.getControllerLogs();
         notificationListModel = new DefaultListModel<>();
         for (String log : logs) {
             notificationListModel.addElement(log);
@@ -527,4 +528,28 @@ public class VCControllerGUI extends JPanel {
         // Refresh list so the processed item disappears
         refreshPendingRequests();
     }
+
+    /** Accepts the given requests in one controller call (one DB batch, one scheduling pass). */
+    public synchronized void handleAcceptAll(List<String> requestIDs) {
+        if (requestIDs.isEmpty()) {
+            return;
+        }
+        List<String> approved = controller.approveRequests(requestIDs);
+
+        logToFile(approved.size() + " of " + requestIDs.size() + " selected request(s) approved");
+
+        refreshPendingRequests();
+    }
+
+    /** Rejects the given requests in one controller call. */
+    public synchronized void handleRejectAll(List<String> requestIDs) {
+        if (requestIDs.isEmpty()) {
+            return;
+        }
+        List<String> rejected = controller.rejectRequests(requestIDs);
+
+        logToFile(rejected.size() + " of " + requestIDs.size() + " selected request(s) rejected");
+
+        refreshPendingRequests();
+    }
 }
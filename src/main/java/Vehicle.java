@@ -51,7 +51,8 @@ public class Vehicle implements Serializable {
         System.out.println("Vehicle " + getSignature() + " started execution for Job " + this.currentJobID + ".");
     }
 
-    public Checkpoint createCheckpoint() {
+    /** Captures the running job's state, stamped with the given time (the controller's clock). */
+    public Checkpoint createCheckpoint(LocalDateTime takenAt) {
         if (currentJobID == null) {
             System.err.println("Error: Vehicle " + getSignature() + " tried to create a checkpoint without an assigned job.");
             return null; 
@@ -60,7 +61,7 @@ public class Vehicle implements Serializable {
         byte[] mockStateData = ("Vehicle running. Status: " + this.status + " for Job " + this.currentJobID).getBytes();
         String chkID = java.util.UUID.randomUUID().toString();
         
-        Checkpoint checkpoint = new Checkpoint(chkID, this.currentJobID, LocalDateTime.now(), mockStateData, getVehicleID());
+        Checkpoint checkpoint = new Checkpoint(chkID, this.currentJobID, takenAt, mockStateData, getVehicleID());
 
         System.out.println("Vehicle " + getSignature() + " generated checkpoint " + checkpoint.getCheckpointID());
         return checkpoint; 
@@ -140,6 +141,17 @@ public class Vehicle implements Serializable {
         return currentJobID;
     }
 
+    // Reported by the vehicle; VCController.handleCapacityReport keeps its pool index in step
+    private Resources capacity = Resources.DEFAULT_VEHICLE;
+
+    public Resources getCapacity() {
+        return capacity != null ? capacity : Resources.DEFAULT_VEHICLE;
+    }
+
+    public void setCapacity(Resources capacity) {
+        this.capacity = capacity;
+    }
+
     public String getOwnerEnteredID() {
         return ownerEnteredID;
     }
@@ -0,0 +1,125 @@
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable copy of the persisted fields of a Vehicle; see JobRow.
+ */
+public final class VehicleRow implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String vehicleID;
+    private final String ownerID;
+    private final String username;
+    private final String licensePlate;
+    private final String licenseState;
+    private final String make;
+    private final String model;
+    private final int year;
+    private final LocalDateTime departureSchedule;
+    private final String status;
+    private final String cpuStatus;
+    private final String memoryStatus;
+    private final String currentJobID;
+    private final Resources capacity;
+
+    private VehicleRow(Vehicle vehicle, String ownerID, String username) {
+        this.vehicleID = vehicle.getVehicleID();
+        this.ownerID = ownerID;
+        this.username = username;
+        this.licensePlate = vehicle.getLicensePlate();
+        this.licenseState = vehicle.getLicenseState();
+        this.make = vehicle.getMake();
+        this.model = vehicle.getModel();
+        this.year = vehicle.getYear();
+        this.departureSchedule = vehicle.getDepartureSchedule();
+        this.status = vehicle.getStatus();
+        this.cpuStatus = vehicle.getCpuStatus();
+        this.memoryStatus = vehicle.getMemoryStatus();
+        this.currentJobID = vehicle.getCurrentJobID();
+        this.capacity = vehicle.getCapacity();
+    }
+
+    /** Owner and user IDs come from the vehicle, "UNKNOWN" when missing. */
+    public static VehicleRow of(Vehicle vehicle) {
+        return of(vehicle, vehicle.getOwnerEnteredID(), vehicle.getSenderID());
+    }
+
+    public static VehicleRow of(Vehicle vehicle, String ownerID, String username) {
+        return new VehicleRow(vehicle, ownerID != null ? ownerID : "UNKNOWN", username != null ? username : "UNKNOWN");
+    }
+
+    public static List<VehicleRow> of(Collection<Vehicle> vehicles) {
+        List<VehicleRow> rows = new ArrayList<>(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            rows.add(of(vehicle));
+        }
+        return rows;
+    }
+
+    /** A fresh Vehicle holding this row's values. */
+    public Vehicle toVehicle() {
+        Vehicle vehicle = new Vehicle(ownerID, username, make, model, year, licensePlate, licenseState, departureSchedule);
+        vehicle.restoreState(status, cpuStatus, memoryStatus, currentJobID);
+        vehicle.setCapacity(capacity);
+        return vehicle;
+    }
+
+    public String getVehicleID() {
+        return vehicleID;
+    }
+
+    public String getOwnerID() {
+        return ownerID;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getLicensePlate() {
+        return licensePlate;
+    }
+
+    public String getLicenseState() {
+        return licenseState;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public LocalDateTime getDepartureSchedule() {
+        return departureSchedule;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getCpuStatus() {
+        return cpuStatus;
+    }
+
+    public String getMemoryStatus() {
+        return memoryStatus;
+    }
+
+    public String getCurrentJobID() {
+        return currentJobID;
+    }
+
+    public Resources getCapacity() {
+        return capacity;
+    }
+}
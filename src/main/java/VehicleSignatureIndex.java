@@ -0,0 +1,86 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent index of every vehicle signature (license + state) the system
+ * knows about: vehicles waiting for registration approval, available vehicles
+ * and vehicles running a job. Duplicate-registration checks are a single
+ * hash probe instead of scans over the pools and pending requests.
+ *
+ * Maintained by Server (request create/approve/reject) and VCController
+ * (recruit, assignment, release, departure).
+ */
+public class VehicleSignatureIndex {
+
+    public enum State {
+        PENDING_REGISTRATION,
+        AVAILABLE,
+        ACTIVE
+    }
+
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    // Registration requests still waiting for a decision, per signature
+    private final Map<String, Integer> pendingCounts = new ConcurrentHashMap<>();
+
+    public boolean contains(String signature) {
+        return signature != null && states.containsKey(signature);
+    }
+
+    /** Current state for a signature, or null if the vehicle is unknown. */
+    public State stateOf(String signature) {
+        return signature == null ? null : states.get(signature);
+    }
+
+    /** Registration requests for the signature that are still waiting for a decision. */
+    public int pendingRegistrations(String signature) {
+        return signature == null ? 0 : pendingCounts.getOrDefault(signature, 0);
+    }
+
+    public void pendingRegistration(Vehicle vehicle) {
+        pendingCounts.merge(vehicle.getSignature(), 1, Integer::sum);
+        states.putIfAbsent(vehicle.getSignature(), State.PENDING_REGISTRATION);
+    }
+
+    /** A registration request was approved; the vehicle is available. */
+    public void registrationApproved(Vehicle vehicle) {
+        decidePending(vehicle.getSignature());
+        states.put(vehicle.getSignature(), State.AVAILABLE);
+    }
+
+    /** Drops a registration request that was rejected, unless the vehicle is registered or has other pending requests. */
+    public void registrationRejected(Vehicle vehicle) {
+        if (decidePending(vehicle.getSignature()) == 0) {
+            states.remove(vehicle.getSignature(), State.PENDING_REGISTRATION);
+        }
+    }
+
+    // Counts one pending request as decided; returns how many are left
+    private int decidePending(String signature) {
+        Integer left = pendingCounts.computeIfPresent(signature, (key, count) -> count > 1 ? count - 1 : null);
+        return left == null ? 0 : left;
+    }
+
+    public void available(Vehicle vehicle) {
+        states.put(vehicle.getSignature(), State.AVAILABLE);
+    }
+
+    public void active(Vehicle vehicle) {
+        states.put(vehicle.getSignature(), State.ACTIVE);
+    }
+
+    public void departed(Vehicle vehicle) {
+        states.remove(vehicle.getSignature());
+    }
+
+    /** Forgets available/active vehicles (before the controller reloads them); pending requests stay. */
+    public void clearRegistered() {
+        states.values().removeIf(state -> state != State.PENDING_REGISTRATION);
+        for (String signature : pendingCounts.keySet()) {
+            states.putIfAbsent(signature, State.PENDING_REGISTRATION);
+        }
+    }
+
+    public int size() {
+        return states.size();
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PersistenceStore that keeps jobs and vehicles in memory.
+ * Used to drive the Server and VCController without a MySQL instance.
+ */
+public class InMemoryStore implements PersistenceStore {
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Vehicle> vehicles = new ConcurrentHashMap<>();
+
+    // job_id -> client_id / username, vehicle_id -> owner_id / username
+    private final Map<String, String> jobClientMap = new ConcurrentHashMap<>();
+    private final Map<String, String> jobSenderMap = new ConcurrentHashMap<>();
+    private final Map<String, String> vehicleOwnerIdMap = new ConcurrentHashMap<>();
+    private final Map<String, String> vehicleSenderMap = new ConcurrentHashMap<>();
+
+    @Override
+    public void saveJob(Job job, String clientEnteredId, String username) {
+        jobs.put(job.getJobID(), job);
+        jobClientMap.put(job.getJobID(), clientEnteredId);
+        jobSenderMap.put(job.getJobID(), username);
+    }
+
+    @Override
+    public void saveVehicle(Vehicle vehicle, String ownerEnteredId, String username) {
+        vehicles.put(vehicle.getVehicleID(), vehicle);
+        vehicleOwnerIdMap.put(vehicle.getVehicleID(), ownerEnteredId);
+        vehicleSenderMap.put(vehicle.getVehicleID(), username);
+    }
+
+    // Keeps detached copies, as a database would
+    @Override
+    public synchronized void saveBatch(List<JobRow> jobs, List<VehicleRow> vehicles) {
+        for (JobRow job : jobs) {
+            saveJob(job.toJob(), job.getClientID(), job.getUsername());
+        }
+        for (VehicleRow vehicle : vehicles) {
+            saveVehicle(vehicle.toVehicle(), vehicle.getOwnerID(), vehicle.getUsername());
+        }
+    }
+
+    @Override
+    public String getJobStatus(String jobId) {
+        Job job = jobs.get(jobId);
+        return job == null ? "Job not found" : job.getStatus();
+    }
+
+    @Override
+    public List<Job> getAllJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    @Override
+    public List<Vehicle> getAllVehicles() {
+        return new ArrayList<>(vehicles.values());
+    }
+
+    @Override
+    public List<Job> getClientJobHistory(String username) {
+        List<Job> history = new ArrayList<>();
+        for (Map.Entry<String, String> e : jobSenderMap.entrySet()) {
+            if (e.getValue().equals(username)) {
+                history.add(jobs.get(e.getKey()));
+            }
+        }
+        return history;
+    }
+
+    @Override
+    public List<Vehicle> getOwnerVehicleHistory(String username) {
+        List<Vehicle> history = new ArrayList<>();
+        for (Map.Entry<String, String> e : vehicleSenderMap.entrySet()) {
+            if (e.getValue().equals(username)) {
+                history.add(vehicles.get(e.getKey()));
+            }
+        }
+        return history;
+    }
+
+    @Override
+    public Map<String, String> getJobClientMap() {
+        return new ConcurrentHashMap<>(jobClientMap);
+    }
+
+    @Override
+    public Map<String, String> getJobSenderMap() {
+        return new ConcurrentHashMap<>(jobSenderMap);
+    }
+
+    @Override
+    public Map<String, String> getVehicleSenderMap() {
+        return new ConcurrentHashMap<>(vehicleSenderMap);
+    }
+
+    @Override
+    public Map<String, String> getVehicleOwnerIdMap() {
+        return new ConcurrentHashMap<>(vehicleOwnerIdMap);
+    }
+}
@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fair-share order of PendingJobQueue: iteration, poll and aging.
+ */
+class PendingJobQueueTest {
+
+    private final LocalDateTime deadline = LocalDateTime.of(2025, 1, 10, 8, 0);
+
+    @Test
+    void equalClientsTakeTurns() {
+        PendingJobQueue queue = fairQueue(new ClientShares());
+        offer(queue, "A1", "A", Job.Priority.NORMAL);
+        offer(queue, "A2", "A", Job.Priority.NORMAL);
+        offer(queue, "A3", "A", Job.Priority.NORMAL);
+        offer(queue, "B1", "B", Job.Priority.NORMAL);
+        offer(queue, "B2", "B", Job.Priority.NORMAL);
+
+        assertEquals(Arrays.asList("A1", "B1", "A2", "B2", "A3"), iterated(queue));
+        assertEquals("A3", queue.peekLast().getJobID());
+    }
+
+    @Test
+    void iterationMatchesPollOrder() {
+        ClientShares shares = new ClientShares();
+        shares.setWeight("A", 3);
+        PendingJobQueue queue = fairQueue(shares);
+        for (int i = 1; i <= 6; i++) {
+            offer(queue, "A" + i, "A", Job.Priority.NORMAL);
+            offer(queue, "B" + i, "B", Job.Priority.NORMAL);
+        }
+        offer(queue, "C1", "C", Job.Priority.HIGH);
+
+        List<String> iterated = iterated(queue);
+        List<String> polled = new ArrayList<>();
+        for (Job job = queue.poll(); job != null; job = queue.poll()) {
+            polled.add(job.getJobID());
+        }
+        assertEquals(polled, iterated);
+        assertEquals("C1", polled.get(0));
+    }
+
+    @Test
+    void removingThroughTheIteratorKeepsTheWalkGoing() {
+        PendingJobQueue queue = fairQueue(new ClientShares());
+        offer(queue, "A1", "A", Job.Priority.NORMAL);
+        offer(queue, "A2", "A", Job.Priority.NORMAL);
+        offer(queue, "B1", "B", Job.Priority.NORMAL);
+
+        List<String> seen = new ArrayList<>();
+        for (Iterator<Job> it = queue.iterator(); it.hasNext(); ) {
+            Job job = it.next();
+            seen.add(job.getJobID());
+            if (job.getJobID().equals("A1")) {
+                it.remove();
+            }
+        }
+        assertEquals(Arrays.asList("A1", "B1", "A2"), seen);
+        assertEquals(2, queue.size());
+        assertFalse(queue.contains(new Job("A1", 1, 1, deadline)));
+    }
+
+    @Test
+    void agedHeadIsServedAheadOfItsClass() {
+        ClientShares shares = new ClientShares();
+        // B has used a lot of the fleet, so it loses every fair-share pick
+        shares.charge("B", 100);
+        PendingJobQueue queue = fairQueue(shares);
+        queue.setMaxBypass(1);
+        offer(queue, "B1", "B", Job.Priority.NORMAL);
+        offer(queue, "A1", "A", Job.Priority.NORMAL);
+        offer(queue, "A2", "A", Job.Priority.NORMAL);
+        offer(queue, "A3", "A", Job.Priority.NORMAL);
+
+        assertEquals("A1", queue.poll().getJobID());
+        assertEquals("A2", queue.poll().getJobID());
+        assertEquals("B1", queue.poll().getJobID());
+        assertEquals("A3", queue.poll().getJobID());
+    }
+
+    @Test
+    void agingNeverJumpsAHigherClass() {
+        PendingJobQueue queue = fairQueue(new ClientShares());
+        queue.setMaxBypass(0);
+        offer(queue, "OLD", "L", Job.Priority.LOW);
+        offer(queue, "FIRST", "H", Job.Priority.HIGH);
+        assertEquals("FIRST", queue.poll().getJobID());
+
+        // OLD has now been passed over, but a HIGH job still goes first
+        offer(queue, "SECOND", "H", Job.Priority.HIGH);
+        assertEquals("SECOND", queue.poll().getJobID());
+        assertEquals("OLD", queue.poll().getJobID());
+    }
+
+    private PendingJobQueue fairQueue(ClientShares shares) {
+        PendingJobQueue queue = new PendingJobQueue();
+        queue.setFairShare(shares);
+        return queue;
+    }
+
+    private void offer(PendingJobQueue queue, String jobID, String client, Job.Priority priority) {
+        Job job = new Job(jobID, jobID, client, 1, 1, deadline);
+        job.setPriority(priority);
+        queue.offer(job);
+    }
+
+    private static List<String> iterated(PendingJobQueue queue) {
+        List<String> ids = new ArrayList<>();
+        for (Job job : queue) {
+            ids.add(job.getJobID());
+        }
+        return ids;
+    }
+}
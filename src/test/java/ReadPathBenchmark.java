@@ -0,0 +1,185 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures status-query latency while the controller is busy scheduling.
+ * The fleet is kept saturated with a standing backlog of pending jobs under
+ * fair-share queueing, and a writer thread completes a running job and submits
+ * a new one in a loop, so every cycle runs a full scheduling pass over the
+ * backlog. Reader threads poll what the GUIs poll: a job's status, the pending
+ * count and the in-progress list. The "monitor" run wraps each read in the
+ * controller monitor, which is what these queries did before the read view
+ * existed, so it waits out every scheduling pass. Reported per mode: read
+ * throughput, reads slower than 100 us and 1 ms, worst read, writer cycles.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.mainClass="ReadPathBenchmark"
+ */
+public class ReadPathBenchmark {
+
+    private static final int READERS = 4;
+    private static final int VEHICLES = 50;
+    private static final int BACKLOG = 2000;
+    private static final int CLIENTS = 20;
+    private static final long RUN_MILLIS = 3000;
+    private static final long DB_LATENCY_MICROS = 500;
+
+    public static void main(String[] args) throws InterruptedException {
+        Result monitor = run(true);
+        Result view = run(false);
+
+        System.out.println("Readers: " + READERS + ", vehicles: " + VEHICLES + ", pending backlog: " + BACKLOG
+                + ", run: " + RUN_MILLIS + " ms, simulated DB write: " + DB_LATENCY_MICROS + " us");
+        System.out.println(monitor);
+        System.out.println(view);
+    }
+
+    private static Result run(boolean throughMonitor) throws InterruptedException {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            VCController controller = new VCController(new Server(new SlowStore()));
+            controller.setAdmissionLimits(Integer.MAX_VALUE, Integer.MAX_VALUE);
+            controller.setFairShareEnabled(true);
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < VEHICLES; i++) {
+                controller.recruitVehicle(new Vehicle("OWN" + i, "owner" + i, "Make", "Model", 2020,
+                        "READ" + i, "NY", now.plusDays(30)));
+            }
+            List<String> jobIDs = new ArrayList<>();
+            for (int i = 0; i < BACKLOG + VEHICLES; i++) {
+                String id = "JOB-" + i;
+                controller.addJob(job(id, i, now));
+                jobIDs.add(id);
+            }
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong reads = new AtomicLong();
+            AtomicLong writes = new AtomicLong();
+            AtomicLong readsOver100us = new AtomicLong();
+            AtomicLong readsOver1ms = new AtomicLong();
+            AtomicLong maxReadNanos = new AtomicLong();
+
+            Thread writer = new Thread(() -> {
+                int n = jobIDs.size();
+                while (running.get()) {
+                    List<Job> inProgress = controller.getInProgressJobs();
+                    if (!inProgress.isEmpty()) {
+                        controller.handleJobCompletion(inProgress.get(0));
+                    }
+                    controller.addJob(job("JOB-" + n, n, now));
+                    n++;
+                    writes.incrementAndGet();
+                }
+            });
+
+            List<Thread> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long local = 0;
+                    long over100us = 0;
+                    long over1ms = 0;
+                    long max = 0;
+                    while (running.get()) {
+                        String id = jobIDs.get(random.nextInt(jobIDs.size()));
+                        long start = System.nanoTime();
+                        if (throughMonitor) {
+                            synchronized (controller) {
+                                poll(controller, id);
+                            }
+                        } else {
+                            poll(controller, id);
+                        }
+                        long elapsed = System.nanoTime() - start;
+                        if (elapsed > 100_000) over100us++;
+                        if (elapsed > 1_000_000) over1ms++;
+                        if (elapsed > max) max = elapsed;
+                        local++;
+                    }
+                    reads.addAndGet(local);
+                    readsOver100us.addAndGet(over100us);
+                    readsOver1ms.addAndGet(over1ms);
+                    maxReadNanos.accumulateAndGet(max, Math::max);
+                }));
+            }
+
+            writer.start();
+            readers.forEach(Thread::start);
+            Thread.sleep(RUN_MILLIS);
+            running.set(false);
+            writer.join();
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            return new Result(throughMonitor ? "monitor reads" : "read view", reads.get(), writes.get(),
+                    readsOver100us.get(), readsOver1ms.get(), maxReadNanos.get());
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    // One GUI refresh: a status lookup, the queue length and the running jobs
+    private static void poll(VCController controller, String jobID) {
+        controller.getJobStatus(jobID);
+        controller.getPendingJobCount();
+        controller.getInProgressJobs();
+    }
+
+    private static Job job(String jobID, int n, LocalDateTime now) {
+        return new Job(jobID, "C" + n, "client" + (n % CLIENTS), 1, 1, now.plusDays(7));
+    }
+
+    // In-memory store that pays a fixed latency per write, like a DB round trip
+    private static class SlowStore extends InMemoryStore {
+        @Override
+        public void saveJob(Job job, String clientEnteredId, String username) {
+            pause();
+            super.saveJob(job, clientEnteredId, username);
+        }
+
+        @Override
+        public void saveVehicle(Vehicle vehicle, String ownerEnteredId, String username) {
+            pause();
+            super.saveVehicle(vehicle, ownerEnteredId, username);
+        }
+
+        private static void pause() {
+            long until = System.nanoTime() + DB_LATENCY_MICROS * 1000;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static class Result {
+        final String mode;
+        final long reads;
+        final long writes;
+        final long readsOver100us;
+        final long readsOver1ms;
+        final long maxReadNanos;
+
+        Result(String mode, long reads, long writes, long readsOver100us, long readsOver1ms, long maxReadNanos) {
+            this.mode = mode;
+            this.reads = reads;
+            this.writes = writes;
+            this.readsOver100us = readsOver100us;
+            this.readsOver1ms = readsOver1ms;
+            this.maxReadNanos = maxReadNanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = RUN_MILLIS / 1000.0;
+            return String.format("%-14s reads/s=%,.0f  over 100us=%,d  over 1ms=%,d  max read=%.2fms"
+                    + "  writer cycles/s=%,.0f", mode, reads / seconds, readsOver100us, readsOver1ms,
+                    maxReadNanos / 1e6, writes / seconds);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares FIFO scheduling against EASY backfilling on the same workload.
+ * Runs VCController against an in-memory store and a virtual clock; every job
+ * is submitted at time zero and completed once its duration has elapsed.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.mainClass="SchedulerBenchmark"
+ */
+public class SchedulerBenchmark {
+
+    private static final int VEHICLES = 200;
+    private static final int JOBS = 1000;
+    private static final long SEED = 42L;
+
+    public static void main(String[] args) {
+        Result fifo = run(false);
+        Result backfill = run(true);
+
+        System.out.println("Workload: " + JOBS + " jobs, " + VEHICLES + " vehicles (seed " + SEED + ")");
+        System.out.println(fifo);
+        System.out.println(backfill);
+        System.out.printf("Throughput gain: %.1f%%%n",
+                (backfill.throughput() / fifo.throughput() - 1.0) * 100.0);
+    }
+
+    private static Result run(boolean backfilling) {
+        Random random = new Random(SEED);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        VirtualClock clock = new VirtualClock(start);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            VCController controller = new VCController(new Server(new InMemoryStore()));
+            controller.setClock(clock);
+            controller.setBackfillingEnabled(backfilling);
+
+            for (int i = 0; i < VEHICLES; i++) {
+                LocalDateTime departure = start.plusDays(30 + random.nextInt(30));
+                controller.recruitVehicle(new Vehicle("OWN" + i, "owner" + i, "Make", "Model", 2020,
+                        "BENCH" + i, "NY", departure));
+            }
+            for (int i = 0; i < JOBS; i++) {
+                // Mostly small jobs with occasional wide ones that block a FIFO queue
+                int redundancy = random.nextInt(5) == 0 ? 40 + random.nextInt(80) : 1 + random.nextInt(3);
+                int duration = 1 + random.nextInt(8);
+                controller.addJob(new Job("JOB-" + i, "C" + (i % 10), "client" + (i % 10),
+                        duration, redundancy, start.plusDays(30)));
+            }
+
+            long totalWaitMinutes = 0;
+            int completed = 0;
+            while (true) {
+                List<Job> running = controller.getInProgressJobs();
+                if (running.isEmpty()) {
+                    break;
+                }
+                LocalDateTime next = LocalDateTime.MAX;
+                for (Job job : running) {
+                    LocalDateTime end = job.getStartTime().plusHours(job.getDuration());
+                    if (end.isBefore(next)) next = end;
+                }
+                clock.advanceTo(next);
+
+                List<Job> finished = new ArrayList<>();
+                for (Job job : running) {
+                    if (!job.getStartTime().plusHours(job.getDuration()).isAfter(next)) {
+                        finished.add(job);
+                    }
+                }
+                for (Job job : finished) {
+                    totalWaitMinutes += ChronoUnit.MINUTES.between(start, job.getStartTime());
+                    controller.handleJobCompletion(job);
+                    completed++;
+                }
+            }
+            double makespanHours = ChronoUnit.MINUTES.between(start, clock.now()) / 60.0;
+            return new Result(backfilling ? "EASY backfilling" : "FIFO", completed,
+                    controller.getPendingJobs().size(), makespanHours,
+                    completed == 0 ? 0 : totalWaitMinutes / 60.0 / completed);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static class Result {
+        final String policy;
+        final int completed;
+        final int stranded;
+        final double makespanHours;
+        final double avgWaitHours;
+
+        Result(String policy, int completed, int stranded, double makespanHours, double avgWaitHours) {
+            this.policy = policy;
+            this.completed = completed;
+            this.stranded = stranded;
+            this.makespanHours = makespanHours;
+            this.avgWaitHours = avgWaitHours;
+        }
+
+        double throughput() {
+            return makespanHours == 0 ? 0 : completed / makespanHours;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-17s completed=%d stranded=%d makespan=%.1fh throughput=%.2f jobs/h avgWait=%.2fh",
+                    policy, completed, stranded, makespanHours, throughput(), avgWaitHours);
+        }
+    }
+}
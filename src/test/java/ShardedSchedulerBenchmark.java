@@ -0,0 +1,119 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures scheduling throughput of ShardedVCController as shards are added.
+ * One lot of VEHICLES cars is split across the shards, and one worker thread
+ * per shard submits jobs and completes the ones that have started, so the
+ * fleet keeps cycling. Each shard runs its I/O on its own event-loop thread,
+ * so the workers only contend on shard monitors.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.mainClass="ShardedSchedulerBenchmark" -Dexec.args="[max shards]"
+ */
+public class ShardedSchedulerBenchmark {
+
+    private static final int VEHICLES = 20_000;
+    private static final int JOBS = 200_000;
+    // Jobs a worker keeps running before it completes the oldest
+    private static final int IN_FLIGHT_PER_WORKER = 2_000;
+    private static final long SEED = 42L;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxShards = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Workload: " + JOBS + " jobs on " + VEHICLES + " vehicles, "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+        double baseline = 0;
+        for (int shards = 1; shards <= maxShards; shards *= 2) {
+            double throughput = run(shards);
+            if (shards == 1) {
+                baseline = throughput;
+            }
+            System.out.printf("%2d shard(s): %,10.0f jobs/s  speedup %.2fx%n", shards, throughput, throughput / baseline);
+        }
+    }
+
+    private static double run(int shardCount) throws InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            ShardedVCController controller = new ShardedVCController(new Server(new InMemoryStore()), shardCount);
+            controller.setClock(new VirtualClock(start));
+            controller.enableEventLoop(1024);
+
+            Random random = new Random(SEED);
+            for (int i = 0; i < VEHICLES; i++) {
+                controller.recruitVehicle(new Vehicle("OWN" + i, "owner" + i, "Make", "Model", 2020,
+                        "LOT" + i, "NY", start.plusDays(1 + random.nextInt(30))));
+            }
+
+            CountDownLatch ready = new CountDownLatch(shardCount);
+            CountDownLatch go = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(shardCount);
+            for (int w = 0; w < shardCount; w++) {
+                final int worker = w;
+                Thread thread = new Thread(() -> {
+                    ready.countDown();
+                    try {
+                        go.await();
+                        work(controller, worker, shardCount, start);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }, "bench-worker-" + w);
+                thread.start();
+            }
+
+            ready.await();
+            long began = System.nanoTime();
+            go.countDown();
+            done.await();
+            long elapsed = System.nanoTime() - began;
+            controller.disableEventLoop();
+            return JOBS / (elapsed / 1e9);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    // Submits this worker's share of the jobs and completes them once they run
+    private static void work(ShardedVCController controller, int worker, int workers, LocalDateTime start) {
+        Random random = new Random(SEED + worker);
+        Deque<Job> submitted = new ArrayDeque<>();
+        for (int i = worker; i < JOBS; i += workers) {
+            Job job = new Job("JOB-" + i, "C" + worker, "client" + worker,
+                    1 + random.nextInt(8), 1 + random.nextInt(3), start.plusDays(30));
+            controller.addJob(job);
+            submitted.addLast(job);
+            if (submitted.size() > IN_FLIGHT_PER_WORKER) {
+                completeStarted(controller, submitted, IN_FLIGHT_PER_WORKER / 2);
+            }
+        }
+        completeStarted(controller, submitted, 0);
+    }
+
+    private static void completeStarted(ShardedVCController controller, Deque<Job> submitted, int keep) {
+        int skipped = 0;
+        while (submitted.size() > keep) {
+            Job job = submitted.pollFirst();
+            if ("In-Progress".equals(controller.getJobStatus(job.getJobID()))) {
+                controller.handleJobCompletion(job);
+                skipped = 0;
+            } else {
+                submitted.addLast(job);
+                if (++skipped >= submitted.size()) {
+                    Thread.yield(); // waiting for vehicles other workers hold
+                    skipped = 0;
+                }
+            }
+        }
+    }
+}
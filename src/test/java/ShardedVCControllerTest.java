@@ -0,0 +1,134 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ShardedVCController: per-shard Servers and admission, and dependencies
+ * between jobs that run in different shards.
+ */
+class ShardedVCControllerTest {
+
+    private final LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+    private Server server;
+    private ShardedVCController controller;
+
+    @BeforeEach
+    void setUp() {
+        server = new Server(new InMemoryStore());
+        controller = new ShardedVCController(server, 2);
+        controller.setClock(new VirtualClock(start));
+    }
+
+    @Test
+    void shardsHaveTheirOwnServerAndAdmission() {
+        Server first = controller.getShards().get(0).getServer();
+        Server second = controller.getShards().get(1).getServer();
+        assertNotSame(server, first);
+        assertNotSame(first, second);
+        assertNotSame(first.getAdmission(), second.getAdmission());
+
+        // Each shard gets half of the global limit
+        controller.setAdmissionLimits(10, 4);
+        Job[] onFirst = jobsOn(0, 3);
+        assertTrue(controller.addJob(onFirst[0]));
+        assertTrue(controller.addJob(onFirst[1]));
+        assertFalse(controller.addJob(onFirst[2]));
+        assertTrue(controller.addJob(jobsOn(1, 1)[0]));
+    }
+
+    @Test
+    void requestsAreAdmittedByTheShardRunningTheJob() {
+        controller.setAdmissionLimits(10, 4);
+        Job[] onSecond = jobsOn(1, 3);
+        assertFalse(server.createRequest("client", "JOB_SUBMISSION", onSecond[0]).isRefused());
+        assertFalse(server.createRequest("client", "JOB_SUBMISSION", onSecond[1]).isRefused());
+        assertTrue(server.createRequest("client", "JOB_SUBMISSION", onSecond[2]).isRefused());
+        assertEquals(2, controller.getShards().get(1).getServer().getAdmission().getOutstanding());
+        assertEquals(0, controller.getShards().get(0).getServer().getAdmission().getOutstanding());
+    }
+
+    @Test
+    void completionReleasesDependentInAnotherShard() {
+        recruit("CAR1");
+        Job first = jobsOn(0, 1)[0];
+        Job second = jobsOn(1, 1)[0];
+        second.setPredecessors(Collections.singletonList(first.getJobID()));
+
+        controller.addJob(second);
+        assertEquals("Blocked", controller.getJobStatus(second.getJobID()));
+        controller.addJob(first);
+        assertEquals("In-Progress", controller.getJobStatus(first.getJobID()));
+
+        controller.handleJobCompletion(first);
+        assertEquals("Completed", controller.getJobStatus(first.getJobID()));
+        assertEquals("In-Progress", controller.getJobStatus(second.getJobID()));
+    }
+
+    @Test
+    void movedVehicleKeepsItsLease() {
+        Vehicle car = recruit("CAR1");
+        assertTrue(controller.renewLease(car.getSignature()));
+        VCController donor = controller.getShards().get(0).renewLease(car.getSignature())
+                ? controller.getShards().get(0) : controller.getShards().get(1);
+        int needy = donor == controller.getShards().get(0) ? 1 : 0;
+
+        controller.addJob(jobsOn(needy, 1)[0]);
+
+        assertTrue(controller.renewLease(car.getSignature()));
+        assertTrue(controller.getShards().get(needy).renewLease(car.getSignature()));
+        assertFalse(donor.renewLease(car.getSignature()));
+    }
+
+    @Test
+    void failureCancelsDependentInAnotherShard() {
+        recruit("CAR1");
+        Job first = jobsOn(0, 1)[0];
+        Job second = jobsOn(1, 1)[0];
+        second.setPredecessors(Collections.singletonList(first.getJobID()));
+        controller.addJob(first);
+        controller.addJob(second);
+
+        assertEquals(Collections.singletonList(second.getJobID()), controller.handleJobFailure(first, "test"));
+        assertEquals("Cancelled", controller.getJobStatus(second.getJobID()));
+    }
+
+    @Test
+    void cycleAcrossShardsIsRefused() {
+        Job first = jobsOn(0, 1)[0];
+        Job second = jobsOn(1, 1)[0];
+        first.setPredecessors(Collections.singletonList(second.getJobID()));
+        second.setPredecessors(Collections.singletonList(first.getJobID()));
+
+        controller.addJob(first);
+        controller.addJob(second);
+
+        assertEquals("Blocked", controller.getJobStatus(first.getJobID()));
+        assertEquals("Cancelled", controller.getJobStatus(second.getJobID()));
+    }
+
+    // Jobs whose IDs hash to the given shard
+    private Job[] jobsOn(int shard, int count) {
+        Job[] jobs = new Job[count];
+        int found = 0;
+        for (int i = 0; found < count; i++) {
+            Job job = new Job("S" + shard + "-" + i, "C1", "client", 1, 1, start.plusDays(2));
+            if (controller.shardFor(job) == controller.getShards().get(shard)) {
+                jobs[found++] = job;
+            }
+        }
+        return jobs;
+    }
+
+    private Vehicle recruit(String plate) {
+        Vehicle vehicle = new Vehicle("OWN-" + plate, "owner", "Make", "Model", 2020, plate, "NY", start.plusDays(5));
+        controller.recruitVehicle(vehicle);
+        return vehicle;
+    }
+}
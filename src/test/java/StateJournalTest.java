@@ -0,0 +1,203 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * StateJournal recovery: snapshot plus log tail, rotation, torn tails and cold starts.
+ */
+class StateJournalTest {
+
+    private final LocalDateTime deadline = LocalDateTime.of(2025, 1, 10, 8, 0);
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("vc-journal");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void firstStartIsCold() {
+        StateJournal journal = new StateJournal(directory);
+        assertFalse(journal.recover().isWarm());
+        journal.close();
+    }
+
+    @Test
+    void restartRebuildsLiveStateFromSnapshotAndLog() {
+        StateJournal journal = seeded();
+        journal.appendJob(row("A", "Pending"));
+        journal.appendJob(row("B", "Pending"));
+        journal.appendJob(row("C", "In-Progress"));
+        journal.appendEnqueued("B");
+        journal.appendEnqueued("A");
+        journal.appendCheckpoint(new Checkpoint("CP-1", "C", deadline, new byte[] {1}, "CAR1"));
+        journal.appendVehicle(vehicle("CAR1", "Active"));
+        journal.appendVehicle(vehicle("CAR2", "Available"));
+        // Finished jobs and departed vehicles leave the live state
+        journal.appendJob(row("D", "Pending"));
+        journal.appendJob(row("D", "Completed"));
+        journal.appendVehicle(vehicle("CAR2", "Departed"));
+        journal.close();
+
+        StateJournal.Recovered recovered = new StateJournal(directory).recover();
+
+        assertTrue(recovered.isWarm());
+        assertEquals(Arrays.asList("A", "B", "C"), jobIDs(recovered.getJobs()));
+        assertEquals(Arrays.asList("B", "A"), recovered.getQueueOrder());
+        assertEquals(1, recovered.getVehicles().size());
+        assertEquals("Active", recovered.getVehicles().get(0).getStatus());
+        assertEquals(1, recovered.getCheckpoints().size());
+        assertEquals("CP-1", recovered.getCheckpoints().get(0).getCheckpointID());
+        assertEquals(11, recovered.getReplayedRecords());
+    }
+
+    @Test
+    void startTimeSurvivesRestart() {
+        StateJournal journal = seeded();
+        Job running = new Job("R", "R", "client", 3, 1, deadline);
+        running.updateStatus("In-Progress");
+        running.markStarted(deadline.minusHours(5));
+        journal.appendJob(JobRow.of(running));
+        journal.appendJob(row("P", "Pending"));
+        journal.close();
+
+        StateJournal.Recovered recovered = new StateJournal(directory).recover();
+
+        assertEquals(deadline.minusHours(5), recovered.getJobs().get(0).toJob().getStartTime());
+        assertNull(recovered.getJobs().get(1).toJob().getStartTime());
+    }
+
+    @Test
+    void prioritySurvivesRestart() {
+        StateJournal journal = seeded();
+        Job urgent = new Job("U", "U", "client", 1, 1, deadline);
+        urgent.setPriority(Job.Priority.HIGH);
+        journal.appendJob(JobRow.of(urgent));
+        journal.appendJob(row("N", "Pending"));
+        journal.close();
+
+        StateJournal.Recovered recovered = new StateJournal(directory).recover();
+
+        assertEquals(Job.Priority.HIGH, recovered.getJobs().get(0).toJob().getPriority());
+        assertEquals(Job.Priority.NORMAL, recovered.getJobs().get(1).toJob().getPriority());
+    }
+
+    @Test
+    void rotatedLogsAreCoveredBySnapshots() {
+        StateJournal journal = seeded();
+        journal.setSnapshotInterval(2);
+        for (int i = 0; i < 7; i++) {
+            journal.appendJob(row("J" + i, "Pending"));
+        }
+        journal.close();
+
+        StateJournal.Recovered recovered = new StateJournal(directory).recover();
+
+        assertEquals(7, recovered.getJobs().size());
+        assertTrue(recovered.getReplayedRecords() <= 2);
+    }
+
+    @Test
+    void tornTailIsCutOff() throws IOException {
+        StateJournal journal = seeded();
+        journal.appendJob(row("A", "Pending"));
+        journal.appendJob(row("B", "Pending"));
+        journal.close();
+
+        // A crash halfway through the next record: a length, a CRC and a few payload bytes
+        Path log = onlyLog();
+        long intact = Files.size(log);
+        Files.write(log, new byte[] {0, 0, 0, 100, 1, 2, 3, 4, 5, 6}, StandardOpenOption.APPEND);
+
+        StateJournal restarted = new StateJournal(directory);
+        StateJournal.Recovered recovered = restarted.recover();
+
+        assertTrue(recovered.isWarm());
+        assertEquals(Arrays.asList("A", "B"), jobIDs(recovered.getJobs()));
+        assertEquals(2, recovered.getReplayedRecords());
+        restarted.close();
+        assertFalse(Files.exists(log) && Files.size(log) > intact);
+    }
+
+    @Test
+    void recordWithBadChecksumEndsReplay() throws IOException {
+        StateJournal journal = seeded();
+        journal.appendJob(row("A", "Pending"));
+        long firstRecordEnd = Files.size(onlyLog());
+        journal.appendJob(row("B", "Pending"));
+        journal.appendJob(row("C", "Pending"));
+        journal.close();
+
+        // Flip a payload byte of the second record
+        Path log = onlyLog();
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[(int) firstRecordEnd + 12] ^= 0x55;
+        Files.write(log, bytes);
+
+        StateJournal.Recovered recovered = new StateJournal(directory).recover();
+
+        assertEquals(Collections.singletonList("A"), jobIDs(recovered.getJobs()));
+    }
+
+    // A journal that has been through a cold start with nothing in the store
+    private StateJournal seeded() {
+        StateJournal journal = new StateJournal(directory);
+        journal.recover();
+        journal.seed(Collections.emptyList(), Collections.emptyList());
+        return journal;
+    }
+
+    private Path onlyLog() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            Object[] logs = files.filter(f -> f.getFileName().toString().startsWith("wal-")).toArray();
+            assertEquals(1, logs.length);
+            return (Path) logs[0];
+        }
+    }
+
+    private JobRow row(String jobID, String status) {
+        Job job = new Job(jobID, jobID, "client", 1, 1, deadline);
+        job.updateStatus(status);
+        return JobRow.of(job);
+    }
+
+    private VehicleRow vehicle(String plate, String status) {
+        Vehicle vehicle = new Vehicle("OWN-" + plate, "owner", "Make", "Model", 2020, plate, "NY", deadline);
+        vehicle.restoreState(status, "Idle", "Free", null);
+        return VehicleRow.of(vehicle);
+    }
+
+    private static List<String> jobIDs(List<JobRow> rows) {
+        List<String> ids = new ArrayList<>();
+        for (JobRow row : rows) {
+            ids.add(row.getJobID());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * TimingWheel: timers on every level cascade down and fire on time, and
+ * timers past the top level's range wait until they are in range.
+ */
+class TimingWheelTest {
+
+    private final LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void timersOnEveryLevelFireInOrder() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMinutes(1), start);
+        // Level 0 (under 64 ticks), 1, 2 and 3
+        wheel.schedule(start.plusDays(20), "days");
+        wheel.schedule(start.plusMinutes(30), "minutes");
+        wheel.schedule(start.plusDays(200), "months");
+        wheel.schedule(start.plusHours(5), "hours");
+
+        assertEquals(Arrays.asList("minutes", "hours", "days", "months"), wheel.advance(start.plusDays(365)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadedTimerFiresOnItsTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMinutes(1), start);
+        LocalDateTime due = start.plusDays(3).plusHours(7).plusMinutes(13);
+        wheel.schedule(due, "due");
+
+        // Each step crosses higher-level slot boundaries, so the timer moves down a level at a time
+        for (LocalDateTime now = start; now.isBefore(due.minusHours(2)); now = now.plusHours(5)) {
+            assertEquals(Collections.emptyList(), wheel.advance(now));
+        }
+        assertEquals(Collections.emptyList(), wheel.advance(due.minusMinutes(1)));
+        assertEquals(Collections.singletonList("due"), wheel.advance(due));
+    }
+
+    @Test
+    void jumpFiresEverythingDueAndNothingLater() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(Duration.ofMinutes(1), start);
+        for (int minute = 1; minute <= 10_000; minute += 7) {
+            wheel.schedule(start.plusMinutes(minute), minute);
+        }
+
+        List<Integer> fired = wheel.advance(start.plusMinutes(5_000));
+        assertEquals(715, fired.size());
+        for (int i = 1; i < fired.size(); i++) {
+            assertTrue(fired.get(i - 1) < fired.get(i));
+        }
+        assertTrue(fired.get(fired.size() - 1) <= 5_000);
+        assertEquals(714, wheel.size());
+    }
+
+    @Test
+    void timerBeyondTheTopLevelWaitsUntilItIsDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMinutes(1), start);
+        // 64^4 one-minute ticks is about 32 years
+        LocalDateTime due = start.plusYears(40);
+        wheel.schedule(due, "far");
+        wheel.schedule(start.plusYears(1), "near");
+
+        assertEquals(Collections.singletonList("near"), wheel.advance(start.plusYears(33)));
+        assertEquals(Collections.emptyList(), wheel.advance(due.minusMinutes(1)));
+        assertEquals(1, wheel.size());
+        assertEquals(Collections.singletonList("far"), wheel.advance(due));
+    }
+
+    @Test
+    void cancelAfterCascadeRemovesTheTimer() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMinutes(1), start);
+        TimingWheel.Timer<String> timer = wheel.schedule(start.plusDays(3), "cancelled");
+        wheel.schedule(start.plusDays(3), "kept");
+
+        wheel.advance(start.plusDays(3).minusMinutes(5));
+        assertTrue(wheel.cancel(timer));
+        assertFalse(wheel.cancel(timer));
+        assertEquals(Collections.singletonList("kept"), wheel.advance(start.plusDays(4)));
+    }
+
+    @Test
+    void timeAlreadyPassedFiresOnTheNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMinutes(1), start);
+        wheel.advance(start.plusHours(1));
+        wheel.schedule(start, "late");
+
+        assertEquals(Collections.singletonList("late"), wheel.advance(start.plusHours(1)));
+    }
+}
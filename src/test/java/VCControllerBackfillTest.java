@@ -0,0 +1,128 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * EASY backfilling in VCController.scheduleJobs: jobs behind a blocked head
+ * only start if they cannot delay its reservation, and only on cars that stay
+ * until they finish.
+ */
+class VCControllerBackfillTest {
+
+    private static final Resources BIG = new Resources(8, 16, 128);
+
+    private final LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+    private VCController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new VCController(new Server(new InMemoryStore()));
+        controller.setClock(new VirtualClock(start));
+    }
+
+    @Test
+    void shortJobRunsAheadOfBlockedHead() {
+        occupyTwoCarsForTwoHours();
+        Vehicle idle = recruit("IDLE", start.plusDays(5));
+
+        controller.addJob(job("HEAD", 1, 3));
+        controller.addJob(job("SHORT", 1, 1));
+
+        assertEquals("Pending", controller.getJobStatus("HEAD"));
+        assertEquals("In-Progress", controller.getJobStatus("SHORT"));
+        assertEquals("SHORT", idle.getCurrentJobID());
+    }
+
+    @Test
+    void longJobLeavesTheHeadsCarsAlone() {
+        occupyTwoCarsForTwoHours();
+        recruit("IDLE1", start.plusDays(5));
+        recruit("IDLE2", start.plusDays(5));
+
+        // The head needs both idle cars plus the two busy ones at the shadow time
+        controller.addJob(job("HEAD", 1, 4));
+        controller.addJob(job("LONG", 5, 1));
+
+        assertEquals("Pending", controller.getJobStatus("LONG"));
+    }
+
+    @Test
+    void longJobUsesCarsTheHeadDoesNotNeed() {
+        occupyTwoCarsForTwoHours();
+        recruit("IDLE1", start.plusDays(5));
+        recruit("IDLE2", start.plusDays(5));
+
+        // At the shadow time the head takes the two busy cars and one idle car
+        controller.addJob(job("HEAD", 1, 3));
+        controller.addJob(job("LONG", 5, 1));
+        controller.addJob(job("LONG2", 5, 1));
+
+        assertEquals("In-Progress", controller.getJobStatus("LONG"));
+        assertEquals("Pending", controller.getJobStatus("LONG2"));
+    }
+
+    @Test
+    void longJobIsNotStartedOnCarsLeavingBeforeItEnds() {
+        occupyTwoCarsForTwoHours();
+        // Parked at the shadow time, but gone before a five-hour job ends
+        recruit("SOON1", start.plusHours(3));
+        recruit("SOON2", start.plusHours(3));
+
+        controller.addJob(job("HEAD", 1, 3));
+        controller.addJob(job("LONG", 5, 1));
+        controller.addJob(job("SHORT", 1, 1));
+
+        assertEquals("Pending", controller.getJobStatus("LONG"));
+        assertEquals("In-Progress", controller.getJobStatus("SHORT"));
+    }
+
+    @Test
+    void spareCapacityIsCountedPerResourceClass() {
+        Vehicle busy1 = recruit("BIG1", start.plusDays(5), BIG);
+        Vehicle busy2 = recruit("BIG2", start.plusDays(5), BIG);
+        controller.addJob(job("RUNNING", 2, 2));
+        assertEquals("RUNNING", busy1.getCurrentJobID());
+        assertEquals("RUNNING", busy2.getCurrentJobID());
+
+        Vehicle big = recruit("BIG3", start.plusDays(5), BIG);
+        Vehicle small = recruit("SMALL", start.plusDays(5), Resources.DEFAULT_VEHICLE);
+
+        // Only big cars count for the head, so the small one is free for backfilling
+        Job head = job("HEAD", 1, 3);
+        head.setRequirements(BIG);
+        controller.addJob(head);
+        controller.addJob(job("LONG", 5, 1));
+
+        assertEquals("Pending", controller.getJobStatus("HEAD"));
+        assertEquals("In-Progress", controller.getJobStatus("LONG"));
+        assertEquals("LONG", small.getCurrentJobID());
+        assertNull(big.getCurrentJobID());
+    }
+
+    // Two cars staying for days run a two-hour job
+    private void occupyTwoCarsForTwoHours() {
+        recruit("BUSY1", start.plusDays(5));
+        recruit("BUSY2", start.plusDays(5));
+        controller.addJob(job("RUNNING", 2, 2));
+        assertEquals("In-Progress", controller.getJobStatus("RUNNING"));
+    }
+
+    private Vehicle recruit(String plate, LocalDateTime departure) {
+        return recruit(plate, departure, Resources.DEFAULT_VEHICLE);
+    }
+
+    private Vehicle recruit(String plate, LocalDateTime departure, Resources capacity) {
+        Vehicle vehicle = new Vehicle("OWN-" + plate, "owner", "Make", "Model", 2020, plate, "NY", departure);
+        vehicle.setCapacity(capacity);
+        controller.recruitVehicle(vehicle);
+        return vehicle;
+    }
+
+    private Job job(String id, int hours, int redundancy) {
+        return new Job(id, "C1", "client", hours, redundancy, start.plusDays(2));
+    }
+}
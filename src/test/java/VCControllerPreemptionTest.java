@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Preemption in VCController: a resumed job keeps its earlier progress but
+ * still gets preemptionMinRun on the fleet before it can be evicted again.
+ */
+class VCControllerPreemptionTest {
+
+    private final LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+    private VirtualClock clock;
+    private VCController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new VCController(new Server(new InMemoryStore()));
+        clock = new VirtualClock(start);
+        controller.setClock(clock);
+        controller.setPreemptionLimits(Duration.ofMinutes(15), 10);
+        controller.recruitVehicle(new Vehicle("OWN-CAR1", "owner", "Make", "Model", 2020, "CAR1", "NY",
+                start.plusDays(5)));
+    }
+
+    @Test
+    void higherPriorityJobEvictsOneThatRanLongEnough() {
+        controller.addJob(job("LOW", Job.Priority.LOW, 5));
+        clock.advance(Duration.ofHours(1));
+        controller.addJob(job("HIGH", Job.Priority.HIGH, 1));
+
+        assertEquals("In-Progress", controller.getJobStatus("HIGH"));
+        assertEquals("Pending(Preempted)", controller.getJobStatus("LOW"));
+    }
+
+    @Test
+    void resumedJobIsNotEvictedBeforeItsMinimumRun() {
+        controller.addJob(job("LOW", Job.Priority.LOW, 5));
+        clock.advance(Duration.ofHours(1));
+        Job first = job("HIGH1", Job.Priority.HIGH, 1);
+        controller.addJob(first);
+        clock.advance(Duration.ofHours(1));
+        controller.handleJobCompletion(first);
+        assertEquals("In-Progress", controller.getJobStatus("LOW"));
+
+        // An hour of earlier progress does not count toward the minimum run
+        clock.advance(Duration.ofMinutes(5));
+        controller.addJob(job("HIGH2", Job.Priority.HIGH, 1));
+        assertEquals("In-Progress", controller.getJobStatus("LOW"));
+        assertEquals("Pending", controller.getJobStatus("HIGH2"));
+
+        // The next scheduling pass after the minimum run evicts it
+        clock.advance(Duration.ofMinutes(15));
+        controller.addJob(job("LATER", Job.Priority.LOW, 1));
+        assertEquals("In-Progress", controller.getJobStatus("HIGH2"));
+        assertEquals("Pending(Preempted)", controller.getJobStatus("LOW"));
+    }
+
+    private Job job(String id, Job.Priority priority, int hours) {
+        Job job = new Job(id, "C1", "client", hours, 1, start.plusDays(2));
+        job.setPriority(priority);
+        return job;
+    }
+}
@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reports vehicles send to the NetworkServer, which name the vehicle only by
+ * its signature, and the checkpoints the controller takes itself.
+ */
+class VCControllerReportsTest {
+
+    private final LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+    private VirtualClock clock;
+    private VCController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new VCController(new Server(new InMemoryStore()));
+        clock = new VirtualClock(start);
+        controller.setClock(clock);
+    }
+
+    @Test
+    void capacityReportLetsAJobThatNeedsMoreRun() {
+        Vehicle vehicle = recruit("CAR1");
+        Job big = new Job("BIG", "C1", "client", 1, 1, start.plusDays(2));
+        big.setRequirements(new Resources(16, 64, 256));
+        controller.addJob(big);
+        assertEquals("Pending", controller.getJobStatus("BIG"));
+
+        controller.handleCapacityReport(new CapacityReport(vehicle.getSignature(), new Resources(32, 128, 512)));
+
+        assertEquals("In-Progress", controller.getJobStatus("BIG"));
+        assertEquals(new Resources(32, 128, 512), vehicle.getCapacity());
+    }
+
+    @Test
+    void capacityReportFromAnUnknownVehicleIsIgnored() {
+        controller.handleCapacityReport(new CapacityReport("NOPE-NY", new Resources(32, 128, 512)));
+        assertEquals(0, controller.getPendingJobCount());
+    }
+
+    @Test
+    void progressReportFindsAStraggler() {
+        Vehicle fast = recruit("CAR1");
+        Vehicle slow = recruit("CAR2");
+        controller.addJob(new Job("JOB", "C1", "client", 4, 2, start.plusDays(2)));
+        recruit("SPARE");
+        controller.setSpeculationBudget(1);
+        clock.advance(Duration.ofHours(1));
+
+        controller.handleProgressReport(new ProgressReport(fast.getSignature(), "JOB", 0.25));
+        controller.handleProgressReport(new ProgressReport(slow.getSignature(), "JOB", 0.05));
+
+        assertEquals(1, controller.speculateStragglers());
+    }
+
+    @Test
+    void automaticCheckpointsCountForEveryHost() {
+        recruit("CAR1");
+        recruit("CAR2");
+        controller.addJob(new Job("JOB", "C1", "client", 48, 2, start.plusDays(3)));
+        recruit("SPARE");
+        controller.setSpeculationBudget(1);
+
+        int taken = 0;
+        for (int hour = 0; hour < 24; hour++) {
+            clock.advance(Duration.ofHours(1));
+            taken += controller.runDueCheckpoints();
+        }
+
+        // Both hosts checkpoint at the same cadence, so neither is a straggler
+        assertTrue(taken >= 2);
+        assertEquals(0, controller.speculateStragglers());
+    }
+
+    private Vehicle recruit(String plate) {
+        Vehicle vehicle = new Vehicle("OWN-" + plate, "owner", "Make", "Model", 2020, plate, "NY", start.plusDays(5));
+        controller.recruitVehicle(vehicle);
+        return vehicle;
+    }
+}
@@ -0,0 +1,349 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Discrete-event simulation of the vehicular cloud.
+ * Drives VCController and Server against an in-memory store and a virtual
+ * clock, with no MySQL or Swing involved. The synthetic workload has Poisson
+ * job and vehicle arrivals spread over the horizon; every vehicle leaves at its
+ * departureSchedule, and every job completes once its duration has elapsed on
+ * the vehicles it was given.
+ *
+ * The controller's background planner (migrations ahead of departures and
+ * automatic checkpoints) runs every few simulated minutes, as its thread would.
+ *
+ * With fair-share queueing on, the first FAIR_SHARE_HEAVY_CLIENTS clients get
+ * FAIR_SHARE_HEAVY_WEIGHT times the default weight, and the report compares
+ * the vehicle-hours they received with their configured share.
+ *
+ * Reports throughput, deadline-miss rate, vehicle utilization and the
+ * wall-clock cost of the controller's scheduling decisions.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.mainClass="VehicleCloudSimulation" 
+ *        -Dexec.args="[jobs] [vehicles] [seed] [backfill|fifo] [migration lead minutes, 0 = off]
+ *                     [checkpoint cost seconds, 0 = no automatic checkpoints] [global|fair]"
+ */
+public class VehicleCloudSimulation {
+
+    private static final int DEFAULT_JOBS = 100_000;
+    private static final int DEFAULT_VEHICLES = 100_000;
+    private static final long DEFAULT_SEED = 42L;
+    private static final int DEFAULT_MIGRATION_LEAD_MINUTES = 30;
+    private static final int DEFAULT_CHECKPOINT_COST_SECONDS = 120;
+    private static final Duration PLANNER_PERIOD = Duration.ofMinutes(5);
+    private static final int CLIENTS = 100;
+    private static final int FAIR_SHARE_HEAVY_CLIENTS = 10;
+    private static final double FAIR_SHARE_HEAVY_WEIGHT = 3.0;
+
+    // Simulated time span over which arrivals are spread
+    private static final Duration HORIZON = Duration.ofDays(90);
+
+    private enum EventType {
+        VEHICLE_ARRIVAL,
+        VEHICLE_DEPARTURE,
+        JOB_ARRIVAL,
+        JOB_COMPLETION,
+        PLANNER_TICK
+    }
+
+    private static class Event implements Comparable<Event> {
+        final LocalDateTime time;
+        final long sequence;
+        final EventType type;
+        final Job job;
+        final Vehicle vehicle;
+        // Start time the completion was computed from; a restarted job makes it stale
+        final LocalDateTime jobStart;
+
+        Event(LocalDateTime time, long sequence, EventType type, Job job, Vehicle vehicle, LocalDateTime jobStart) {
+            this.time = time;
+            this.sequence = sequence;
+            this.type = type;
+            this.job = job;
+            this.vehicle = vehicle;
+            this.jobStart = jobStart;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = time.compareTo(other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final int jobCount;
+    private final int vehicleCount;
+    private final long seed;
+    private final boolean backfilling;
+    private final Duration migrationLead;
+    private final Duration checkpointCost;
+    private final boolean fairShare;
+
+    private final LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+    private final VirtualClock clock = new VirtualClock(start);
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    // Arrivals are known up front: kept sorted apart from the queue so it only holds what the run schedules
+    private final List<Event> workload = new ArrayList<>();
+    private int nextArrival;
+    private long sequence;
+
+    private VCController controller;
+
+    // Submitted jobs that have not started yet (arrival order)
+    private final Set<Job> waiting = new LinkedHashSet<>();
+    private final Map<String, Job> jobsById = new HashMap<>();
+    private final Map<String, LocalDateTime> arrivals = new HashMap<>();
+    private long startedSeen;
+
+    private int completed;
+    private int deadlineMisses;
+    private double busyVehicleHours;
+    private double parkedVehicleHours;
+    private double totalWaitHours;
+
+    public VehicleCloudSimulation(int jobCount, int vehicleCount, long seed, boolean backfilling,
+                                  Duration migrationLead, Duration checkpointCost, boolean fairShare) {
+        this.jobCount = jobCount;
+        this.vehicleCount = vehicleCount;
+        this.seed = seed;
+        this.backfilling = backfilling;
+        this.migrationLead = migrationLead;
+        this.checkpointCost = checkpointCost;
+        this.fairShare = fairShare;
+    }
+
+    public static void main(String[] args) {
+        int jobs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_JOBS;
+        int vehicles = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_VEHICLES;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        boolean backfilling = args.length <= 3 || !"fifo".equalsIgnoreCase(args[3]);
+        int leadMinutes = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_MIGRATION_LEAD_MINUTES;
+        int costSeconds = args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_CHECKPOINT_COST_SECONDS;
+        boolean fairShare = args.length > 6 && "fair".equalsIgnoreCase(args[6]);
+
+        new VehicleCloudSimulation(jobs, vehicles, seed, backfilling,
+                leadMinutes > 0 ? Duration.ofMinutes(leadMinutes) : null,
+                costSeconds > 0 ? Duration.ofSeconds(costSeconds) : null, fairShare).run();
+    }
+
+    public void run() {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long wallStart = System.nanoTime();
+        try {
+            controller = new VCController(new Server(new InMemoryStore()));
+            controller.setClock(clock);
+            controller.setBackfillingEnabled(backfilling);
+            controller.setMigrationLeadTime(migrationLead);
+            controller.setAutoCheckpointing(checkpointCost != null);
+            if (checkpointCost != null) {
+                controller.setCheckpointCost(checkpointCost);
+            }
+            if (fairShare) {
+                for (int i = 0; i < FAIR_SHARE_HEAVY_CLIENTS; i++) {
+                    controller.setClientWeight("client" + i, FAIR_SHARE_HEAVY_WEIGHT);
+                }
+                controller.setFairShareEnabled(true);
+            }
+            controller.getMetrics().reset();
+
+            generateWorkload();
+            schedule(start, EventType.PLANNER_TICK, null, null, null);
+            while (hasEvents()) {
+                Event event = nextEvent();
+                clock.advanceTo(event.time);
+                handle(event);
+                collectStartedJobs();
+            }
+        } finally {
+            System.setOut(console);
+        }
+        report(console, (System.nanoTime() - wallStart) / 1_000_000);
+    }
+
+    private void generateWorkload() {
+        Random random = new Random(seed);
+        long horizonMinutes = HORIZON.toMinutes();
+
+        for (int i = 0; i < vehicleCount; i++) {
+            LocalDateTime arrival = start.plusMinutes((long) (random.nextDouble() * horizonMinutes));
+            // Parked for a shift or a day: 4-36 hours
+            LocalDateTime departure = arrival.plusMinutes(240 + random.nextInt(32 * 60));
+            Vehicle vehicle = new Vehicle("OWN" + i, "owner" + (i % 1000), "Make", "Model", 2020,
+                    "SIM" + i, "NY", departure);
+            workload.add(new Event(arrival, sequence++, EventType.VEHICLE_ARRIVAL, null, vehicle, null));
+        }
+
+        for (int i = 0; i < jobCount; i++) {
+            LocalDateTime arrival = start.plusMinutes((long) (random.nextDouble() * horizonMinutes));
+            // Mostly small jobs, some wide ones
+            int redundancy = random.nextInt(20) == 0 ? 5 + random.nextInt(16) : 1 + random.nextInt(3);
+            int duration = 1 + random.nextInt(8);
+            LocalDateTime deadline = arrival.plusHours(duration * (2L + random.nextInt(5)));
+            Job job = new Job("SIMJOB-" + i, "C" + (i % CLIENTS), "client" + (i % CLIENTS),
+                    duration, redundancy, deadline);
+            workload.add(new Event(arrival, sequence++, EventType.JOB_ARRIVAL, job, null, null));
+        }
+        Collections.sort(workload);
+    }
+
+    private boolean hasEvents() {
+        return nextArrival < workload.size() || !events.isEmpty();
+    }
+
+    private Event nextEvent() {
+        if (nextArrival < workload.size()
+                && (events.isEmpty() || workload.get(nextArrival).compareTo(events.peek()) < 0)) {
+            return workload.get(nextArrival++);
+        }
+        return events.poll();
+    }
+
+    private void schedule(LocalDateTime time, EventType type, Job job, Vehicle vehicle, LocalDateTime jobStart) {
+        events.add(new Event(time, sequence++, type, job, vehicle, jobStart));
+    }
+
+    private void handle(Event event) {
+        switch (event.type) {
+            case VEHICLE_ARRIVAL:
+                Vehicle arriving = event.vehicle;
+                parkedVehicleHours += ChronoUnit.MINUTES.between(event.time, arriving.getDepartureSchedule()) / 60.0;
+                schedule(arriving.getDepartureSchedule(), EventType.VEHICLE_DEPARTURE, null, arriving, null);
+                controller.recruitVehicle(arriving);
+                break;
+            case VEHICLE_DEPARTURE:
+                Vehicle leaving = event.vehicle;
+                Job running = leaving.getCurrentJobID() == null ? null : jobsById.get(leaving.getCurrentJobID());
+                controller.handleVehicleDeparture(leaving);
+                if (running != null && running.getStatus().startsWith("Pending")) {
+                    waiting.add(running); // re-queued, will be picked up when it restarts
+                }
+                break;
+            case JOB_ARRIVAL:
+                jobsById.put(event.job.getJobID(), event.job);
+                arrivals.put(event.job.getJobID(), event.time);
+                waiting.add(event.job);
+                controller.addJob(event.job);
+                break;
+            case JOB_COMPLETION:
+                Job job = event.job;
+                if (!"In-Progress".equals(job.getStatus()) || !event.jobStart.equals(job.getStartTime())) {
+                    return; // interrupted and restarted since this completion was scheduled
+                }
+                completed++;
+                totalWaitHours += ChronoUnit.MINUTES.between(arrivalOf(job), job.getStartTime()) / 60.0;
+                busyVehicleHours += (double) job.getDuration() * job.getRedundancyLevel();
+                if (event.time.isAfter(job.getDeadline())) {
+                    deadlineMisses++;
+                }
+                controller.handleJobCompletion(job);
+                break;
+            case PLANNER_TICK:
+                controller.runPlanner();
+                if (hasEvents()) {
+                    schedule(event.time.plus(PLANNER_PERIOD), EventType.PLANNER_TICK, null, null, null);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Finds the jobs the last controller call started and schedules their completions
+    private void collectStartedJobs() {
+        long started = controller.getMetrics().get(ControllerMetrics.JOBS_STARTED);
+        long newlyStarted = started - startedSeen;
+        startedSeen = started;
+
+        Iterator<Job> it = waiting.iterator();
+        while (newlyStarted > 0 && it.hasNext()) {
+            Job job = it.next();
+            if ("In-Progress".equals(job.getStatus())) {
+                it.remove();
+                newlyStarted--;
+                schedule(job.getStartTime().plusHours(job.getDuration()), EventType.JOB_COMPLETION,
+                        job, null, job.getStartTime());
+            }
+        }
+    }
+
+    private LocalDateTime arrivalOf(Job job) {
+        return arrivals.getOrDefault(job.getJobID(), job.getStartTime());
+    }
+
+    private void report(PrintStream out, long wallMillis) {
+        ControllerMetrics metrics = controller.getMetrics();
+        double simulatedHours = ChronoUnit.MINUTES.between(start, clock.now()) / 60.0;
+        int unfinished = jobCount - completed;
+        long passes = metrics.get(ControllerMetrics.SCHEDULING_PASSES);
+        long decisions = metrics.get(ControllerMetrics.JOBS_STARTED);
+        double schedulingMillis = metrics.get(ControllerMetrics.SCHEDULING_NANOS) / 1e6;
+
+        out.println("Vehicular cloud simulation (" + (backfilling ? "EASY backfilling" : "FIFO") + ", seed " + seed
+                + ", migration " + (migrationLead == null ? "off" : migrationLead.toMinutes() + " min ahead")
+                + ", checkpoints " + (checkpointCost == null ? "off" : "cost " + checkpointCost.getSeconds() + " s")
+                + ", " + (fairShare ? "fair-share" : "global") + " queue)");
+        out.printf("  workload          %d jobs, %d vehicles over %d days%n", jobCount, vehicleCount, HORIZON.toDays());
+        out.printf("  simulated time    %.1f h (wall clock %d ms)%n", simulatedHours, wallMillis);
+        out.printf("  completed         %d (%d never finished)%n", completed, unfinished);
+        out.printf("  throughput        %.2f jobs/h%n", simulatedHours == 0 ? 0 : completed / simulatedHours);
+        out.printf("  deadline misses   %.2f%% (late completions and unfinished jobs)%n",
+                jobCount == 0 ? 0 : 100.0 * (deadlineMisses + unfinished) / jobCount);
+        out.printf("  avg wait          %.2f h%n", completed == 0 ? 0 : totalWaitHours / completed);
+        out.printf("  utilization       %.1f%% of parked vehicle-hours spent on completed work%n",
+                parkedVehicleHours == 0 ? 0 : 100.0 * busyVehicleHours / parkedVehicleHours);
+        out.printf("  re-queued         %d, recovered from checkpoint %d, migrated before departure %d%n",
+                metrics.get(ControllerMetrics.JOBS_REQUEUED), metrics.get(ControllerMetrics.JOBS_RECOVERED),
+                metrics.get(ControllerMetrics.JOBS_MIGRATED));
+        if (checkpointCost != null) {
+            CheckpointIntervalPolicy policy = controller.getCheckpointPolicy();
+            out.printf("  checkpoints       %d taken, interval for 1 host now %d min (mean stay %.1f h,"
+                            + " early departure every %.1f h per vehicle)%n",
+                    metrics.get(ControllerMetrics.CHECKPOINTS_TAKEN), policy.intervalFor(1).toMinutes(),
+                    policy.getMeanStay().getSeconds() / 3600.0,
+                    policy.getMeanTimeToEarlyDeparture().getSeconds() / 3600.0);
+        }
+        out.printf("  overhead + loss   %.1f h checkpointing + %.1f h of lost work%n",
+                metrics.get(ControllerMetrics.CHECKPOINT_OVERHEAD_SECONDS) / 3600.0,
+                metrics.get(ControllerMetrics.WORK_LOST_SECONDS) / 3600.0);
+        if (fairShare) {
+            reportShares(out);
+        }
+        out.printf("  scheduling        %d passes, %.1f us/pass, %.1f us/job start (%d starts, %d backfilled)%n",
+                passes, passes == 0 ? 0 : schedulingMillis * 1000 / passes,
+                decisions == 0 ? 0 : schedulingMillis * 1000 / decisions,
+                decisions, metrics.get(ControllerMetrics.JOBS_BACKFILLED));
+    }
+
+    private void reportShares(PrintStream out) {
+        double heavy = 0;
+        double total = 0;
+        for (Map.Entry<String, Double> entry : controller.getClientUsage().entrySet()) {
+            total += entry.getValue();
+            int client = Integer.parseInt(entry.getKey().substring("client".length()));
+            if (client < FAIR_SHARE_HEAVY_CLIENTS) {
+                heavy += entry.getValue();
+            }
+        }
+        double weights = FAIR_SHARE_HEAVY_CLIENTS * FAIR_SHARE_HEAVY_WEIGHT + (CLIENTS - FAIR_SHARE_HEAVY_CLIENTS);
+        // Shares only bind while a client is backlogged, so the result sits between demand and weight
+        out.printf("  fair share        %d clients at weight %.0f got %.1f%% of started vehicle-hours"
+                        + " (%.1f%% of demand, %.1f%% by weight)%n",
+                FAIR_SHARE_HEAVY_CLIENTS, FAIR_SHARE_HEAVY_WEIGHT, total == 0 ? 0 : 100.0 * heavy / total,
+                100.0 * FAIR_SHARE_HEAVY_CLIENTS / CLIENTS,
+                100.0 * FAIR_SHARE_HEAVY_CLIENTS * FAIR_SHARE_HEAVY_WEIGHT / weights);
+    }
+}
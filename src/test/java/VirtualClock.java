@@ -0,0 +1,55 @@
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * A Clock that only moves when told to.
+ * Lets benchmarks and simulations drive VCController through hours of
+ * scheduled work without waiting for real time to pass.
+ */
+public class VirtualClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile Instant instant;
+
+    public VirtualClock(LocalDateTime start) {
+        this(start.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    }
+
+    private VirtualClock(Instant instant, ZoneId zone) {
+        this.instant = instant;
+        this.zone = zone;
+    }
+
+    public void advance(Duration duration) {
+        this.instant = instant.plus(duration);
+    }
+
+    public void advanceTo(LocalDateTime time) {
+        Instant target = time.atZone(zone).toInstant();
+        if (target.isAfter(instant)) {
+            this.instant = target;
+        }
+    }
+
+    public LocalDateTime now() {
+        return LocalDateTime.ofInstant(instant, zone);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new VirtualClock(instant, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}